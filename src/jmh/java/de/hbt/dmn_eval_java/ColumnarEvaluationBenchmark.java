@@ -0,0 +1,87 @@
+package de.hbt.dmn_eval_java;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares evaluating a compiled decision for many rows as a list of inputs with evaluating it for the same rows given
+ * column by column.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarEvaluationBenchmark {
+
+    private static final String DECISION_ID = "decisionPackagingMatchingScore";
+
+    @Param({ "10000", "1000000" })
+    private int rows;
+
+    private DecisionService decisionService;
+    private List<Object> inputs;
+    private ColumnarInput columnarInput;
+
+    @Setup
+    public void registerDecision() {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setNativeCompilationEnabled(true);
+        configuration.setQuietLoggingEnabled(true);
+        decisionService = new DecisionService(configuration);
+        decisionService.registerDefinitionsFromClasspath("packaging_matching_score.dmn").join();
+        String[] purchasePackagings = new String[rows];
+        String[] salesPackagings = new String[rows];
+        inputs = new ArrayList<>(rows);
+        for (int i = 0; i < rows; ++i) {
+            purchasePackagings[i] = (i % 3 == 0)? "Bags" : "Bulk";
+            salesPackagings[i] = (i % 2 == 0)? "Bags" : "Bulk";
+            Map<String, Object> input = new HashMap<>();
+            input.put("purchaseLot", createLot(purchasePackagings[i]));
+            input.put("salesLot", createLot(salesPackagings[i]));
+            inputs.add(input);
+        }
+        columnarInput = new ColumnarInput(rows)
+                .setColumn("purchaseLot.packaging", purchasePackagings)
+                .setColumn("salesLot.packaging", salesPackagings);
+    }
+
+    private static ContractLot createLot(String packaging) {
+        ContractLot lot = new ContractLot();
+        lot.setPackaging(packaging);
+        return lot;
+    }
+
+    @TearDown
+    public void closeDecisionService() {
+        decisionService.close();
+    }
+
+    @Benchmark
+    public List<BatchEvaluationResult<Map>> evaluateDecisions() {
+        return decisionService.evaluateDecisions(DECISION_ID, inputs, Map.class);
+    }
+
+    @Benchmark
+    public List<BatchEvaluationResult<Map>> evaluateColumns() {
+        return decisionService.evaluateColumns(DECISION_ID, columnarInput, Map.class);
+    }
+
+}
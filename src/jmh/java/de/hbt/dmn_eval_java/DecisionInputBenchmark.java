@@ -0,0 +1,83 @@
+package de.hbt.dmn_eval_java;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares evaluating a compiled or cached decision for an input of maps and Java beans with evaluating it for a typed
+ * {@link DecisionInput} whose slots are set before each evaluation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecisionInputBenchmark {
+
+    private static final String DECISION_ID = "decisionPackagingMatchingScore";
+
+    @Param({ "false", "true" })
+    private boolean resultCache;
+
+    private DecisionService decisionService;
+    private Map<String, Object> input;
+    private DecisionInput decisionInput;
+    private int purchasePackaging;
+    private int salesPackaging;
+    private int count;
+
+    @Setup
+    public void registerDecision() {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setNativeCompilationEnabled(true);
+        configuration.setResultCacheSize(resultCache? 100 : 0);
+        decisionService = new DecisionService(configuration);
+        decisionService.registerDefinitionsFromClasspath("packaging_matching_score.dmn").join();
+        input = new HashMap<>();
+        decisionInput = decisionService.createDecisionInput(DECISION_ID);
+        purchasePackaging = decisionInput.getSlot("purchaseLot.packaging");
+        salesPackaging = decisionInput.getSlot("salesLot.packaging");
+    }
+
+    @TearDown
+    public void closeDecisionService() {
+        decisionService.close();
+    }
+
+    private String nextPackaging() {
+        return (++count % 2 == 0)? "Bags" : "Bulk";
+    }
+
+    @Benchmark
+    public DecisionEvaluationResult<Map> evaluateMapInput() {
+        ContractLot salesLot = new ContractLot();
+        salesLot.setPackaging(nextPackaging());
+        ContractLot purchaseLot = new ContractLot();
+        purchaseLot.setPackaging("Bulk");
+        input.put("salesLot", salesLot);
+        input.put("purchaseLot", purchaseLot);
+        return decisionService.evaluateDecision(DECISION_ID, input, Map.class);
+    }
+
+    @Benchmark
+    public DecisionEvaluationResult<Map> evaluateDecisionInput() {
+        decisionInput.set(salesPackaging, nextPackaging()).set(purchasePackaging, "Bulk");
+        return decisionService.evaluateDecision(DECISION_ID, decisionInput, Map.class);
+    }
+
+}
@@ -0,0 +1,46 @@
+package de.hbt.dmn_eval_java;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to start a decision service, i.e. to bootstrap its script engines. The dmn-eval-js scripts
+ * are compiled only once per JVM, so only the first start of each fork compiles them. With GraalJS, the engines
+ * share the code that the compilation cached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(3)
+public class DecisionServiceStartupBenchmark {
+
+    @Param({ "1", "4" })
+    private int engines;
+
+    @Param({ "NASHORN", "GRAALJS" })
+    private ScriptEngineType scriptEngineType;
+
+    @Benchmark
+    public StartupMetrics startDecisionService() {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setEnginePoolSize(engines);
+        configuration.setMinIdleEngines(engines);
+        configuration.setScriptEngineType(scriptEngineType);
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            return decisionService.getStartupMetrics();
+        }
+    }
+
+}
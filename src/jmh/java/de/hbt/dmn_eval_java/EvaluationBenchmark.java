@@ -0,0 +1,123 @@
+package de.hbt.dmn_eval_java;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Measures how long it takes to evaluate the decisions of the test resources, one input at a time and in batches,
+ * by a single thread and by several threads that contend for the script engines of the pool, with Nashorn and with
+ * GraalJS. Each engine parses the decision when it evaluates it for the first time, which happens during the warmup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({ "packaging_matching_score.dmn", "test-collect.dmn", "test-functions.dmn" })
+    private String dmnFile;
+
+    @Param({ "false", "true" })
+    private boolean nativeCompilation;
+
+    @Param({ "1", "4" })
+    private int engines;
+
+    @Param({ "NASHORN", "GRAALJS" })
+    private ScriptEngineType scriptEngineType;
+
+    private DecisionService decisionService;
+    private String decisionId;
+    private Object input;
+    private List<Object> inputs;
+
+    @Setup
+    public void registerDecision() {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setNativeCompilationEnabled(nativeCompilation);
+        configuration.setEnginePoolSize(engines);
+        configuration.setMinIdleEngines(engines);
+        configuration.setScriptEngineType(scriptEngineType);
+        decisionService = new DecisionService(configuration);
+        decisionId = decisionService.registerDefinitionsFromClasspath(dmnFile).join().get(0).getDecisionId();
+        inputs = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            inputs.add(createInput(i));
+        }
+        input = inputs.get(0);
+    }
+
+    private Object createInput(int i) {
+        Map<String, Object> input = new HashMap<>();
+        switch (dmnFile) {
+            case "packaging_matching_score.dmn":
+                input.put("salesLot", createLot((i % 2 == 0)? "Bags" : "Bulk"));
+                input.put("purchaseLot", createLot("Bulk"));
+                break;
+            case "test-collect.dmn":
+                Map<String, Object> category = new HashMap<>();
+                category.put("category", String.valueOf((char) ('A' + (i % 4))));
+                input.put("input", category);
+                break;
+            default:
+                input.put("input1", 1);
+                input.put("input2", "2");
+                input.put("input3", i % 2 == 0);
+                input.put("func1", (BiFunction<Integer, String, Long>) (intValue, stringValue) -> (intValue == 1)? 42L : 0L);
+                input.put("func2", (Function<String, Long>) (value) -> "2".equals(value)? 42L : -1L);
+                input.put("func3", (Function<Boolean, String>) (value) -> value? "ok" : "nok");
+        }
+        return input;
+    }
+
+    private static ContractLot createLot(String packaging) {
+        ContractLot lot = new ContractLot();
+        lot.setPackaging(packaging);
+        return lot;
+    }
+
+    @TearDown
+    public void closeDecisionService() {
+        decisionService.close();
+    }
+
+    @Benchmark
+    public DecisionEvaluationResult<Map> evaluateDecision() {
+        return decisionService.evaluateDecision(decisionId, input, Map.class);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public DecisionEvaluationResult<Map> evaluateDecisionContended() {
+        return decisionService.evaluateDecision(decisionId, input, Map.class);
+    }
+
+    @Benchmark
+    public List<BatchEvaluationResult<Map>> evaluateDecisions() {
+        return decisionService.evaluateDecisions(decisionId, inputs, Map.class);
+    }
+
+}
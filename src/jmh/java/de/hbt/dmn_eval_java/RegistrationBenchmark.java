@@ -0,0 +1,56 @@
+package de.hbt.dmn_eval_java;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to register the DMN definitions of the test resources, i.e. to parse their XML content
+ * and their FEEL expressions, and to compile them if native compilation is enabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    @Param({ "packaging_matching_score.dmn", "test-collect.dmn", "test-collect-drg.dmn", "test-functions.dmn" })
+    private String dmnFile;
+
+    @Param({ "false", "true" })
+    private boolean nativeCompilation;
+
+    private DecisionService decisionService;
+
+    @Setup
+    public void startDecisionService() {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setNativeCompilationEnabled(nativeCompilation);
+        decisionService = new DecisionService(configuration);
+    }
+
+    @TearDown
+    public void closeDecisionService() {
+        decisionService.close();
+    }
+
+    @Benchmark
+    public List<Decision> registerDefinitions() {
+        return decisionService.registerDefinitionsFromClasspath(dmnFile).join();
+    }
+
+}
@@ -0,0 +1,143 @@
+package de.hbt.dmn_eval_java.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to wrap a decision input with nested Java beans, like the contract lots of the
+ * packaging matching score decision.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputObjectWrapperBenchmark {
+
+    @Param({ "1", "5" })
+    private int depth;
+
+    private Map<String, Object> input;
+
+    @Setup
+    public void createInput() {
+        input = new HashMap<>();
+        input.put("salesLot", createLot("Bags", depth));
+        input.put("purchaseLot", createLot("Bulk", depth));
+    }
+
+    private static Lot createLot(String packaging, int depth) {
+        Lot lot = new Lot();
+        lot.setPackaging(packaging);
+        lot.setQuantity(20.0);
+        lot.setOrganic(true);
+        lot.setQuality(new Quality());
+        lot.getQuality().setGrade("A");
+        lot.getQuality().setMoisture(12);
+        if (depth > 1) {
+            lot.setOriginLot(createLot(packaging, depth - 1));
+        }
+        return lot;
+    }
+
+    @Benchmark
+    public WrappedInputObject wrapInput() {
+        return InputObjectWrapper.INSTANCE.wrapInput(input);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public WrappedInputObject wrapInputContended() {
+        // the threads share the cached property getters of the bean classes
+        return InputObjectWrapper.INSTANCE.wrapInput(input);
+    }
+
+    public static class Lot {
+
+        private String packaging;
+        private Double quantity;
+        private boolean organic;
+        private Quality quality;
+        private Lot originLot;
+
+        public String getPackaging() {
+            return packaging;
+        }
+
+        public void setPackaging(String packaging) {
+            this.packaging = packaging;
+        }
+
+        public Double getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Double quantity) {
+            this.quantity = quantity;
+        }
+
+        public boolean isOrganic() {
+            return organic;
+        }
+
+        public void setOrganic(boolean organic) {
+            this.organic = organic;
+        }
+
+        public Quality getQuality() {
+            return quality;
+        }
+
+        public void setQuality(Quality quality) {
+            this.quality = quality;
+        }
+
+        public Lot getOriginLot() {
+            return originLot;
+        }
+
+        public void setOriginLot(Lot originLot) {
+            this.originLot = originLot;
+        }
+
+    }
+
+    public static class Quality {
+
+        private String grade;
+        private Integer moisture;
+
+        public String getGrade() {
+            return grade;
+        }
+
+        public void setGrade(String grade) {
+            this.grade = grade;
+        }
+
+        public Integer getMoisture() {
+            return moisture;
+        }
+
+        public void setMoisture(Integer moisture) {
+            this.moisture = moisture;
+        }
+
+    }
+
+}
@@ -0,0 +1,90 @@
+package de.hbt.dmn_eval_java.impl;
+
+import com.google.gson.annotations.SerializedName;
+import de.hbt.dmn_eval_java.MessageAndOutputValueResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to map a result object of a decision, like those of the test-collect decision, to a
+ * result type: to a Java bean whose fields are copied directly, to a map, and to a type that is mapped by Gson.
+ * The contended variants map results from several threads, which share the cached field metadata of the result types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultMapperBenchmark {
+
+    private Map<String, Object> resultObject;
+
+    @Setup
+    public void createResultObject() {
+        resultObject = new LinkedHashMap<>();
+        resultObject.put("message", "Message 1");
+        resultObject.put("output", Collections.singletonMap("property", "Value 1"));
+    }
+
+    @Benchmark
+    public MessageAndOutputValueResult mapToBean() {
+        return ResultMapper.INSTANCE.mapResult(resultObject, MessageAndOutputValueResult.class);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public MessageAndOutputValueResult mapToBeanContended() {
+        return ResultMapper.INSTANCE.mapResult(resultObject, MessageAndOutputValueResult.class);
+    }
+
+    @Benchmark
+    public Map mapToMap() {
+        return ResultMapper.INSTANCE.mapResult(resultObject, Map.class);
+    }
+
+    @Benchmark
+    public GsonResult mapWithGson() {
+        return ResultMapper.INSTANCE.mapResult(resultObject, GsonResult.class);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public GsonResult mapWithGsonContended() {
+        return ResultMapper.INSTANCE.mapResult(resultObject, GsonResult.class);
+    }
+
+    /**
+     * A result type with Gson annotations, which is mapped by Gson instead of copying its fields directly.
+     */
+    public static class GsonResult {
+
+        @SerializedName("message")
+        private String text;
+        private Map<String, String> output;
+
+        public String getText() {
+            return text;
+        }
+
+        public Map<String, String> getOutput() {
+            return output;
+        }
+
+    }
+
+}
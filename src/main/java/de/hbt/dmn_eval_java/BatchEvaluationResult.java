@@ -0,0 +1,64 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java;
+
+/**
+ * Represents the outcome of evaluating a decision for one of the inputs of a batch, see
+ * {@link DecisionService#evaluateDecisions(String, java.util.List, Class)}. Either the decision was evaluated
+ * successfully, then the outcome contains the {@link DecisionEvaluationResult}, or the evaluation failed for this
+ * input, then the outcome contains the exception.
+ * @param <T> the run-time type of the result value
+ */
+public class BatchEvaluationResult<T> {
+
+    private final int index;
+    private final Object decisionInput;
+    private final DecisionEvaluationResult<T> result;
+    private final DecisionEvaluationException exception;
+
+    BatchEvaluationResult(int index, Object decisionInput, DecisionEvaluationResult<T> result, DecisionEvaluationException exception) {
+        this.index = index;
+        this.decisionInput = decisionInput;
+        this.result = result;
+        this.exception = exception;
+    }
+
+    /**
+     * Returns the position of the input within the inputs of the batch, starting with 0.
+     * @return the index of the input
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public Object getDecisionInput() {
+        return decisionInput;
+    }
+
+    /**
+     * Returns whether the decision was evaluated successfully for the input.
+     * @return true if there is a result, false if there is an exception
+     */
+    public boolean isSuccessful() {
+        return exception == null;
+    }
+
+    /**
+     * Returns the result of evaluating the decision for the input.
+     * @return the decision result, or <code>null</code> if the evaluation failed
+     */
+    public DecisionEvaluationResult<T> getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the reason why evaluating the decision failed for the input.
+     * @return the exception, or <code>null</code> if the evaluation was successful
+     */
+    public DecisionEvaluationException getException() {
+        return exception;
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java;
+
+import de.hbt.dmn_eval_java.impl.compiler.FeelValues;
+import de.hbt.dmn_eval_java.impl.compiler.InputExpression;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The inputs of many evaluations of a decision, given column by column instead of row by row: for each input expression
+ * of the decision, like "salesLot.packaging", an array with the value of each row. Numbers can be given as arrays of
+ * primitive numbers, which are not boxed to evaluate compiled decisions. Input expressions without a column are undefined
+ * for all rows.
+ * <p>
+ * The columns are not copied, so they must not be modified while the decision is evaluated, see
+ * {@link DecisionService#evaluateColumns(String, ColumnarInput, Class)}.
+ */
+public final class ColumnarInput {
+
+    private final int rowCount;
+    private final Map<String, Object> columns = new LinkedHashMap<>();
+
+    /**
+     * Creates the input.
+     * @param rowCount the number of rows, which must be the length of each column
+     */
+    public ColumnarInput(int rowCount) {
+        if (rowCount < 0) {
+            throw new IllegalArgumentException("Row count must not be negative: " + rowCount);
+        }
+        this.rowCount = rowCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Sets the values of the given input expression, like strings or booleans. <code>null</code> values are not supported
+     * by compiled decisions, so these rows are evaluated by the script engine.
+     * @param inputExpression the input expression, like "salesLot.packaging"
+     * @param values the value of each row
+     * @return this input
+     * @throws IllegalArgumentException thrown if the number of values differs from the number of rows
+     */
+    public ColumnarInput setColumn(String inputExpression, Object[] values) {
+        return putColumn(inputExpression, values, values.length);
+    }
+
+    /**
+     * Sets the numbers of the given input expression.
+     * @param inputExpression the input expression, like "salesLot.quantity"
+     * @param values the value of each row
+     * @return this input
+     * @throws IllegalArgumentException thrown if the number of values differs from the number of rows
+     */
+    public ColumnarInput setColumn(String inputExpression, double[] values) {
+        return putColumn(inputExpression, values, values.length);
+    }
+
+    /**
+     * Sets the numbers of the given input expression. Like all numbers in Javascript, the values are passed to the decision
+     * as {@link Integer}s if they fit, and as {@link Double}s otherwise.
+     * @param inputExpression the input expression, like "salesLot.quantity"
+     * @param values the value of each row
+     * @return this input
+     * @throws IllegalArgumentException thrown if the number of values differs from the number of rows
+     */
+    public ColumnarInput setColumn(String inputExpression, long[] values) {
+        return putColumn(inputExpression, values, values.length);
+    }
+
+    private ColumnarInput putColumn(String inputExpression, Object values, int length) {
+        if (length != rowCount) {
+            throw new IllegalArgumentException("Column '" + inputExpression + "' has " + length + " values, but there are " + rowCount + " rows.");
+        }
+        columns.put(inputExpression, values);
+        return this;
+    }
+
+    /**
+     * Returns the columns in the order of the given input expressions, as expected by
+     * {@link de.hbt.dmn_eval_java.impl.compiler.CompiledDecision#evaluateColumns(Object[], int)}.
+     */
+    Object[] getColumns(String decisionId, InputExpression[] inputExpressions) {
+        Object[] orderedColumns = new Object[inputExpressions.length];
+        Set<String> usedColumns = new HashSet<>();
+        for (int i = 0; i < inputExpressions.length; ++i) {
+            String inputExpression = String.join(".", inputExpressions[i].getNames());
+            orderedColumns[i] = columns.get(inputExpression);
+            usedColumns.add(inputExpression);
+        }
+        for (String inputExpression: columns.keySet()) {
+            if (!usedColumns.contains(inputExpression)) {
+                throw new DecisionEvaluationException("Decision '" + decisionId + "' has no input expression '" + inputExpression + "'.");
+            }
+        }
+        return orderedColumns;
+    }
+
+    /**
+     * Converts the given row into nested maps, like {@link DecisionInput} does for the script engine.
+     */
+    Map<String, Object> getRow(int row) {
+        Map<String, Object> input = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> column: columns.entrySet()) {
+            DecisionInput.putValue(input, column.getKey().split("\\."), getValue(column.getValue(), row));
+        }
+        return input;
+    }
+
+    private static Object getValue(Object column, int row) {
+        if (column instanceof double[]) {
+            return ((double[]) column)[row];
+        }
+        if (column instanceof long[]) {
+            return FeelValues.toNumber(((long[]) column)[row]);
+        }
+        return ((Object[]) column)[row];
+    }
+
+}
@@ -15,12 +15,27 @@ import java.util.List;
 public class DecisionEvaluationResult<T> {
 
     private String decisionId;
+    private long version;
     private List<T> resultList = new ArrayList<>();
 
     public DecisionEvaluationResult(String decisionId) {
         this.decisionId = decisionId;
     }
 
+    public DecisionEvaluationResult(String decisionId, long version) {
+        this.decisionId = decisionId;
+        this.version = version;
+    }
+
+    /**
+     * Returns the version of the DMN definition that evaluated the decision. Each time a DMN definition is registered or
+     * reloaded, it gets a version that is higher than all versions before.
+     * @return the version of the DMN definition
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Returns the list of all results of evaluating the decision. If the hit policy of the decision is 'UNIQUE'
      * or 'FIRST', there is at most one result, otherwise, there may be more than one result. In any case,
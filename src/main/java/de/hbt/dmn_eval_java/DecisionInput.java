@@ -0,0 +1,226 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java;
+
+import de.hbt.dmn_eval_java.impl.compiler.FeelValues;
+import de.hbt.dmn_eval_java.impl.compiler.InputExpression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A decision input whose values are set by slot instead of being read from maps or Java beans. There is a slot for each
+ * input expression of the decision, like "salesLot.packaging", whose index is looked up once by {@link #getSlot(String)}.
+ * Numbers can be set without boxing them.
+ * <p>
+ * A decision input is created by {@link DecisionService#createDecisionInput(String)} for a decision whose result depends
+ * on nothing but the values of its input expressions. Decisions that are compiled or whose results are cached are then
+ * evaluated directly from the values of the slots. For the script engine, the slots are converted into nested maps.
+ * <p>
+ * A decision input is meant to be reused for many evaluations, but it is not thread-safe, so each thread needs an
+ * instance of its own. Slots that were not set are undefined.
+ */
+public final class DecisionInput {
+
+    private static final byte UNSET = 0;
+    private static final byte OBJECT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+
+    private final String decisionId;
+    private final List<String> slotExpressions;
+    private final String[][] slotNames;
+    private final int[] inputSlots;
+    private InputExpression[] inputExpressions;
+
+    private final byte[] kinds;
+    private final Object[] values;
+    private final long[] longValues;
+    private final double[] doubleValues;
+    // the resolved value of each input expression, reused by all evaluations
+    private final Object[] inputValues;
+
+    DecisionInput(String decisionId, InputExpression[] inputExpressions) {
+        this.decisionId = decisionId;
+        this.inputExpressions = inputExpressions;
+        List<String> expressions = new ArrayList<>();
+        List<String[]> names = new ArrayList<>();
+        inputSlots = new int[inputExpressions.length];
+        for (int i = 0; i < inputExpressions.length; ++i) {
+            String[] expressionNames = inputExpressions[i].getNames();
+            String expression = String.join(".", expressionNames);
+            // input expressions that occur more than once share a slot
+            int slot = expressions.indexOf(expression);
+            if (slot < 0) {
+                slot = expressions.size();
+                expressions.add(expression);
+                names.add(expressionNames);
+            }
+            inputSlots[i] = slot;
+        }
+        slotExpressions = Collections.unmodifiableList(expressions);
+        slotNames = names.toArray(new String[0][]);
+        kinds = new byte[slotNames.length];
+        values = new Object[slotNames.length];
+        longValues = new long[slotNames.length];
+        doubleValues = new double[slotNames.length];
+        inputValues = new Object[inputExpressions.length];
+    }
+
+    public String getDecisionId() {
+        return decisionId;
+    }
+
+    /**
+     * Returns the input expressions of the slots, in the order of the slots.
+     * @return the unmodifiable list of input expressions
+     */
+    public List<String> getInputExpressions() {
+        return slotExpressions;
+    }
+
+    /**
+     * Returns the index of the slot for the given input expression.
+     * @param inputExpression the input expression, like "salesLot.packaging"
+     * @return the index of the slot
+     * @throws IllegalArgumentException thrown if the decision has no such input expression
+     */
+    public int getSlot(String inputExpression) {
+        int slot = slotExpressions.indexOf(inputExpression);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Decision '" + decisionId + "' has no input expression '" + inputExpression + "'.");
+        }
+        return slot;
+    }
+
+    /**
+     * Sets the value of the given slot.
+     * @param slot the index of the slot
+     * @param value the value, like a string, a number, or a boolean
+     * @return this decision input
+     */
+    public DecisionInput set(int slot, Object value) {
+        kinds[slot] = OBJECT;
+        values[slot] = value;
+        return this;
+    }
+
+    /**
+     * Sets the given number as value of the given slot, without boxing it. Like all numbers in Javascript, the value is
+     * passed to the decision as an {@link Integer} if it fits, and as a {@link Double} otherwise.
+     * @param slot the index of the slot
+     * @param value the value
+     * @return this decision input
+     */
+    public DecisionInput setLong(int slot, long value) {
+        kinds[slot] = LONG;
+        longValues[slot] = value;
+        values[slot] = null;
+        return this;
+    }
+
+    /**
+     * Sets the given number as value of the given slot, without boxing it.
+     * @param slot the index of the slot
+     * @param value the value
+     * @return this decision input
+     */
+    public DecisionInput setDouble(int slot, double value) {
+        kinds[slot] = DOUBLE;
+        doubleValues[slot] = value;
+        values[slot] = null;
+        return this;
+    }
+
+    /**
+     * Makes all slots undefined again.
+     * @return this decision input
+     */
+    public DecisionInput clear() {
+        Arrays.fill(kinds, UNSET);
+        Arrays.fill(values, null);
+        return this;
+    }
+
+    /**
+     * Checks whether this input fits the given registration of the decision. Registering the decision again keeps the
+     * input usable, as long as the input expressions of the decision did not change.
+     */
+    boolean fits(String decisionId, InputExpression[] inputExpressions) {
+        if (inputExpressions == this.inputExpressions) {
+            return true;
+        }
+        if (!this.decisionId.equals(decisionId) || (inputExpressions == null) || (inputExpressions.length != inputSlots.length)) {
+            return false;
+        }
+        for (int i = 0; i < inputExpressions.length; ++i) {
+            if (!Arrays.equals(inputExpressions[i].getNames(), slotNames[inputSlots[i]])) {
+                return false;
+            }
+        }
+        this.inputExpressions = inputExpressions;
+        return true;
+    }
+
+    /**
+     * Returns the values of the input expressions, in the order of the input expressions of the decision, like
+     * {@link InputExpression#resolve(Object)} resolves them. The returned array is reused by the next call.
+     */
+    Object[] getInputValues() {
+        for (int i = 0; i < inputSlots.length; ++i) {
+            Object value = getValue(inputSlots[i]);
+            // null values are not supported as decision input
+            inputValues[i] = (kinds[inputSlots[i]] == UNSET)? FeelValues.UNDEFINED : (value == null)? FeelValues.UNSUPPORTED : value;
+        }
+        return inputValues;
+    }
+
+    private Object getValue(int slot) {
+        if ((values[slot] == null) && (kinds[slot] == LONG)) {
+            values[slot] = FeelValues.toNumber(longValues[slot]);
+        } else if ((values[slot] == null) && (kinds[slot] == DOUBLE)) {
+            values[slot] = doubleValues[slot];
+        }
+        return values[slot];
+    }
+
+    /**
+     * Converts the slots into nested maps, like "salesLot.packaging" into a map with the key "salesLot" whose value is a
+     * map with the key "packaging". Slots that were not set are left out.
+     */
+    Map<String, Object> toMap() {
+        Map<String, Object> input = new LinkedHashMap<>();
+        for (int slot = 0; slot < slotNames.length; ++slot) {
+            if (kinds[slot] != UNSET) {
+                putValue(input, slotNames[slot], getValue(slot));
+            }
+        }
+        return input;
+    }
+
+    @SuppressWarnings("unchecked")
+    static void putValue(Map<String, Object> input, String[] names, Object value) {
+        Map<String, Object> object = input;
+        for (int i = 0; i < names.length - 1; ++i) {
+            Object nestedObject = object.computeIfAbsent(names[i], (name) -> new LinkedHashMap<>());
+            if (!(nestedObject instanceof Map)) {
+                // a slot for the object itself was set as well, which takes precedence
+                return;
+            }
+            object = (Map<String, Object>) nestedObject;
+        }
+        object.putIfAbsent(names[names.length - 1], value);
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+}
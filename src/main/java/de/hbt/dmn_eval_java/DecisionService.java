@@ -5,224 +5,1270 @@
 package de.hbt.dmn_eval_java;
 
 import com.google.gson.Gson;
+import de.hbt.dmn_eval_java.impl.DecisionGraph;
+import de.hbt.dmn_eval_java.impl.DecisionGraphExecutor;
+import de.hbt.dmn_eval_java.impl.DecisionResultCache;
+import de.hbt.dmn_eval_java.impl.DecisionServiceListeners;
+import de.hbt.dmn_eval_java.impl.DmnDefinitions;
+import de.hbt.dmn_eval_java.impl.DmnEngine;
+import de.hbt.dmn_eval_java.impl.DmnEngineFactory;
+import de.hbt.dmn_eval_java.impl.DmnEvalJsRuntime;
+import de.hbt.dmn_eval_java.impl.DmnEvalJsScripts;
 import de.hbt.dmn_eval_java.impl.DmnEvalJsWrapper;
+import de.hbt.dmn_eval_java.impl.DmnFileWatcher;
+import de.hbt.dmn_eval_java.impl.DmnSnapshotStore;
+import de.hbt.dmn_eval_java.impl.EngineExecutor;
+import de.hbt.dmn_eval_java.impl.GraalJsScripts;
 import de.hbt.dmn_eval_java.impl.InputObjectWrapper;
+import de.hbt.dmn_eval_java.impl.LazyInputObject;
 import de.hbt.dmn_eval_java.impl.PromiseFuture;
+import de.hbt.dmn_eval_java.impl.RegisteredDmnDefinition;
+import de.hbt.dmn_eval_java.impl.ResultMapper;
 import de.hbt.dmn_eval_java.impl.WrappedInputObject;
-import jdk.nashorn.api.scripting.ScriptObjectMirror;
+import de.hbt.dmn_eval_java.impl.compiler.CompiledDecision;
+import de.hbt.dmn_eval_java.impl.compiler.DecisionTableCompiler;
+import de.hbt.dmn_eval_java.impl.compiler.InputExpression;
+import de.hbt.dmn_eval_java.impl.compiler.RuleOverlap;
+import de.hbt.dmn_eval_java.impl.compiler.ScriptObjects;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.script.Invocable;
-import javax.script.ScriptContext;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.StringJoiner;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The decision service allows to evaluate decisions using the {@link #evaluateDecision(String, Object, Class)}} method.
  * Before a decision can be evaluated, it needs to be registered first using the {@link #registerDecision(String, String)}} method.
+ * <p>
+ * Decisions are evaluated by a pool of script engines, which is configured by a {@link DecisionServiceConfiguration}.
+ * Each evaluation borrows a script engine from the pool, so as many decisions can be evaluated in parallel as there are
+ * script engines in the pool. A registered decision is parsed by every script engine of the pool before it evaluates
+ * the decision for the first time.
  */
-public class DecisionService {
+public class DecisionService implements AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(DecisionService.class);
 
-    private ScriptEngine scriptEngine;
-    private DmnEvalJsWrapper dmnEvalJsWrapper;
+    private static final Gson gson = new Gson();
 
-    private ScriptObjectMirror nashornEventLoop;
-    private ConcurrentHashMap<String, ScriptObjectMirror> parsedDmnDefinitions = new ConcurrentHashMap<>();
+    private final DecisionServiceConfiguration configuration;
+    private final GenericObjectPool<DmnEngine> enginePool;
+    private final StartupMetrics startupMetrics;
+    private final DmnSnapshotStore snapshotStore;
+    // null if there are no listeners, so that the phases are not measured
+    private final DecisionServiceListener listener;
+    private final AtomicLong definitionsVersion = new AtomicLong();
+    // replaced as a whole, so evaluations never see a DMN definition that is registered only in parts
+    private volatile Map<String, RegisteredDmnDefinition> registeredDmnDefinitions = Collections.emptyMap();
+    private EngineExecutor engineExecutor;
+    private DecisionGraphExecutor decisionGraphExecutor;
+    private DmnFileWatcher dmnFileWatcher;
+    private boolean closed;
 
     /**
-     * Bootstraps the decision service.
+     * Bootstraps the decision service with the default configuration, i.e. with a single script engine.
      * @throws DecisionServiceInstantiationException thrown if the decision service could not be initialized properly
      */
     public DecisionService() {
+        this(new DecisionServiceConfiguration());
+    }
+
+    /**
+     * Bootstraps the decision service with the given configuration.
+     * @param configuration the configuration of the decision service
+     * @throws DecisionServiceInstantiationException thrown if the decision service could not be initialized properly
+     */
+    public DecisionService(DecisionServiceConfiguration configuration) {
         long startTime = System.nanoTime();
         logger.info("Starting the decision service...");
-        initScriptEngine();
-        bootstrapDmnEngineJs();
-        logger.info("Decision service successfully started in {} seconds.", (System.nanoTime() - startTime) / 1E9);
+        this.configuration = configuration;
+        this.snapshotStore = (configuration.getSnapshotDirectory() != null)? new DmnSnapshotStore(configuration.getSnapshotDirectory()) : null;
+        this.listener = DecisionServiceListeners.of(configuration.getListeners());
+        boolean scriptsCompiled = isCompiled(configuration);
+        DmnEvalJsRuntime dmnEvalJsRuntime = getRuntime(configuration);
+        DmnEngineFactory dmnEngineFactory = new DmnEngineFactory(dmnEvalJsRuntime);
+        enginePool = createEnginePool(configuration, dmnEngineFactory);
+        long startupNanos = System.nanoTime() - startTime;
+        startupMetrics = new StartupMetrics(scriptsCompiled? 0L : dmnEvalJsRuntime.getCompileNanos(), dmnEngineFactory.getBootstrapNanos(),
+                dmnEngineFactory.getCreatedEngines(), startupNanos);
+        logger.info("Decision service successfully started in {} seconds.", startupNanos / 1E9);
+        logger.info("Startup metrics of the decision service: {}.", startupMetrics);
     }
 
-    private void initScriptEngine() {
-        ScriptContext scriptContext;
+    private static boolean isCompiled(DecisionServiceConfiguration configuration) {
+        if (configuration.getScriptEngineType() == ScriptEngineType.GRAALJS) {
+            try {
+                return GraalJsScripts.isCompiled();
+            } catch (NoClassDefFoundError e) {
+                throw new DecisionServiceInstantiationException("GraalJS is not on the classpath, add the artifact org.graalvm.js:js.", e);
+            }
+        }
+        return DmnEvalJsScripts.isCompiled(configuration.getPersistentCodeCacheDirectory());
+    }
+
+    private static DmnEvalJsRuntime getRuntime(DecisionServiceConfiguration configuration) {
+        if (configuration.getScriptEngineType() == ScriptEngineType.GRAALJS) {
+            return GraalJsScripts.getInstance();
+        }
+        return DmnEvalJsScripts.getInstance(configuration.getPersistentCodeCacheDirectory());
+    }
+
+    private static GenericObjectPool<DmnEngine> createEnginePool(DecisionServiceConfiguration configuration, DmnEngineFactory dmnEngineFactory) {
+        if (configuration.getEnginePoolSize() < 1) {
+            throw new DecisionServiceInstantiationException("The engine pool size must be at least 1.");
+        }
+        GenericObjectPoolConfig poolConfig = new GenericObjectPoolConfig();
+        poolConfig.setMaxTotal(configuration.getEnginePoolSize());
+        poolConfig.setMaxIdle(configuration.getEnginePoolSize());
+        poolConfig.setMinIdle(Math.min(configuration.getMinIdleEngines(), configuration.getEnginePoolSize()));
+        poolConfig.setMaxWaitMillis(configuration.getEngineBorrowTimeoutMillis());
+        poolConfig.setTimeBetweenEvictionRunsMillis(configuration.getEvictionRunIntervalMillis());
+        poolConfig.setMinEvictableIdleTimeMillis(configuration.getMinEvictableIdleTimeMillis());
+        poolConfig.setJmxEnabled(false);
+        GenericObjectPool<DmnEngine> enginePool = new GenericObjectPool<>(dmnEngineFactory, poolConfig);
         try {
-            scriptEngine = new ScriptEngineManager().getEngineByName("nashorn");
-            scriptContext = scriptEngine.getContext();
+            enginePool.preparePool();
+        } catch (DecisionServiceInstantiationException e) {
+            enginePool.close();
+            throw e;
         } catch (Exception e) {
-            throw new DecisionServiceInstantiationException("Failed to initialize script engine.", e);
+            enginePool.close();
+            throw new DecisionServiceInstantiationException("Failed to initialize the script engine pool.", e);
         }
-        runScript("my-timer-polyfill.js");
-        runScript("nashorn-polyfill.js");
-
-        nashornEventLoop = (ScriptObjectMirror) scriptContext.getBindings(ScriptContext.ENGINE_SCOPE).get("nashornEventLoop");
+        return enginePool;
     }
 
-    private void bootstrapDmnEngineJs() {
-        ScriptObjectMirror dmnEvalJs = (ScriptObjectMirror) runScript("dmn-eval-js.js");
-        runScript("dmn-eval-js-wrapper.js");
+    private DmnEngine borrowEngine() {
         try {
-            dmnEvalJsWrapper = (DmnEvalJsWrapper) ((Invocable) scriptEngine).invokeFunction("newDmnEvalJsWrapper", dmnEvalJs);
-        } catch (ScriptException | NoSuchMethodException e) {
-            throw new DecisionServiceInstantiationException("Failed to load embedded dmn-eval-js engine.", e);
+            return enginePool.borrowObject();
+        } catch (NoSuchElementException e) {
+            throw new DecisionEvaluationException("No script engine became available within "
+                    + configuration.getEngineBorrowTimeoutMillis() + " msecs.", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DecisionEvaluationException("Failed to obtain a script engine from the pool.", e);
         }
     }
 
+    /**
+     * Returns how long it took to start this decision service, split into its phases.
+     * @return the startup metrics
+     */
+    public StartupMetrics getStartupMetrics() {
+        return startupMetrics;
+    }
+
+    /**
+     * Returns how often the results of the given decision were taken from the result cache since the decision was registered.
+     * @param decisionId the DMN decision id of the decision
+     * @return the statistics of the result cache, or <code>null</code> if the results of the decision are not cached
+     * @see DecisionServiceConfiguration#getResultCacheSize()
+     */
+    public ResultCacheStatistics getResultCacheStatistics(String decisionId) {
+        DecisionResultCache resultCache = getRegisteredDmnDefinition(decisionId).getResultCache();
+        return (resultCache != null)? new ResultCacheStatistics(resultCache.getHits(), resultCache.getMisses(), resultCache.size()) : null;
+    }
+
+    /**
+     * Shuts down the decision service and releases all of its script engines. Pending asynchronous evaluations fail,
+     * and DMN files are not watched anymore.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            if (dmnFileWatcher != null) {
+                dmnFileWatcher.close();
+            }
+            if (engineExecutor != null) {
+                engineExecutor.shutdown();
+            }
+            if (decisionGraphExecutor != null) {
+                decisionGraphExecutor.shutdown();
+            }
+        }
+        enginePool.close();
+    }
+
+    private synchronized EngineExecutor getEngineExecutor() {
+        if (closed) {
+            throw new DecisionEvaluationException("The decision service was closed.");
+        }
+        if (engineExecutor == null) {
+            engineExecutor = new EngineExecutor(configuration.getEnginePoolSize(), configuration.getAsyncQueueCapacity(),
+                    configuration.getAsyncQueueFullPolicy());
+        }
+        return engineExecutor;
+    }
+
+    private synchronized DecisionGraphExecutor getDecisionGraphExecutor() {
+        if (closed) {
+            throw new DecisionEvaluationException("The decision service was closed.");
+        }
+        if (decisionGraphExecutor == null) {
+            decisionGraphExecutor = new DecisionGraphExecutor(configuration.getEnginePoolSize());
+        }
+        return decisionGraphExecutor;
+    }
+
+    private synchronized DmnFileWatcher getDmnFileWatcher() {
+        if (closed) {
+            throw new DecisionEvaluationException("The decision service was closed.");
+        }
+        if (dmnFileWatcher == null) {
+            dmnFileWatcher = new DmnFileWatcher(this::reloadDefinitions);
+        }
+        return dmnFileWatcher;
+    }
+
     /**
      * Registers the decision with the given id with the decision service. The DMN definition of the decision
-     * is loaded from the file with the given name. That file must exist in the classpath.
-     * Registering decision is an asynchronous operation. Calling this method returns a {@link Future}.
+     * is loaded from the file with the given name, which is resolved against the working directory. To load a DMN definition
+     * from the classpath, use {@link #registerDefinitionsFromClasspath(String)}.
+     * Registering decision is an asynchronous operation. Calling this method returns a {@link CompletableFuture}, which is
+     * completed as soon as the DMN definition was parsed by a thread of the decision service, so decisions can be registered
+     * in parallel, by as many threads as there are script engines in the pool.
      * @param decisionId the DMN decision id of the decision
      * @param dmnFile the XML file with the DMN definition
-     * @return the future of the registration
-     * @throws DecisionRegistrationException thrown if the decision could not be registered
+     * @return the future of the registration, which fails with a {@link DecisionRegistrationException} if the decision could
+     *         not be registered
      */
-    public Future<Decision> registerDecision(String decisionId, String dmnFile) {
+    public CompletableFuture<Decision> registerDecision(String decisionId, String dmnFile) {
         logger.info("Registering decision '{}'...", decisionId);
+        String dmnXml = readDmnFile(Paths.get(dmnFile));
+        DmnDefinitions dmnDefinitions = createDmnDefinitions(dmnXml, null);
+        return getEngineExecutor().submitUnbounded(() -> parseDmnDefinitions("decision '" + decisionId + "'", dmnDefinitions,
+                (javaDmnDefinition) -> registerParsedDecision(decisionId, dmnDefinitions, javaDmnDefinition)));
+    }
+
+    /**
+     * Registers all decisions that are contained in the given DMN file with the decision service. The DMN file is parsed
+     * only once, and its decisions share the parsed DMN definition, so registering a DMN file with many decisions takes
+     * as long as registering one of them.
+     * Registering decisions is an asynchronous operation, like {@link #registerDecision(String, String)}. If the DMN file was
+     * registered before, all of its decisions are replaced at once, and decisions that were removed from the file are not
+     * registered anymore.
+     * @param dmnFile the XML file with the DMN definition
+     * @return the future of the registered decisions, in the order of the DMN file, which fails with a
+     *         {@link DecisionRegistrationException} if the decisions could not be registered
+     */
+    public CompletableFuture<List<Decision>> registerDefinitions(Path dmnFile) {
+        String dmnXml = readDmnFile(dmnFile);
+        return registerDefinitions("the decisions of DMN file '" + dmnFile + "'", dmnXml, dmnFile.toAbsolutePath().normalize().toString());
+    }
+
+    /**
+     * Registers all decisions that are contained in the DMN definition read from the given stream, like
+     * {@link #registerDefinitions(Path)}. The stream is read completely, but not closed.
+     * @param dmnStream the stream of the XML content with the DMN definition, encoded in UTF-8
+     * @return the future of the registered decisions, in the order of the DMN definition, which fails with a
+     *         {@link DecisionRegistrationException} if the decisions could not be registered
+     */
+    public CompletableFuture<List<Decision>> registerDefinitions(InputStream dmnStream) {
+        return registerDefinitions(new InputStreamReader(dmnStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Registers all decisions that are contained in the DMN definition read from the given reader, like
+     * {@link #registerDefinitions(Path)}. The reader is read completely, but not closed.
+     * @param dmnReader the reader of the XML content with the DMN definition
+     * @return the future of the registered decisions, in the order of the DMN definition, which fails with a
+     *         {@link DecisionRegistrationException} if the decisions could not be registered
+     */
+    public CompletableFuture<List<Decision>> registerDefinitions(Reader dmnReader) {
         String dmnXml;
         try {
-            logger.info("Loading DMN definition from file '{}'...", dmnFile);
-            dmnXml = new String(Files.readAllBytes(Paths.get(dmnFile)), StandardCharsets.UTF_8);
+            logger.info("Loading DMN definition from stream...");
+            dmnXml = readDmnXml(dmnReader, -1L);
+        } catch (IOException e) {
+            throw new DecisionEvaluationException("Failed to load DMN definition from stream", e);
+        }
+        return registerDefinitions("the decisions of the DMN stream", dmnXml, null);
+    }
+
+    /**
+     * Registers all decisions that are contained in the DMN definition at the given URL, like {@link #registerDefinitions(Path)}.
+     * If the URL is registered again, all of its decisions are replaced at once.
+     * @param dmnUrl the URL of the XML content with the DMN definition, encoded in UTF-8
+     * @return the future of the registered decisions, in the order of the DMN definition, which fails with a
+     *         {@link DecisionRegistrationException} if the decisions could not be registered
+     */
+    public CompletableFuture<List<Decision>> registerDefinitions(URL dmnUrl) {
+        String dmnXml;
+        try {
+            logger.info("Loading DMN definition from URL '{}'...", dmnUrl);
+            URLConnection connection = dmnUrl.openConnection();
+            try (Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+                dmnXml = readDmnXml(reader, connection.getContentLengthLong());
+            }
+        } catch (IOException e) {
+            throw new DecisionEvaluationException("Failed to load DMN definition from URL '" + dmnUrl + "'", e);
+        }
+        return registerDefinitions("the decisions of DMN definition '" + dmnUrl + "'", dmnXml, dmnUrl.toString());
+    }
+
+    /**
+     * Registers all decisions that are contained in the DMN definition with the given classpath resource name, like
+     * {@link #registerDefinitions(URL)}. The resource is loaded by the class loader of the decision service.
+     * @param dmnResource the name of the classpath resource with the DMN definition, like <code>dmn/approveLoan.dmn</code>
+     * @return the future of the registered decisions, in the order of the DMN definition, which fails with a
+     *         {@link DecisionRegistrationException} if the decisions could not be registered
+     * @throws DecisionEvaluationException thrown if the resource does not exist
+     */
+    public CompletableFuture<List<Decision>> registerDefinitionsFromClasspath(String dmnResource) {
+        URL dmnUrl = DecisionService.class.getClassLoader().getResource(dmnResource);
+        if (dmnUrl == null) {
+            throw new DecisionEvaluationException("DMN resource '" + dmnResource + "' does not exist in the classpath.");
+        }
+        return registerDefinitions(dmnUrl);
+    }
+
+    private static String readDmnFile(Path dmnFile) {
+        logger.info("Loading DMN definition from file '{}'...", dmnFile);
+        try (Reader reader = new InputStreamReader(Files.newInputStream(dmnFile), StandardCharsets.UTF_8)) {
+            return readDmnXml(reader, Files.size(dmnFile));
         } catch (IOException e) {
             throw new DecisionEvaluationException("Failed to load DMN file '" + dmnFile + "'", e);
         }
+    }
+
+    private static String readDmnXml(Reader reader, long expectedLength) throws IOException {
+        // the XML is decoded chunk by chunk, so the encoded content is never held in memory as a whole. toString() copies the
+        // decoded content, so memory peaks at twice its size until the builder is released. The expected length is given in
+        // bytes, so the builder cannot be sized to the exact number of characters. dmn-eval-js parses the resulting string
+        // without copying it, since Nashorn uses Java strings as Javascript strings
+        StringBuilder dmnXml = new StringBuilder((expectedLength > 0L)? (int) Math.min(expectedLength, Integer.MAX_VALUE - 8) : 8192);
+        char[] buffer = new char[8192];
+        int length;
+        while ((length = reader.read(buffer)) >= 0) {
+            dmnXml.append(buffer, 0, length);
+        }
+        return dmnXml.toString();
+    }
+
+    private CompletableFuture<List<Decision>> registerDefinitions(String registrationName, String dmnXml, String source) {
+        logger.info("Registering {}...", registrationName);
+        DmnDefinitions dmnDefinitions = createDmnDefinitions(dmnXml, source);
+        return getEngineExecutor().submitUnbounded(() -> parseDmnDefinitions(registrationName, dmnDefinitions,
+                (javaDmnDefinition) -> registerParsedDefinitions(dmnDefinitions, javaDmnDefinition)));
+    }
+
+    /**
+     * Registers all decisions that are contained in the given DMN file, like {@link #registerDefinitions(Path)}, and
+     * watches the file for changes. Whenever the file is changed, it is parsed again in the background, and all of its
+     * decisions are replaced at once. Evaluations that already started finish with the previous version of the DMN
+     * definition, see {@link DecisionEvaluationResult#getVersion()}. If the changed file cannot be parsed, the previous
+     * version stays registered.
+     * @param dmnFile the XML file with the DMN definition
+     * @return the future of the initially registered decisions, which fails with a {@link DecisionRegistrationException}
+     *         if the decisions could not be registered
+     */
+    public CompletableFuture<List<Decision>> watchDefinitions(Path dmnFile) {
+        getDmnFileWatcher().watch(dmnFile);
+        return registerDefinitions(dmnFile);
+    }
+
+    private void reloadDefinitions(Path dmnFile) {
+        logger.info("Reloading changed DMN file '{}'...", dmnFile);
+        try {
+            // reloads are executed one at a time, so an older version of the file never replaces a newer one
+            List<Decision> decisions = registerDefinitions(dmnFile).join();
+            logger.info("Reloaded {} decisions of DMN file '{}'.", decisions.size(), dmnFile);
+        } catch (CompletionException e) {
+            logger.error("Failed to reload DMN file '{}', the previous version stays registered.", dmnFile, e.getCause());
+        } catch (DecisionEvaluationException e) {
+            logger.error("Failed to reload DMN file '{}', the previous version stays registered.", dmnFile, e);
+        }
+    }
+
+    private DmnDefinitions createDmnDefinitions(String dmnXml, String source) {
+        String snapshot = (snapshotStore != null)? snapshotStore.read(dmnXml) : null;
+        return new DmnDefinitions(dmnXml, snapshot, source, definitionsVersion.incrementAndGet());
+    }
 
+    private <R> R parseDmnDefinitions(String registrationName, DmnDefinitions dmnDefinitions, Function<Map<String, Object>, R> registration) {
         long time = System.nanoTime();
-        logger.info("Parsing DMN definition for decision '{}'...", decisionId);
-        ScriptObjectMirror promise = dmnEvalJsWrapper.parseDmnXml(dmnXml);
-
-        CompletableFuture<Decision> result = new PromiseFuture<>(promise, nashornEventLoop) {
-
-            protected Consumer<?> resolve() {
-                return (parsedDmnDefinition) -> {
-                    parsedDmnDefinitions.put(decisionId, (ScriptObjectMirror) parsedDmnDefinition);
-                    logger.info("Successfully parsed DMN definition for decision '{}' in {} msecs.", decisionId, (System.nanoTime() - time) / 1000000L);
-                    Decision decision = getDecision((ScriptObjectMirror) ((ScriptObjectMirror) parsedDmnDefinition).get(decisionId));
-                    if (decision == null) {
-                        DecisionRegistrationException decisionRegistrationException = new DecisionRegistrationException("No decision '" + decisionId + "' is contained in the given DMN definition.");
+        DmnEngine dmnEngine = borrowEngine();
+        try {
+            if (dmnDefinitions.getSnapshot() != null) {
+                Object restoredDmnDefinition = restoreDmnDefinition(registrationName, dmnDefinitions, dmnEngine);
+                if (restoredDmnDefinition != null) {
+                    logger.info("Restored DMN definition for {} from snapshot in {} msecs.", registrationName, (System.nanoTime() - time) / 1000000L);
+                    Map<String, Object> javaDmnDefinition = toJavaDmnDefinition(restoredDmnDefinition, dmnEngine);
+                    notifyDefinitionsParsed(javaDmnDefinition, time, true);
+                    dmnEngine.putParsedDmnDefinition(dmnDefinitions, restoredDmnDefinition);
+                    return registration.apply(javaDmnDefinition);
+                }
+            }
+            logger.info("Parsing DMN definition for {}...", registrationName);
+            Object promise = dmnEngine.getDmnEvalJsWrapper().parseDmnXml(dmnDefinitions.getDmnXml());
+
+            PromiseFuture<R> result = new PromiseFuture<>(promise, dmnEngine.getDmnEvalJsContext()) {
+
+                protected Consumer<Object> resolve() {
+                    return (parsedDmnDefinition) -> {
+                        logger.info("Successfully parsed DMN definition for {} in {} msecs.", registrationName, (System.nanoTime() - time) / 1000000L);
+                        try {
+                            Map<String, Object> javaDmnDefinition = toJavaDmnDefinition(parsedDmnDefinition, dmnEngine);
+                            notifyDefinitionsParsed(javaDmnDefinition, time, false);
+                            dmnEngine.putParsedDmnDefinition(dmnDefinitions, parsedDmnDefinition);
+                            R registered = registration.apply(javaDmnDefinition);
+                            if (snapshotStore != null) {
+                                snapshotStore.write(dmnDefinitions.getDmnXml(),
+                                        dmnEngine.getDmnEvalJsWrapper().serializeDmnDefinition(parsedDmnDefinition));
+                            }
+                            this.complete(registered);
+                        } catch (RuntimeException e) {
+                            // the promise would swallow the exception
+                            this.completeExceptionally(e);
+                        }
+                    };
+                }
+
+                protected Consumer<Object> reject() {
+                    return (error) -> {
+                        logger.error("Failed to parse DMN definition for {}: {}", registrationName, String.valueOf(error));
+                        DecisionRegistrationException decisionRegistrationException;
+                        if (error instanceof Throwable) {
+                            decisionRegistrationException = new DecisionRegistrationException("Failed to register " + registrationName, (Throwable) error);
+                        } else {
+                            decisionRegistrationException = new DecisionRegistrationException("Failed to register " + registrationName + ": " + String.valueOf(error));
+                        }
                         this.completeExceptionally(decisionRegistrationException);
-                    } else {
-                        decision.setDecisionId(decisionId);
-                        this.complete(decision);
-                    }
-                };
+                    };
+                }
+            };
+            // the parsed definition belongs to the borrowed script engine, so the promise must be handled before it is returned
+            result.handlePromise();
+            if (!result.isDone()) {
+                throw new DecisionRegistrationException("Parsing the DMN definition for " + registrationName + " did not complete.");
             }
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        } finally {
+            enginePool.returnObject(dmnEngine);
+        }
+    }
 
-            protected Consumer<?> reject() {
-                return (error) -> {
-                    logger.error("Failed to parse DMN definition for decision '{}': {}", decisionId, String.valueOf(error));
-                    DecisionRegistrationException decisionRegistrationException;
-                    if (error instanceof Throwable) {
-                        decisionRegistrationException = new DecisionRegistrationException("Failed to register decision '" + decisionId + "'", (Throwable) error);
-                    } else {
-                        decisionRegistrationException = new DecisionRegistrationException("Failed to register decision '" + decisionId + "': " + String.valueOf(error));
-                    }
-                    this.completeExceptionally(decisionRegistrationException);
-                };
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> toJavaDmnDefinition(Object parsedDmnDefinition, DmnEngine dmnEngine) {
+        // the decisions are registered from a plain Java copy, so that they can be compiled and cached without a script engine
+        return (Map<String, Object>) dmnEngine.toJava(parsedDmnDefinition);
+    }
+
+    private void notifyDefinitionsParsed(Map<String, Object> javaDmnDefinition, long startTime, boolean restoredFromSnapshot) {
+        if (listener != null) {
+            listener.definitionsParsed(new ArrayList<>(javaDmnDefinition.keySet()), System.nanoTime() - startTime, restoredFromSnapshot);
+        }
+    }
+
+    private static Object restoreDmnDefinition(String registrationName, DmnDefinitions dmnDefinitions, DmnEngine dmnEngine) {
+        try {
+            return dmnEngine.getDmnEvalJsWrapper().deserializeDmnDefinition(dmnDefinitions.getSnapshot());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to restore DMN definition for {} from snapshot, parsing it instead.", registrationName, e);
+            return null;
+        }
+    }
+
+    private Decision registerParsedDecision(String decisionId, DmnDefinitions dmnDefinitions, Map<String, Object> javaDmnDefinition) {
+        Object javaDecision = javaDmnDefinition.get(decisionId);
+        Decision decision = getDecision(javaDecision);
+        if (decision == null) {
+            throw new DecisionRegistrationException("No decision '" + decisionId + "' is contained in the given DMN definition.");
+        }
+        putRegisteredDmnDefinitions(dmnDefinitions, Collections.singletonMap(decisionId,
+                createRegisteredDmnDefinition(decisionId, dmnDefinitions, decision, javaDecision, createDecisionGraph(javaDmnDefinition))));
+        return decision;
+    }
+
+    private List<Decision> registerParsedDefinitions(DmnDefinitions dmnDefinitions, Map<String, Object> javaDmnDefinition) {
+        // the decisions are registered only if all of them can be registered
+        Map<String, RegisteredDmnDefinition> registrations = new LinkedHashMap<>();
+        List<Decision> decisions = new ArrayList<>();
+        DecisionGraph decisionGraph = createDecisionGraph(javaDmnDefinition);
+        for (Map.Entry<String, Object> entry: javaDmnDefinition.entrySet()) {
+            String decisionId = entry.getKey();
+            Decision decision = getDecision(entry.getValue());
+            registrations.put(decisionId, createRegisteredDmnDefinition(decisionId, dmnDefinitions, decision, entry.getValue(), decisionGraph));
+            decisions.add(decision);
+        }
+        if (decisions.isEmpty()) {
+            throw new DecisionRegistrationException("No decision is contained in the given DMN definition.");
+        }
+        putRegisteredDmnDefinitions(dmnDefinitions, registrations);
+        return decisions;
+    }
+
+    private synchronized void putRegisteredDmnDefinitions(DmnDefinitions dmnDefinitions, Map<String, RegisteredDmnDefinition> registrations) {
+        Map<String, RegisteredDmnDefinition> newRegisteredDmnDefinitions = new HashMap<>(registeredDmnDefinitions);
+        String source = dmnDefinitions.getSource();
+        if (source != null) {
+            // decisions that were removed from the DMN file are not registered anymore
+            newRegisteredDmnDefinitions.values().removeIf(
+                    (registeredDmnDefinition) -> source.equals(registeredDmnDefinition.getDmnDefinitions().getSource()));
+        }
+        newRegisteredDmnDefinitions.putAll(registrations);
+        registeredDmnDefinitions = Collections.unmodifiableMap(newRegisteredDmnDefinitions);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DecisionGraph createDecisionGraph(Map<String, Object> javaDmnDefinition) {
+        Map<String, List<String>> requiredDecisions = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry: javaDmnDefinition.entrySet()) {
+            Object javaRequiredDecisions = ((Map<String, Object>) entry.getValue()).get("requiredDecisions");
+            requiredDecisions.put(entry.getKey(), (javaRequiredDecisions instanceof List)? (List<String>) javaRequiredDecisions : Collections.emptyList());
+        }
+        try {
+            return new DecisionGraph(requiredDecisions);
+        } catch (IllegalArgumentException e) {
+            throw new DecisionRegistrationException(e.getMessage(), e);
+        }
+    }
+
+    private RegisteredDmnDefinition createRegisteredDmnDefinition(String decisionId, DmnDefinitions dmnDefinitions, Decision decision,
+                                                                  Object javaDecision, DecisionGraph decisionGraph) {
+        if (decision.getDecisionTable() == null) {
+            throw new DecisionRegistrationException("Decision '" + decisionId + "' has no decision table.");
+        }
+        boolean cacheResults = (configuration.getResultCacheSize() > 0) && !configuration.getResultCacheExcludedDecisions().contains(decisionId);
+        CompiledDecision compiledDecision = configuration.isNativeCompilationEnabled()? DecisionTableCompiler.compile(decisionId, javaDecision) : null;
+        // the input expressions are compiled for typed decision inputs as well
+        InputExpression[] inputExpressions = DecisionTableCompiler.compileInputExpressions(javaDecision);
+        checkUniqueRules(decisionId, decision, javaDecision, compiledDecision);
+        DecisionResultCache resultCache = null;
+        if (cacheResults) {
+            if (inputExpressions != null) {
+                resultCache = new DecisionResultCache(inputExpressions, configuration.getResultCacheSize(), configuration.getResultCacheTimeToLiveMillis());
+            } else {
+                logger.info("Results of decision '{}' are not cached, because they depend on more than the values of its input expressions.", decisionId);
             }
-        };
+        }
+        decision.setDecisionId(decisionId);
+        return new RegisteredDmnDefinition(decisionId, dmnDefinitions, decision, inputExpressions, compiledDecision, resultCache, decisionGraph);
+    }
 
-        return result;
+    private void checkUniqueRules(String decisionId, Decision decision, Object javaDecision, CompiledDecision compiledDecision) {
+        UniqueOverlapPolicy policy = configuration.getUniqueOverlapPolicy();
+        if ((policy == null) || (policy == UniqueOverlapPolicy.IGNORE) || (decision.getDecisionTable().getHitPolicy() != HitPolicy.UNIQUE)) {
+            return;
+        }
+        List<RuleOverlap> overlappingRules = (compiledDecision != null)? compiledDecision.getOverlappingRules()
+                : DecisionTableCompiler.findOverlappingRules(decisionId, javaDecision);
+        if ((overlappingRules == null) || overlappingRules.isEmpty()) {
+            return;
+        }
+        StringJoiner message = new StringJoiner(", ", "Rules of decision '" + decisionId + "' with hit policy UNIQUE overlap: ", "");
+        overlappingRules.forEach((overlap) -> message.add(overlap.toString()));
+        if (policy == UniqueOverlapPolicy.FAIL) {
+            throw new DecisionRegistrationException(message.toString());
+        }
+        logger.warn(message.toString());
     }
 
-    private Decision getDecision(ScriptObjectMirror parsedDecision) {
-        Gson gson = new Gson();
-        String decisionString = gson.toJson(parsedDecision);
+    private Decision getDecision(Object javaDecision) {
+        // the decision maps the arrays of the parsed decision, like the input expressions, by their indices
+        String decisionString = gson.toJson(toPseudoMaps(javaDecision));
         return gson.fromJson(decisionString, Decision.class);
     }
 
+    private static Object toPseudoMaps(Object javaValue) {
+        if (javaValue instanceof List) {
+            Map<String, Object> pseudoMap = new LinkedHashMap<>();
+            List<?> list = (List<?>) javaValue;
+            for (int i = 0; i < list.size(); ++i) {
+                pseudoMap.put(String.valueOf(i), toPseudoMaps(list.get(i)));
+            }
+            return pseudoMap;
+        }
+        if (javaValue instanceof Map) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry: ((Map<?, ?>) javaValue).entrySet()) {
+                map.put(String.valueOf(entry.getKey()), toPseudoMaps(entry.getValue()));
+            }
+            return map;
+        }
+        return javaValue;
+    }
+
+    /**
+     * Creates a typed input for the decision with the given id, whose values are set by slot instead of being read from a Java bean
+     * or a map. Passed to {@link #evaluateDecision(String, Object, Class)}, a typed input spares resolving the input expressions of
+     * the decision against the input, if the decision is {@linkplain DecisionServiceConfiguration#isNativeCompilationEnabled() compiled}
+     * or its {@linkplain DecisionServiceConfiguration#getResultCacheSize() results are cached}. The typed input stays usable if the
+     * decision is registered again, as long as its input expressions do not change.
+     *
+     * @param decisionId the DMN decision id of the decision
+     * @return a new typed input, which must not be shared between threads
+     * @throws DecisionEvaluationException thrown if the decision was not registered, or if its result depends on more than the values
+     *                                     of its input expressions, like on required decisions
+     */
+    public DecisionInput createDecisionInput(String decisionId) {
+        RegisteredDmnDefinition registeredDmnDefinition = getRegisteredDmnDefinition(decisionId);
+        if (registeredDmnDefinition.getInputExpressions() == null) {
+            throw new DecisionEvaluationException("Decision '" + decisionId + "' does not support typed input, because its result depends "
+                    + "on more than the values of its input expressions.");
+        }
+        return new DecisionInput(decisionId, registeredDmnDefinition.getInputExpressions());
+    }
+
     /**
      * Evaluates the decision with the given id, using the given execution context as input for the decision. The decision must have
      * been registered before with the decision service.
      * <p>
      * Even if the decision does not return a result because no rule matched, an instance of the {@link DecisionEvaluationResult} is returned.
      * Whether none, one, or more rules matched is reflected by the returned instance and can be queried using the corresponding methods on it.
+     * <p>
+     * The outputs of a matched rule are copied into the fields of the result type with the same names. If the result type is {@link Map},
+     * the outputs are returned as maps instead.
      *
      * @param decisionId the DMN decision id of the decision
-     * @param decisionInput the input for the decision, must be a Java bean or a {@link Map}
-     * @param resultType a class instance of the decision result type
+     * @param decisionInput the input for the decision, must be a Java bean, a {@link Map}, or a {@link DecisionInput} of the decision
+     * @param resultType a class instance of the decision result type, or {@link Map}
      * @param <T> the Java runtime type of the decision result
      * @return the decision result
+     * @see DecisionServiceConfiguration#isParallelDrgEvaluationEnabled()
+     * @see #createDecisionInput(String)
      */
     public <T> DecisionEvaluationResult<T> evaluateDecision(String decisionId, Object decisionInput, Class<T> resultType) {
+        return evaluateDecision(decisionId, decisionInput, resultType, configuration.isParallelDrgEvaluationEnabled());
+    }
+
+    private <T> DecisionEvaluationResult<T> evaluateDecision(String decisionId, Object decisionInput, Class<T> resultType, boolean graphEvaluation) {
         long startTime = System.nanoTime();
-        logger.info("Evaluating decision '{}'...", decisionId);
+        if (isEvaluationLogEnabled()) {
+            logEvaluation("Evaluating decision '{}'...", decisionId);
+        }
         if (logger.isDebugEnabled()) {
             logger.debug("Input for decision '{}': {}", decisionId, decisionInput);
         }
-        ScriptObjectMirror parsedDmnDefinition = parsedDmnDefinitions.get(decisionId);
-        if (parsedDmnDefinition == null) {
-            throw new DecisionEvaluationException("Decision '" + decisionId + "' was not successfully registered before.");
+        RegisteredDmnDefinition registeredDmnDefinition = getRegisteredDmnDefinition(decisionId);
+        Object[] inputValues = getInputValues(registeredDmnDefinition, decisionInput);
+        if (graphEvaluation && !registeredDmnDefinition.getRequiredDecisions().isEmpty()) {
+            Map<String, GraphNodeResult<T>> graphResults = evaluateDecisionGraph(Collections.singletonMap(decisionId, registeredDmnDefinition),
+                    decisionInput, resultType);
+            if (graphResults != null) {
+                if (isEvaluationLogEnabled()) {
+                    logEvaluation("Evaluating decision '{}' and its required decisions in parallel took {} msecs.", decisionId, (System.nanoTime() - startTime) / 1000000L);
+                }
+                notifyDecisionEvaluated(decisionId, startTime);
+                return graphResults.get(decisionId).result;
+            }
+            logger.debug("Decision '{}' cannot be evaluated in parallel to its required decisions for the given input.", decisionId);
         }
-        ScriptObjectMirror parsedDecision = (ScriptObjectMirror) parsedDmnDefinition.get(decisionId);
-        WrappedInputObject wrappedInput = InputObjectWrapper.INSTANCE.wrapInput(decisionInput);
-        if (!wrappedInput.getType().equals("map")) {
-            throw new DecisionEvaluationException("Decision input must be a POJO or of type java.util.Map");
+        DecisionResultCache resultCache = registeredDmnDefinition.getResultCache();
+        List<Object> cacheKey = (resultCache != null)? createCacheKey(resultCache, decisionInput, inputValues) : null;
+        if (cacheKey != null) {
+            List<Map<String, Object>> cachedResult = resultCache.get(cacheKey);
+            if (cachedResult != null) {
+                DecisionEvaluationResult<T> result = buildDecisionResult(registeredDmnDefinition, cachedResult, resultType);
+                if (isEvaluationLogEnabled()) {
+                    logEvaluation("Evaluating decision '{}' from the result cache took {} msecs.", decisionId, (System.nanoTime() - startTime) / 1000000L);
+                }
+                notifyDecisionEvaluated(decisionId, startTime);
+                return result;
+            }
+        }
+        CompiledDecision compiledDecision = registeredDmnDefinition.getCompiledDecision();
+        if (compiledDecision != null) {
+            List<Map<String, Object>> compiledResult = evaluateCompiledDecision(compiledDecision, decisionInput, inputValues);
+            if (compiledResult != null) {
+                if (cacheKey != null) {
+                    resultCache.put(cacheKey, compiledResult);
+                }
+                DecisionEvaluationResult<T> result = buildDecisionResult(registeredDmnDefinition, compiledResult, resultType);
+                if (isEvaluationLogEnabled()) {
+                    logEvaluation("Evaluating decision '{}' without script engine took {} msecs.", decisionId, (System.nanoTime() - startTime) / 1000000L);
+                }
+                notifyDecisionEvaluated(decisionId, startTime);
+                return result;
+            }
+            logger.debug("Decision '{}' cannot be evaluated without script engine for the given input.", decisionId);
         }
-        ScriptObjectMirror scriptResult = (ScriptObjectMirror) dmnEvalJsWrapper.evaluateDecision(decisionId, parsedDmnDefinition, wrappedInput);
+        Object wrappedInput = wrapInput(decisionId, decisionInput);
+        DecisionEvaluationResult<T> result;
+        DmnEngine dmnEngine = borrowEngine();
+        try {
+            Object parsedDmnDefinition = dmnEngine.getParsedDmnDefinition(registeredDmnDefinition);
+            DmnEvalJsWrapper dmnEvalJsWrapper = dmnEngine.getDmnEvalJsWrapper();
+            long engineCallTime = System.nanoTime();
+            Object scriptResult = (wrappedInput instanceof LazyInputObject)?
+                    dmnEvalJsWrapper.evaluateDecisionLazily(decisionId, parsedDmnDefinition, (LazyInputObject) wrappedInput) :
+                    dmnEvalJsWrapper.evaluateDecision(decisionId, parsedDmnDefinition, wrappedInput);
+            if (listener != null) {
+                listener.engineCalled(decisionId, 1, System.nanoTime() - engineCallTime);
+            }
 
-        DecisionEvaluationResult<T> result = buildDecisionResult(decisionId, parsedDecision, scriptResult, resultType);
+            if (cacheKey != null) {
+                List<Map<String, Object>> resultObjects = DecisionResultCache.toResultObjects(scriptResult, registeredDmnDefinition.getHitPolicy());
+                resultCache.put(cacheKey, resultObjects);
+                result = buildDecisionResult(registeredDmnDefinition, resultObjects, resultType);
+            } else {
+                result = buildDecisionResult(registeredDmnDefinition, scriptResult, resultType);
+            }
+        } finally {
+            enginePool.returnObject(dmnEngine);
+        }
         if (logger.isDebugEnabled()) {
-            logger.debug("Result for decision '{}': {}", decisionId, decisionInput);
+            logger.debug("Result for decision '{}': {}", decisionId, result);
+        }
+        if (isEvaluationLogEnabled()) {
+            logEvaluation("Evaluating decision '{}' took {} msecs.", decisionId, (System.nanoTime() - startTime) / 1000000L);
         }
-        logger.info("Evaluating decision '{}' took {} msecs.", decisionId, (System.nanoTime() - startTime) / 1000000L);
+        notifyDecisionEvaluated(decisionId, startTime);
         return result;
     }
 
-    private <T> DecisionEvaluationResult<T> buildDecisionResult(String decisionId, ScriptObjectMirror parsedDecision, ScriptObjectMirror scriptResult,
+    /**
+     * Evaluates the decisions with the given ids, using the given execution context as input for all decisions, like
+     * {@link #evaluateDecision(String, Object, Class)}. The decisions must have been registered before with the decision service.
+     * <p>
+     * The decisions and all decisions they require are evaluated as a graph: each decision is evaluated only once, even if it
+     * is required by several of the given decisions, and decisions that do not require each other are evaluated in parallel
+     * by different script engines of the pool. Each decision sees the results of the decisions it requires, in the same order
+     * as if it was evaluated on its own.
+     * <p>
+     * If a decision returns a value that cannot be passed between script engines, like a date, the decisions are evaluated
+     * one after another instead.
+     * <p>
+     * The duration that is reported to {@link DecisionServiceListener#decisionEvaluated(String, long)} for each of the decisions
+     * is the time the decision itself took, without waiting for the decisions it requires.
+     *
+     * @param decisionIds the DMN decision ids of the decisions
+     * @param decisionInput the input for the decisions, must be a Java bean or a {@link Map}
+     * @param resultType a class instance of the decision result type, or {@link Map}
+     * @param <T> the Java runtime type of the decision results
+     * @return the results of the decisions, by the ids of the decisions, in the order of the given ids
+     */
+    public <T> Map<String, DecisionEvaluationResult<T>> evaluateDecisionGraph(Collection<String> decisionIds, Object decisionInput, Class<T> resultType) {
+        long startTime = System.nanoTime();
+        if (isEvaluationLogEnabled()) {
+            logEvaluation("Evaluating decisions {}...", decisionIds);
+        }
+        // only decisions of the same DMN definition can be evaluated as one graph
+        Map<DmnDefinitions, Map<String, RegisteredDmnDefinition>> registrationsByDefinitions = new LinkedHashMap<>();
+        for (String decisionId: decisionIds) {
+            RegisteredDmnDefinition registeredDmnDefinition = getRegisteredDmnDefinition(decisionId);
+            registrationsByDefinitions.computeIfAbsent(registeredDmnDefinition.getDmnDefinitions(), (dmnDefinitions) -> new LinkedHashMap<>())
+                    .put(decisionId, registeredDmnDefinition);
+        }
+        Map<String, DecisionEvaluationResult<T>> results = new HashMap<>();
+        for (Map<String, RegisteredDmnDefinition> registrations: registrationsByDefinitions.values()) {
+            Map<String, GraphNodeResult<T>> graphResults = evaluateDecisionGraph(registrations, decisionInput, resultType);
+            if (graphResults != null) {
+                for (Map.Entry<String, GraphNodeResult<T>> graphResult: graphResults.entrySet()) {
+                    results.put(graphResult.getKey(), graphResult.getValue().result);
+                    if (listener != null) {
+                        listener.decisionEvaluated(graphResult.getKey(), graphResult.getValue().nanos);
+                    }
+                }
+            } else {
+                logger.debug("Decisions {} cannot be evaluated in parallel for the given input.", registrations.keySet());
+                for (String decisionId: registrations.keySet()) {
+                    results.put(decisionId, evaluateDecision(decisionId, decisionInput, resultType, false));
+                }
+            }
+        }
+        Map<String, DecisionEvaluationResult<T>> orderedResults = new LinkedHashMap<>();
+        for (String decisionId: decisionIds) {
+            orderedResults.put(decisionId, results.get(decisionId));
+        }
+        if (isEvaluationLogEnabled()) {
+            logEvaluation("Evaluating decisions {} took {} msecs.", decisionIds, (System.nanoTime() - startTime) / 1000000L);
+        }
+        return orderedResults;
+    }
+
+    // returns null if the result of a required decision cannot be passed to another script engine
+    private <T> Map<String, GraphNodeResult<T>> evaluateDecisionGraph(Map<String, RegisteredDmnDefinition> registrations, Object decisionInput,
+                                                                             Class<T> resultType) {
+        RegisteredDmnDefinition anyRegistration = registrations.values().iterator().next();
+        DecisionGraph decisionGraph = anyRegistration.getDecisionGraph();
+        Set<String> requiredDecisions = new HashSet<>();
+        for (String decisionId: decisionGraph.getEvaluationOrder(registrations.keySet())) {
+            requiredDecisions.addAll(decisionGraph.getMergeOrder(decisionId));
+        }
+        Object wrappedInput = wrapInput(anyRegistration.getDecisionId(), decisionInput);
+        Map<String, GraphNodeResult<T>> nodeResults;
+        try {
+            nodeResults = getDecisionGraphExecutor().evaluate(decisionGraph, registrations.keySet(), (String decisionId, List<GraphNodeResult<T>> requiredResults) -> {
+                long nodeStartTime = System.nanoTime();
+                DmnEngine dmnEngine = borrowEngine();
+                try {
+                    Object parsedDmnDefinition = dmnEngine.getParsedDmnDefinition(anyRegistration);
+                    List<Object> requiredValues = new ArrayList<>(requiredResults.size());
+                    for (GraphNodeResult<T> requiredResult: requiredResults) {
+                        requiredValues.add(requiredResult.value);
+                    }
+                    long engineCallTime = System.nanoTime();
+                    Map<?, ?> evaluation = (Map<?, ?>) dmnEngine.getDmnEvalJsWrapper().evaluateDecisionWithResults(decisionId,
+                            parsedDmnDefinition, wrappedInput, requiredValues);
+                    if (listener != null) {
+                        listener.engineCalled(decisionId, 1, System.nanoTime() - engineCallTime);
+                    }
+                    Object scriptResult = evaluation.get("result");
+                    Object value = null;
+                    if (requiredDecisions.contains(decisionId)) {
+                        if (!Boolean.TRUE.equals(evaluation.get("plain"))) {
+                            throw new UnsupportedGraphValueException(decisionId);
+                        }
+                        value = ScriptObjects.toJavaValue(scriptResult);
+                    }
+                    RegisteredDmnDefinition registeredDmnDefinition = registrations.get(decisionId);
+                    DecisionEvaluationResult<T> result = (registeredDmnDefinition != null)?
+                            buildDecisionResult(registeredDmnDefinition, scriptResult, resultType) : null;
+                    return new GraphNodeResult<>(value, result, System.nanoTime() - nodeStartTime);
+                } finally {
+                    enginePool.returnObject(dmnEngine);
+                }
+            });
+        } catch (UnsupportedGraphValueException e) {
+            logger.debug("The result of decision '{}' cannot be passed to another script engine.", e.getMessage());
+            return null;
+        }
+        return nodeResults;
+    }
+
+    private static final class GraphNodeResult<T> {
+
+        // the result as Java value, if another decision of the graph requires it
+        private final Object value;
+        // the mapped result, if the decision was requested
+        private final DecisionEvaluationResult<T> result;
+        // the duration of evaluating the decision, without the decisions it requires
+        private final long nanos;
+
+        private GraphNodeResult(Object value, DecisionEvaluationResult<T> result, long nanos) {
+            this.value = value;
+            this.result = result;
+            this.nanos = nanos;
+        }
+
+    }
+
+    private static final class UnsupportedGraphValueException extends RuntimeException {
+
+        static final long serialVersionUID = 0L;
+
+        private UnsupportedGraphValueException(String decisionId) {
+            super(decisionId, null, false, false);
+        }
+
+    }
+
+    // the input values are the values of a typed decision input, or null for other inputs
+    private List<Map<String, Object>> evaluateCompiledDecision(CompiledDecision compiledDecision, Object decisionInput, Object[] inputValues) {
+        if (listener == null) {
+            return (inputValues != null)? compiledDecision.evaluateValues(inputValues, null) : compiledDecision.evaluate(decisionInput);
+        }
+        long startTime = System.nanoTime();
+        List<Integer> matchedRules = new ArrayList<>();
+        List<Map<String, Object>> compiledResult = (inputValues != null)? compiledDecision.evaluateValues(inputValues, matchedRules) :
+                compiledDecision.evaluate(decisionInput, matchedRules);
+        if (compiledResult != null) {
+            listener.rulesMatched(compiledDecision.getDecisionId(), compiledDecision.getRuleCount(), matchedRules, System.nanoTime() - startTime);
+        }
+        return compiledResult;
+    }
+
+    private void notifyDecisionEvaluated(String decisionId, long startTime) {
+        if (listener != null) {
+            listener.decisionEvaluated(decisionId, System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Evaluates the decision with the given id asynchronously, like {@link #evaluateDecision(String, Object, Class)}. The evaluation
+     * is executed by a thread of the decision service, of which there are as many as script engines in the pool, so the calling
+     * thread is never blocked by the script engine. If all threads are busy, the evaluation is queued. If the queue is full,
+     * the {@linkplain DecisionServiceConfiguration#getAsyncQueueFullPolicy() configured policy} applies.
+     * <p>
+     * The decision input is read when the evaluation is executed, so it must not be modified until the returned future is completed.
+     *
+     * @param decisionId the DMN decision id of the decision
+     * @param decisionInput the input for the decision, must be a Java bean or a {@link Map}
+     * @param resultType a class instance of the decision result type, or {@link Map}
+     * @param <T> the Java runtime type of the decision result
+     * @return the future of the decision result, which fails with a {@link DecisionEvaluationException} if the evaluation failed
+     */
+    public <T> CompletableFuture<DecisionEvaluationResult<T>> evaluateDecisionAsync(String decisionId, Object decisionInput, Class<T> resultType) {
+        return getEngineExecutor().submit(() -> evaluateDecision(decisionId, decisionInput, resultType));
+    }
+
+    /**
+     * Evaluates the decision with the given id for each of the given inputs, like {@link #evaluateDecision(String, Object, Class)}.
+     * All inputs are evaluated by the same script engine in a single call, which is considerably faster than evaluating them
+     * one by one.
+     * <p>
+     * If the evaluation fails for an input, e.g. because the input is no Java bean, the failure is reported by the result for
+     * that input, and the other inputs are evaluated nevertheless.
+     *
+     * @param decisionId the DMN decision id of the decision
+     * @param decisionInputs the inputs for the decision, each must be a Java bean or a {@link Map}
+     * @param resultType a class instance of the decision result type, or {@link Map}
+     * @param <T> the Java runtime type of the decision result
+     * @return the results for the inputs, in the order of the inputs
+     */
+    public <T> List<BatchEvaluationResult<T>> evaluateDecisions(String decisionId, List<?> decisionInputs, Class<T> resultType) {
+        long startTime = System.nanoTime();
+        if (isEvaluationLogEnabled()) {
+            logEvaluation("Evaluating decision '{}' for {} inputs...", decisionId, decisionInputs.size());
+        }
+        List<BatchEvaluationResult<T>> results = evaluateBatch(getRegisteredDmnDefinition(decisionId), decisionInputs, 0, resultType);
+        if (isEvaluationLogEnabled()) {
+            logEvaluation("Evaluating decision '{}' for {} inputs took {} msecs.", decisionId, decisionInputs.size(), (System.nanoTime() - startTime) / 1000000L);
+        }
+        return results;
+    }
+
+    /**
+     * Evaluates the decision with the given id for each of the given inputs, like {@link #evaluateDecisions(String, List, Class)}.
+     * The inputs are consumed lazily while the returned stream is consumed, in batches of the
+     * {@linkplain DecisionServiceConfiguration#getBatchSize() configured size}. All batches are evaluated by the DMN definition
+     * that is registered when this method is called.
+     *
+     * @param decisionId the DMN decision id of the decision
+     * @param decisionInputs the inputs for the decision, each must be a Java bean or a {@link Map}
+     * @param resultType a class instance of the decision result type, or {@link Map}
+     * @param <T> the Java runtime type of the decision result
+     * @return the sequential stream of results for the inputs, in the order of the inputs
+     */
+    public <T> Stream<BatchEvaluationResult<T>> evaluateDecisions(String decisionId, Iterator<?> decisionInputs, Class<T> resultType) {
+        RegisteredDmnDefinition registeredDmnDefinition = getRegisteredDmnDefinition(decisionId);
+        int batchSize = Math.max(configuration.getBatchSize(), 1);
+        Iterator<BatchEvaluationResult<T>> results = new Iterator<BatchEvaluationResult<T>>() {
+
+            private Iterator<BatchEvaluationResult<T>> batchResults = Collections.emptyIterator();
+            private int evaluatedInputs = 0;
+
+            @Override
+            public boolean hasNext() {
+                if (!batchResults.hasNext() && decisionInputs.hasNext()) {
+                    List<Object> batch = new ArrayList<>(batchSize);
+                    while (decisionInputs.hasNext() && (batch.size() < batchSize)) {
+                        batch.add(decisionInputs.next());
+                    }
+                    long startTime = System.nanoTime();
+                    batchResults = evaluateBatch(registeredDmnDefinition, batch, evaluatedInputs, resultType).iterator();
+                    evaluatedInputs += batch.size();
+                    if (isEvaluationLogEnabled()) {
+                        logEvaluation("Evaluating decision '{}' for {} inputs took {} msecs.", decisionId, batch.size(), (System.nanoTime() - startTime) / 1000000L);
+                    }
+                }
+                return batchResults.hasNext();
+            }
+
+            @Override
+            public BatchEvaluationResult<T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batchResults.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Evaluates the decision with the given id for each row of the given columnar input, like {@link #evaluateDecisions(String, List, Class)}
+     * does for a list of inputs. If the decision is {@linkplain DecisionServiceConfiguration#isNativeCompilationEnabled() compiled}, its rules
+     * are matched against whole columns instead of one row after another, and the rows are split into chunks that are matched and mapped in
+     * parallel by the common fork/join pool. The rows that the compiled decision cannot evaluate, and all rows of decisions that are not
+     * compiled, are evaluated by the script engine in batches of the {@linkplain DecisionServiceConfiguration#getBatchSize() configured size}.
+     * <p>
+     * Columnar inputs are supported for the decisions whose results depend on nothing but the values of their input expressions, like
+     * {@link #createDecisionInput(String)}. The results of compiled decisions are not cached, because matching the rules is cheaper.
+     * <p>
+     * If the evaluation fails for a row, e.g. because its result cannot be mapped to the result type, the failure is reported by the
+     * result for that row, and the other rows are evaluated nevertheless. The whole call is reported once to
+     * {@link DecisionServiceListener#decisionEvaluated(String, long)}.
+     *
+     * @param decisionId the DMN decision id of the decision
+     * @param columnarInput the values of the input expressions of the decision, column by column
+     * @param resultType a class instance of the decision result type, or {@link Map}
+     * @param <T> the Java runtime type of the decision result
+     * @return the results for the rows, in the order of the rows, each with the columnar input as decision input and the row as index
+     * @throws DecisionEvaluationException thrown if the decision was not registered, if its result depends on more than the values of
+     *                                     its input expressions, or if the input has a column for another input expression
+     */
+    public <T> List<BatchEvaluationResult<T>> evaluateColumns(String decisionId, ColumnarInput columnarInput, Class<T> resultType) {
+        long startTime = System.nanoTime();
+        int rowCount = columnarInput.getRowCount();
+        if (isEvaluationLogEnabled()) {
+            logEvaluation("Evaluating decision '{}' for {} rows...", decisionId, rowCount);
+        }
+        RegisteredDmnDefinition registeredDmnDefinition = getRegisteredDmnDefinition(decisionId);
+        InputExpression[] inputExpressions = registeredDmnDefinition.getInputExpressions();
+        if (inputExpressions == null) {
+            throw new DecisionEvaluationException("Decision '" + decisionId + "' does not support columnar input, because its result depends "
+                    + "on more than the values of its input expressions.");
+        }
+        Object[] columns = columnarInput.getColumns(decisionId, inputExpressions);
+        CompiledDecision compiledDecision = registeredDmnDefinition.getCompiledDecision();
+        List<List<Map<String, Object>>> compiledResults = (compiledDecision != null)? compiledDecision.evaluateColumns(columns, rowCount) :
+                Collections.nCopies(rowCount, null);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        BatchEvaluationResult<T>[] results = new BatchEvaluationResult[rowCount];
+        Arrays.parallelSetAll(results, (row) -> {
+            if (compiledResults.get(row) == null) {
+                return null;
+            }
+            try {
+                return new BatchEvaluationResult<>(row, columnarInput, buildDecisionResult(registeredDmnDefinition, compiledResults.get(row), resultType), null);
+            } catch (RuntimeException e) {
+                return new BatchEvaluationResult<>(row, columnarInput, null, toEvaluationException(decisionId, e));
+            }
+        });
+        List<Integer> scriptRows = new ArrayList<>();
+        for (int row = 0; row < rowCount; ++row) {
+            if (results[row] == null) {
+                scriptRows.add(row);
+            }
+        }
+        int batchSize = Math.max(configuration.getBatchSize(), 1);
+        for (int first = 0; first < scriptRows.size(); first += batchSize) {
+            List<Integer> batchRows = scriptRows.subList(first, Math.min(first + batchSize, scriptRows.size()));
+            List<Object> batch = new ArrayList<>(batchRows.size());
+            for (int row: batchRows) {
+                batch.add(columnarInput.getRow(row));
+            }
+            List<BatchEvaluationResult<T>> batchResults = evaluateBatch(registeredDmnDefinition, batch, 0, resultType);
+            for (int i = 0; i < batchRows.size(); ++i) {
+                int row = batchRows.get(i);
+                results[row] = new BatchEvaluationResult<>(row, columnarInput, batchResults.get(i).getResult(), batchResults.get(i).getException());
+            }
+        }
+        if (isEvaluationLogEnabled()) {
+            logEvaluation("Evaluating decision '{}' for {} rows, {} of them by the script engine, took {} msecs.", decisionId, rowCount,
+                    scriptRows.size(), (System.nanoTime() - startTime) / 1000000L);
+        }
+        notifyDecisionEvaluated(decisionId, startTime);
+        return Arrays.asList(results);
+    }
+
+    private <T> List<BatchEvaluationResult<T>> evaluateBatch(RegisteredDmnDefinition registeredDmnDefinition, List<?> decisionInputs, int firstIndex,
+                                                             Class<T> resultType) {
+        String decisionId = registeredDmnDefinition.getDecisionId();
+        List<BatchEvaluationResult<T>> results = new ArrayList<>(Collections.nCopies(decisionInputs.size(), null));
+        CompiledDecision compiledDecision = registeredDmnDefinition.getCompiledDecision();
+        DecisionResultCache resultCache = registeredDmnDefinition.getResultCache();
+        List<Object> wrappedInputs = new ArrayList<>();
+        List<Integer> wrappedInputIndexes = new ArrayList<>();
+        List<List<Object>> wrappedInputCacheKeys = new ArrayList<>();
+        for (int i = 0; i < decisionInputs.size(); ++i) {
+            Object decisionInput = decisionInputs.get(i);
+            try {
+                Object[] inputValues = getInputValues(registeredDmnDefinition, decisionInput);
+                List<Object> cacheKey = (resultCache != null)? createCacheKey(resultCache, decisionInput, inputValues) : null;
+                List<Map<String, Object>> cachedResult = (cacheKey != null)? resultCache.get(cacheKey) : null;
+                List<Map<String, Object>> compiledResult = ((cachedResult == null) && (compiledDecision != null))?
+                        evaluateCompiledDecision(compiledDecision, decisionInput, inputValues) : null;
+                if ((cacheKey != null) && (compiledResult != null)) {
+                    resultCache.put(cacheKey, compiledResult);
+                }
+                if ((cachedResult != null) || (compiledResult != null)) {
+                    List<Map<String, Object>> resultObjects = (cachedResult != null)? cachedResult : compiledResult;
+                    results.set(i, new BatchEvaluationResult<>(firstIndex + i, decisionInput, buildDecisionResult(registeredDmnDefinition, resultObjects, resultType), null));
+                } else {
+                    wrappedInputs.add(wrapInput(decisionId, decisionInput));
+                    wrappedInputIndexes.add(i);
+                    wrappedInputCacheKeys.add(cacheKey);
+                }
+            } catch (RuntimeException e) {
+                results.set(i, new BatchEvaluationResult<>(firstIndex + i, decisionInput, null, toEvaluationException(decisionId, e)));
+            }
+        }
+        if (wrappedInputs.isEmpty()) {
+            return results;
+        }
+        DmnEngine dmnEngine = borrowEngine();
+        try {
+            Object parsedDmnDefinition = dmnEngine.getParsedDmnDefinition(registeredDmnDefinition);
+            long engineCallTime = System.nanoTime();
+            List<Object> scriptResults = ScriptObjects.toList(dmnEngine.getDmnEvalJsWrapper().evaluateDecisions(decisionId, parsedDmnDefinition, wrappedInputs));
+            if (listener != null) {
+                listener.engineCalled(decisionId, wrappedInputs.size(), System.nanoTime() - engineCallTime);
+            }
+            for (int j = 0; j < wrappedInputIndexes.size(); ++j) {
+                int i = wrappedInputIndexes.get(j);
+                Object decisionInput = decisionInputs.get(i);
+                Map<?, ?> scriptResult = (Map<?, ?>) scriptResults.get(j);
+                try {
+                    if (scriptResult.containsKey("error")) {
+                        throw toEvaluationException(decisionId, scriptResult.get("error"));
+                    }
+                    Object resultObject = scriptResult.get("result");
+                    List<Object> cacheKey = wrappedInputCacheKeys.get(j);
+                    DecisionEvaluationResult<T> result;
+                    if (cacheKey != null) {
+                        List<Map<String, Object>> resultObjects = DecisionResultCache.toResultObjects(resultObject, registeredDmnDefinition.getHitPolicy());
+                        resultCache.put(cacheKey, resultObjects);
+                        result = buildDecisionResult(registeredDmnDefinition, resultObjects, resultType);
+                    } else {
+                        result = buildDecisionResult(registeredDmnDefinition, resultObject, resultType);
+                    }
+                    results.set(i, new BatchEvaluationResult<>(firstIndex + i, decisionInput, result, null));
+                } catch (RuntimeException e) {
+                    results.set(i, new BatchEvaluationResult<>(firstIndex + i, decisionInput, null, toEvaluationException(decisionId, e)));
+                }
+            }
+        } finally {
+            enginePool.returnObject(dmnEngine);
+        }
+        return results;
+    }
+
+    private static DecisionEvaluationException toEvaluationException(String decisionId, Object error) {
+        if (error instanceof DecisionEvaluationException) {
+            return (DecisionEvaluationException) error;
+        }
+        if (error instanceof Throwable) {
+            return new DecisionEvaluationException("Failed to evaluate decision '" + decisionId + "'", (Throwable) error);
+        }
+        return new DecisionEvaluationException("Failed to evaluate decision '" + decisionId + "': " + error);
+    }
+
+    // messages about single evaluations are logged at level debug in quiet mode, and only built if they are logged
+    private boolean isEvaluationLogEnabled() {
+        return configuration.isQuietLoggingEnabled()? logger.isDebugEnabled() : logger.isInfoEnabled();
+    }
+
+    private void logEvaluation(String format, Object... arguments) {
+        if (configuration.isQuietLoggingEnabled()) {
+            logger.debug(format, arguments);
+        } else {
+            logger.info(format, arguments);
+        }
+    }
+
+    private RegisteredDmnDefinition getRegisteredDmnDefinition(String decisionId) {
+        RegisteredDmnDefinition registeredDmnDefinition = registeredDmnDefinitions.get(decisionId);
+        if (registeredDmnDefinition == null) {
+            throw new DecisionEvaluationException("Decision '" + decisionId + "' was not successfully registered before.");
+        }
+        return registeredDmnDefinition;
+    }
+
+    /**
+     * Returns the values of the input expressions if the given input is a typed decision input, or <code>null</code> otherwise.
+     */
+    private static Object[] getInputValues(RegisteredDmnDefinition registeredDmnDefinition, Object decisionInput) {
+        if (!(decisionInput instanceof DecisionInput)) {
+            return null;
+        }
+        DecisionInput typedInput = (DecisionInput) decisionInput;
+        if (!typedInput.fits(registeredDmnDefinition.getDecisionId(), registeredDmnDefinition.getInputExpressions())) {
+            throw new DecisionEvaluationException("Decision input of decision '" + typedInput.getDecisionId()
+                    + "' does not fit the input expressions of decision '" + registeredDmnDefinition.getDecisionId() + "'.");
+        }
+        return typedInput.getInputValues();
+    }
+
+    private static List<Object> createCacheKey(DecisionResultCache resultCache, Object decisionInput, Object[] inputValues) {
+        return (inputValues != null)? resultCache.createKeyFromValues(inputValues) : resultCache.createKey(decisionInput);
+    }
+
+    private Object wrapInput(String decisionId, Object decisionInput) {
+        if (listener == null) {
+            return wrapInput(decisionInput);
+        }
+        long startTime = System.nanoTime();
+        Object wrappedInput = wrapInput(decisionInput);
+        listener.inputWrapped(decisionId, System.nanoTime() - startTime);
+        return wrappedInput;
+    }
+
+    private Object wrapInput(Object decisionInput) {
+        if (decisionInput instanceof DecisionInput) {
+            // the script engine reads the slots of a typed decision input as nested maps
+            return wrapInput(((DecisionInput) decisionInput).toMap());
+        }
+        if (configuration.isLazyInputEnabled()) {
+            if (!(decisionInput instanceof Map) && !InputObjectWrapper.isObject(decisionInput)) {
+                throw new DecisionEvaluationException("Decision input must be a POJO or of type java.util.Map");
+            }
+            return LazyInputObject.of(decisionInput);
+        }
+        WrappedInputObject wrappedInputObject = InputObjectWrapper.INSTANCE.wrapInput(decisionInput);
+        if (!wrappedInputObject.getType().equals("map")) {
+            throw new DecisionEvaluationException("Decision input must be a POJO or of type java.util.Map");
+        }
+        return wrappedInputObject;
+    }
+
+    private <T> DecisionEvaluationResult<T> buildDecisionResult(RegisteredDmnDefinition registeredDmnDefinition, Object scriptResult,
                                                                 Class<T> resultType) {
-        Gson gson = new Gson();
-        DecisionTable decisionTable = getDecision(parsedDecision).getDecisionTable();
-        DecisionEvaluationResult<T> decisionEvaluationResult = new DecisionEvaluationResult<>(decisionId);
-        if (!scriptResult.isEmpty()) {
-            if ((decisionTable.getHitPolicy() == HitPolicy.FIRST) || (decisionTable.getHitPolicy() == HitPolicy.UNIQUE)) {
-                String resultString = gson.toJson(scriptResult);
-                T result = gson.fromJson(resultString, resultType);
-                decisionEvaluationResult.addResult(result);
+        long startTime = System.nanoTime();
+        DecisionEvaluationResult<T> decisionEvaluationResult = new DecisionEvaluationResult<>(registeredDmnDefinition.getDecisionId(),
+                registeredDmnDefinition.getVersion());
+        HitPolicy hitPolicy = registeredDmnDefinition.getHitPolicy();
+        // the result is an object for the hit policies FIRST and UNIQUE, and an array otherwise
+        boolean empty = (scriptResult instanceof Map)? ((Map<?, ?>) scriptResult).isEmpty() : ((Collection<?>) scriptResult).isEmpty();
+        if (!empty) {
+            if ((hitPolicy == HitPolicy.FIRST) || (hitPolicy == HitPolicy.UNIQUE)) {
+                decisionEvaluationResult.addResult(ResultMapper.INSTANCE.mapResult(scriptResult, resultType));
             } else {
-                List<Object> list = makeListFromPseudoMap(scriptResult);
+                List<Object> list = ScriptObjects.toList(scriptResult);
                 for (Object listElement: list) {
-                    String listElementString = gson.toJson(listElement);
-                    T result = gson.fromJson(listElementString, resultType);
-                    decisionEvaluationResult.addResult(result);
+                    decisionEvaluationResult.addResult(ResultMapper.INSTANCE.mapResult(listElement, resultType));
                 }
             }
         }
+        notifyResultMapped(registeredDmnDefinition, startTime);
         return decisionEvaluationResult;
     }
 
-    private List<Object> makeListFromPseudoMap(ScriptObjectMirror pseudoMap) {
-        List<Object> list = new ArrayList<>();
-        for (int i = 0; i < pseudoMap.size(); ++i) {
-            list.add(pseudoMap.get(String.valueOf(i)));
+    private <T> DecisionEvaluationResult<T> buildDecisionResult(RegisteredDmnDefinition registeredDmnDefinition, List<Map<String, Object>> compiledResult,
+                                                                Class<T> resultType) {
+        long startTime = System.nanoTime();
+        DecisionEvaluationResult<T> decisionEvaluationResult = new DecisionEvaluationResult<>(registeredDmnDefinition.getDecisionId(),
+                registeredDmnDefinition.getVersion());
+        for (Map<String, Object> resultObject: compiledResult) {
+            decisionEvaluationResult.addResult(ResultMapper.INSTANCE.mapResult(resultObject, resultType));
         }
-        return list;
+        notifyResultMapped(registeredDmnDefinition, startTime);
+        return decisionEvaluationResult;
     }
 
-    private Object runScript(String scriptFile) {
-        try (InputStream jsFileStream = DecisionService.class.getClassLoader().getResourceAsStream(scriptFile)) {
-            if (jsFileStream == null) {
-                throw new IllegalArgumentException("Did not find script file " + scriptFile + " in classpath.");
-            }
-            return scriptEngine.eval(new InputStreamReader(jsFileStream));
-        } catch (ScriptException e) {
-            throw new DecisionServiceInstantiationException("Failed to run script file " + scriptFile, e);
-        } catch (IOException e) {
-            throw new DecisionServiceInstantiationException("Failed to load script file " + scriptFile, e);
+    private void notifyResultMapped(RegisteredDmnDefinition registeredDmnDefinition, long startTime) {
+        if (listener != null) {
+            listener.resultMapped(registeredDmnDefinition.getDecisionId(), System.nanoTime() - startTime);
         }
     }
 
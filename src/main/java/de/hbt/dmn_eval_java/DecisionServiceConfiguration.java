@@ -0,0 +1,325 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Configures a {@link DecisionService}. The decision service evaluates decisions with a pool of script engines.
+ * Each script engine can only be used by one thread at a time, so the size of the pool limits the number of decisions
+ * that can be evaluated in parallel. Bootstrapping a script engine is expensive, so engines are created lazily when
+ * they are needed, and by default they are never evicted from the pool.
+ */
+public class DecisionServiceConfiguration {
+
+    private int enginePoolSize = 1;
+    private int minIdleEngines = 1;
+    private long engineBorrowTimeoutMillis = -1L;
+    private long evictionRunIntervalMillis = -1L;
+    private long minEvictableIdleTimeMillis = 30L * 60L * 1000L;
+    private ScriptEngineType scriptEngineType = ScriptEngineType.NASHORN;
+    private String persistentCodeCacheDirectory;
+    private String snapshotDirectory;
+    private boolean nativeCompilationEnabled = false;
+    private UniqueOverlapPolicy uniqueOverlapPolicy = UniqueOverlapPolicy.WARN;
+    private boolean lazyInputEnabled = false;
+    private boolean quietLoggingEnabled = false;
+    private boolean parallelDrgEvaluationEnabled = false;
+    private int batchSize = 100;
+    private int resultCacheSize = 0;
+    private long resultCacheTimeToLiveMillis = -1L;
+    private Set<String> resultCacheExcludedDecisions = Collections.emptySet();
+    private int asyncQueueCapacity = 1000;
+    private QueueFullPolicy asyncQueueFullPolicy = QueueFullPolicy.REJECT;
+    private List<DecisionServiceListener> listeners = Collections.emptyList();
+
+    /**
+     * Returns the maximum number of script engines, which is the maximum number of decisions that can be evaluated
+     * in parallel. Defaults to 1.
+     * @return the maximum number of script engines
+     */
+    public int getEnginePoolSize() {
+        return enginePoolSize;
+    }
+
+    public void setEnginePoolSize(int enginePoolSize) {
+        this.enginePoolSize = enginePoolSize;
+    }
+
+    /**
+     * Returns the number of script engines that are bootstrapped when the decision service is started, and that are kept
+     * in the pool even when they are idle. Defaults to 1.
+     * @return the minimum number of idle script engines
+     */
+    public int getMinIdleEngines() {
+        return minIdleEngines;
+    }
+
+    public void setMinIdleEngines(int minIdleEngines) {
+        this.minIdleEngines = minIdleEngines;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds to wait for a free script engine if all engines of the pool are in use.
+     * A negative value means to wait indefinitely, which is the default.
+     * @return the timeout for borrowing a script engine from the pool
+     */
+    public long getEngineBorrowTimeoutMillis() {
+        return engineBorrowTimeoutMillis;
+    }
+
+    public void setEngineBorrowTimeoutMillis(long engineBorrowTimeoutMillis) {
+        this.engineBorrowTimeoutMillis = engineBorrowTimeoutMillis;
+    }
+
+    /**
+     * Returns the interval in milliseconds in which idle script engines are checked for eviction.
+     * A non-positive value disables eviction, which is the default.
+     * @return the interval of eviction runs
+     */
+    public long getEvictionRunIntervalMillis() {
+        return evictionRunIntervalMillis;
+    }
+
+    public void setEvictionRunIntervalMillis(long evictionRunIntervalMillis) {
+        this.evictionRunIntervalMillis = evictionRunIntervalMillis;
+    }
+
+    /**
+     * Returns the time in milliseconds a script engine must have been idle before it may be evicted from the pool.
+     * Engines are never evicted if this would leave less than {@linkplain #getMinIdleEngines() the minimum number of idle engines}.
+     * Defaults to 30 minutes.
+     * @return the minimum idle time before eviction
+     */
+    public long getMinEvictableIdleTimeMillis() {
+        return minEvictableIdleTimeMillis;
+    }
+
+    public void setMinEvictableIdleTimeMillis(long minEvictableIdleTimeMillis) {
+        this.minEvictableIdleTimeMillis = minEvictableIdleTimeMillis;
+    }
+
+    /**
+     * Returns the Javascript engine that runs dmn-eval-js. Nashorn is not part of the JDK anymore since Java 15, so use
+     * {@link ScriptEngineType#GRAALJS} on newer JDKs, and add the artifact <code>org.graalvm.js:js</code> to the classpath.
+     * GraalJS shares the compiled scripts between all script engines of the JVM, so additional script engines bootstrap
+     * considerably faster. Defaults to {@link ScriptEngineType#NASHORN}.
+     * @return the type of the script engine
+     */
+    public ScriptEngineType getScriptEngineType() {
+        return scriptEngineType;
+    }
+
+    public void setScriptEngineType(ScriptEngineType scriptEngineType) {
+        this.scriptEngineType = scriptEngineType;
+    }
+
+    /**
+     * Returns the directory in which Nashorn stores the compiled dmn-eval-js scripts, so that subsequent JVM starts can skip
+     * compiling them. Within a JVM, the scripts are compiled only once anyway. Defaults to <code>null</code>, which
+     * disables the persistent code cache.
+     * <p>
+     * Note that Nashorn reads the location of its code cache from the system property <code>nashorn.persistent.code.cache</code>,
+     * so setting this property affects that system property. GraalJS has no persistent code cache, so it ignores the directory.
+     * @return the directory of the persistent code cache
+     */
+    public String getPersistentCodeCacheDirectory() {
+        return persistentCodeCacheDirectory;
+    }
+
+    public void setPersistentCodeCacheDirectory(String persistentCodeCacheDirectory) {
+        this.persistentCodeCacheDirectory = persistentCodeCacheDirectory;
+    }
+
+    /**
+     * Returns the directory with snapshots of parsed DMN definitions. When a DMN definition is registered, it is restored
+     * from its snapshot instead of parsing its XML content and its FEEL expressions, if there is a snapshot of the same
+     * content. Otherwise, the DMN definition is parsed, and its snapshot is written to the directory. Snapshots can be
+     * created at build time with the {@link DmnSnapshotTool}. Defaults to <code>null</code>, which disables snapshots.
+     * @return the directory of the snapshots
+     */
+    public String getSnapshotDirectory() {
+        return snapshotDirectory;
+    }
+
+    public void setSnapshotDirectory(String snapshotDirectory) {
+        this.snapshotDirectory = snapshotDirectory;
+    }
+
+    /**
+     * Returns whether decision tables are compiled into Java objects when they are registered, so that they can be
+     * evaluated without a script engine. Decision tables that require other decisions or contain FEEL constructs
+     * which the compiler does not support are still evaluated by a script engine, as are evaluations with input that
+     * the compiled decision table cannot process. Defaults to false.
+     * @return true if decision tables are compiled
+     */
+    public boolean isNativeCompilationEnabled() {
+        return nativeCompilationEnabled;
+    }
+
+    public void setNativeCompilationEnabled(boolean nativeCompilationEnabled) {
+        this.nativeCompilationEnabled = nativeCompilationEnabled;
+    }
+
+    /**
+     * Returns what happens when a decision table with hit policy UNIQUE is registered whose rules overlap, i.e. both
+     * match some input, for which the evaluation of the decision would fail. The rules are checked if the compiler
+     * supports all constructs of the decision table, whether native compilation is enabled or not. If the rules of a
+     * compiled decision table are proven not to overlap, its evaluation stops at the first matching rule. Defaults to
+     * {@link UniqueOverlapPolicy#WARN}.
+     * @return the policy for overlapping rules
+     */
+    public UniqueOverlapPolicy getUniqueOverlapPolicy() {
+        return uniqueOverlapPolicy;
+    }
+
+    public void setUniqueOverlapPolicy(UniqueOverlapPolicy uniqueOverlapPolicy) {
+        this.uniqueOverlapPolicy = uniqueOverlapPolicy;
+    }
+
+    /**
+     * Returns whether the decision input is passed to the script engine as a live view, whose nested properties are
+     * resolved only when the decision reads them. Otherwise, the whole input object graph is copied before each
+     * evaluation. With a lazy input, large input objects hardly cost anything, but they must not be modified while
+     * a decision is evaluated. Defaults to false.
+     * @return true if the decision input is resolved lazily
+     */
+    public boolean isLazyInputEnabled() {
+        return lazyInputEnabled;
+    }
+
+    public void setLazyInputEnabled(boolean lazyInputEnabled) {
+        this.lazyInputEnabled = lazyInputEnabled;
+    }
+
+    /**
+     * Returns whether messages about single evaluations are logged at level debug instead of info, so that they can be
+     * turned off without turning off the other info messages of the decision service. Messages are only built if their
+     * level is enabled either way. Defaults to false.
+     * @return true if messages about single evaluations are logged at level debug
+     */
+    public boolean isQuietLoggingEnabled() {
+        return quietLoggingEnabled;
+    }
+
+    public void setQuietLoggingEnabled(boolean quietLoggingEnabled) {
+        this.quietLoggingEnabled = quietLoggingEnabled;
+    }
+
+    /**
+     * Returns whether a decision that requires other decisions is evaluated like
+     * {@link DecisionService#evaluateDecisionGraph(java.util.Collection, Object, Class)}, i.e. required decisions that do not
+     * require each other are evaluated in parallel by different script engines of the pool. Otherwise, a decision and all
+     * decisions it requires are evaluated one after another by the same script engine. This only pays off if the
+     * required decisions are expensive, since each of them borrows a script engine. Defaults to false.
+     * @return true if required decisions are evaluated in parallel
+     */
+    public boolean isParallelDrgEvaluationEnabled() {
+        return parallelDrgEvaluationEnabled;
+    }
+
+    public void setParallelDrgEvaluationEnabled(boolean parallelDrgEvaluationEnabled) {
+        this.parallelDrgEvaluationEnabled = parallelDrgEvaluationEnabled;
+    }
+
+    /**
+     * Returns the number of inputs that are evaluated together when a decision is evaluated for a stream of inputs.
+     * A script engine is in use for the evaluation of a whole batch. Defaults to 100.
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the maximum number of results that are cached for each decision. The results are cached by the values of
+     * the input expressions of the decision, so that a decision is evaluated only once for inputs with the same values.
+     * Only the results of decisions that require no other decisions, whose input expressions are qualified names, and
+     * whose input and output entries are constants can be cached. If the cache of a decision is full, the least
+     * recently used result is evicted. Defaults to 0, which disables the result cache.
+     * @return the maximum number of cached results for each decision
+     */
+    public int getResultCacheSize() {
+        return resultCacheSize;
+    }
+
+    public void setResultCacheSize(int resultCacheSize) {
+        this.resultCacheSize = resultCacheSize;
+    }
+
+    /**
+     * Returns the time in milliseconds after which a cached result expires. A negative value means that cached results
+     * never expire, which is the default.
+     * @return the time to live of cached results
+     */
+    public long getResultCacheTimeToLiveMillis() {
+        return resultCacheTimeToLiveMillis;
+    }
+
+    public void setResultCacheTimeToLiveMillis(long resultCacheTimeToLiveMillis) {
+        this.resultCacheTimeToLiveMillis = resultCacheTimeToLiveMillis;
+    }
+
+    /**
+     * Returns the ids of the decisions whose results are never cached, e.g. because their input contains Java functions
+     * with side effects. Inputs whose input expressions resolve to Java functions are never cached anyway. Defaults to
+     * an empty set.
+     * @return the ids of the decisions that are excluded from the result cache
+     */
+    public Set<String> getResultCacheExcludedDecisions() {
+        return resultCacheExcludedDecisions;
+    }
+
+    public void setResultCacheExcludedDecisions(Set<String> resultCacheExcludedDecisions) {
+        this.resultCacheExcludedDecisions = resultCacheExcludedDecisions;
+    }
+
+    /**
+     * Returns the maximum number of asynchronous evaluations that wait for a free script engine. Asynchronous evaluations
+     * are executed by as many threads as there are script engines in the pool. Registrations of DMN definitions are
+     * executed by the same threads, but do not count towards this capacity. Defaults to 1000.
+     * @return the capacity of the queue of asynchronous evaluations
+     */
+    public int getAsyncQueueCapacity() {
+        return asyncQueueCapacity;
+    }
+
+    public void setAsyncQueueCapacity(int asyncQueueCapacity) {
+        this.asyncQueueCapacity = asyncQueueCapacity;
+    }
+
+    /**
+     * Returns what happens to an asynchronous evaluation if the {@linkplain #getAsyncQueueCapacity() queue} is full.
+     * Defaults to {@link QueueFullPolicy#REJECT}.
+     * @return the policy for a full queue
+     */
+    public QueueFullPolicy getAsyncQueueFullPolicy() {
+        return asyncQueueFullPolicy;
+    }
+
+    public void setAsyncQueueFullPolicy(QueueFullPolicy asyncQueueFullPolicy) {
+        this.asyncQueueFullPolicy = asyncQueueFullPolicy;
+    }
+
+    /**
+     * Returns the listeners that are notified about the phases of registering and evaluating decisions, with their
+     * durations in nanoseconds. Defaults to an empty list, in which case the phases are not measured at all.
+     * @return the listeners of the decision service
+     */
+    public List<DecisionServiceListener> getListeners() {
+        return listeners;
+    }
+
+    public void setListeners(List<DecisionServiceListener> listeners) {
+        this.listeners = listeners;
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Is notified by a {@link DecisionService} about the phases of registering and evaluating decisions, to collect
+ * metrics or to trace evaluations, see {@link DecisionServiceConfiguration#setListeners(List)}. All durations are
+ * given in nanoseconds.
+ * <p>
+ * Listeners are called by the threads that register and evaluate the decisions, often by several threads in parallel,
+ * so they must be thread-safe, and they should return quickly. Exceptions thrown by a listener are logged and do not
+ * affect the evaluation. All methods do nothing by default, so listeners only need to implement the phases they
+ * are interested in. {@link HistogramDecisionServiceListener} records the durations in histograms.
+ */
+public interface DecisionServiceListener {
+
+    /**
+     * Called when a DMN definition was parsed, or restored from its snapshot, before its decisions are registered.
+     * @param decisionIds the ids of all decisions of the DMN definition
+     * @param nanos the duration of parsing the DMN definition
+     * @param restoredFromSnapshot whether the DMN definition was restored from a snapshot instead of being parsed
+     */
+    default void definitionsParsed(Collection<String> decisionIds, long nanos, boolean restoredFromSnapshot) {
+    }
+
+    /**
+     * Called when a decision input was converted for the script engine.
+     * @param decisionId the id of the evaluated decision
+     * @param nanos the duration of the conversion
+     */
+    default void inputWrapped(String decisionId, long nanos) {
+    }
+
+    /**
+     * Called when the script engine evaluated a decision. A batch of inputs is evaluated by a single call.
+     * @param decisionId the id of the evaluated decision
+     * @param inputCount the number of inputs that were evaluated by the call
+     * @param nanos the duration of the call, without the time to borrow the script engine from the pool
+     */
+    default void engineCalled(String decisionId, int inputCount, long nanos) {
+    }
+
+    /**
+     * Called when the rules of a decision table that was compiled for evaluation without script engine were matched
+     * against an input, see {@link DecisionServiceConfiguration#isNativeCompilationEnabled()}. dmn-eval-js does not
+     * tell which rules matched, so evaluations by the script engine are only reported by {@link #engineCalled(String, int, long)}.
+     * @param decisionId the id of the evaluated decision
+     * @param ruleCount the number of rules of the decision table
+     * @param matchedRules the numbers of the matched rules, starting with 1, in the order of the rules
+     * @param nanos the duration of resolving the input expressions and matching the rules
+     */
+    default void rulesMatched(String decisionId, int ruleCount, List<Integer> matchedRules, long nanos) {
+    }
+
+    /**
+     * Called when the outputs of the matched rules were mapped to the result type.
+     * @param decisionId the id of the evaluated decision
+     * @param nanos the duration of mapping the outputs of all matched rules
+     */
+    default void resultMapped(String decisionId, long nanos) {
+    }
+
+    /**
+     * Called when {@link DecisionService#evaluateDecision(String, Object, Class)} evaluated a decision, including
+     * evaluations whose result was taken from the result cache. Failed evaluations are not reported. Each decision that
+     * is evaluated by {@link DecisionService#evaluateDecisionGraph(Collection, Object, Class)} is reported once, and so
+     * is each call of {@link DecisionService#evaluateColumns(String, ColumnarInput, Class)}, with the duration of all rows.
+     * @param decisionId the id of the evaluated decision
+     * @param nanos the duration of the whole evaluation
+     */
+    default void decisionEvaluated(String decisionId, long nanos) {
+    }
+
+}
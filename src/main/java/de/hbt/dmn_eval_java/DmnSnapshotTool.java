@@ -0,0 +1,69 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Creates snapshots of parsed DMN definitions at build time, see {@link DecisionServiceConfiguration#getSnapshotDirectory()}.
+ * Usage:
+ * <pre>
+ * java -cp ... de.hbt.dmn_eval_java.DmnSnapshotTool &lt;snapshot directory&gt; &lt;DMN file or directory&gt;...
+ * </pre>
+ * Directories are searched recursively for files with the extension <code>.dmn</code>. The tool fails if any of the DMN
+ * files cannot be parsed.
+ */
+public final class DmnSnapshotTool {
+
+    private DmnSnapshotTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: DmnSnapshotTool <snapshot directory> <DMN file or directory>...");
+            System.exit(2);
+        }
+        List<Path> dmnFiles = new ArrayList<>();
+        for (int i = 1; i < args.length; ++i) {
+            dmnFiles.addAll(findDmnFiles(Paths.get(args[i])));
+        }
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setSnapshotDirectory(args[0]);
+        configuration.setEnginePoolSize(Math.max(1, Math.min(dmnFiles.size(), Runtime.getRuntime().availableProcessors())));
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            // registrations are not limited by the queue capacity of asynchronous evaluations, so all files are submitted at once
+            List<CompletableFuture<List<Decision>>> registrations = new ArrayList<>();
+            for (Path dmnFile: dmnFiles) {
+                registrations.add(decisionService.registerDefinitions(dmnFile));
+            }
+            CompletableFuture.allOf(registrations.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            System.err.println("Failed to create snapshots: " + e.getCause().getMessage());
+            System.exit(1);
+        }
+        System.out.println("Created snapshots of " + dmnFiles.size() + " DMN files in '" + args[0] + "'.");
+    }
+
+    private static List<Path> findDmnFiles(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            return files.filter((file) -> Files.isRegularFile(file) && file.getFileName().toString().endsWith(".dmn"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+}
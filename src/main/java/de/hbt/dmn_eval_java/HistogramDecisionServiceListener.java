@@ -0,0 +1,114 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the durations reported to a {@link DecisionServiceListener} in a {@link LatencyHistogram} per decision
+ * and phase, e.g. to export the median and the 99th percentile of the evaluation time of each decision:
+ * <pre>
+ * HistogramDecisionServiceListener histograms = new HistogramDecisionServiceListener();
+ * configuration.setListeners(Collections.singletonList(histograms));
+ * ...
+ * long p99 = histograms.getHistogram("approveLoan", HistogramDecisionServiceListener.Phase.EVALUATION).getValueAtPercentile(99.0);
+ * </pre>
+ */
+public class HistogramDecisionServiceListener implements DecisionServiceListener {
+
+    /**
+     * The phases whose durations are recorded.
+     */
+    public enum Phase {
+        /** Parsing the DMN definition of the decision, see {@link DecisionServiceListener#definitionsParsed(Collection, long, boolean)} */
+        PARSING,
+        /** Converting an input, see {@link DecisionServiceListener#inputWrapped(String, long)} */
+        INPUT_WRAPPING,
+        /**
+         * Evaluating an input by the script engine, see {@link DecisionServiceListener#engineCalled(String, int, long)}.
+         * The duration of a call that evaluated a batch of inputs is divided by the number of inputs.
+         */
+        ENGINE_CALL,
+        /** Matching the rules without script engine, see {@link DecisionServiceListener#rulesMatched(String, int, List, long)} */
+        RULE_MATCHING,
+        /** Mapping the results, see {@link DecisionServiceListener#resultMapped(String, long)} */
+        RESULT_MAPPING,
+        /** The whole evaluation, see {@link DecisionServiceListener#decisionEvaluated(String, long)} */
+        EVALUATION
+    }
+
+    private final Map<String, Map<Phase, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the histogram of the given phase of the given decision.
+     * @param decisionId the id of the decision
+     * @param phase the phase
+     * @return the histogram, or <code>null</code> if no duration was reported for the decision yet
+     */
+    public LatencyHistogram getHistogram(String decisionId, Phase phase) {
+        Map<Phase, LatencyHistogram> decisionHistograms = histograms.get(decisionId);
+        return (decisionHistograms != null)? decisionHistograms.get(phase) : null;
+    }
+
+    /**
+     * Returns the ids of the decisions for which durations were reported.
+     * @return the ids of the decisions
+     */
+    public Set<String> getDecisionIds() {
+        return Collections.unmodifiableSet(histograms.keySet());
+    }
+
+    private void record(String decisionId, Phase phase, long nanos) {
+        histograms.computeIfAbsent(decisionId, (id) -> {
+            // all histograms of a decision are created at once, so the map is never modified afterwards
+            Map<Phase, LatencyHistogram> decisionHistograms = new EnumMap<>(Phase.class);
+            for (Phase histogramPhase: Phase.values()) {
+                decisionHistograms.put(histogramPhase, new LatencyHistogram());
+            }
+            return decisionHistograms;
+        }).get(phase).record(nanos);
+    }
+
+    @Override
+    public void definitionsParsed(Collection<String> decisionIds, long nanos, boolean restoredFromSnapshot) {
+        for (String decisionId: decisionIds) {
+            record(decisionId, Phase.PARSING, nanos);
+        }
+    }
+
+    @Override
+    public void inputWrapped(String decisionId, long nanos) {
+        record(decisionId, Phase.INPUT_WRAPPING, nanos);
+    }
+
+    @Override
+    public void engineCalled(String decisionId, int inputCount, long nanos) {
+        if (inputCount > 0) {
+            record(decisionId, Phase.ENGINE_CALL, nanos / inputCount);
+        }
+    }
+
+    @Override
+    public void rulesMatched(String decisionId, int ruleCount, List<Integer> matchedRules, long nanos) {
+        record(decisionId, Phase.RULE_MATCHING, nanos);
+    }
+
+    @Override
+    public void resultMapped(String decisionId, long nanos) {
+        record(decisionId, Phase.RESULT_MAPPING, nanos);
+    }
+
+    @Override
+    public void decisionEvaluated(String decisionId, long nanos) {
+        record(decisionId, Phase.EVALUATION, nanos);
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations in nanoseconds in buckets of logarithmically increasing width, to report percentiles like
+ * the median or the 99th percentile. Durations below 64 nanoseconds are counted exactly, longer durations in
+ * buckets that are at most 1/32 of their lower bound wide, so the reported percentiles exceed the recorded
+ * durations by at most about 3%.
+ * <p>
+ * Recording a duration takes constant time and never blocks, so histograms can be shared by any number of threads.
+ * Percentiles read while durations are recorded may not include the latest durations.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a duration. Negative durations are recorded as 0.
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+        counts.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     * @return the longest duration in nanoseconds, or 0 if no duration was recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded durations.
+     * @return the mean duration in nanoseconds, or 0 if no duration was recorded
+     */
+    public double getMean() {
+        long currentCount = count.get();
+        return (currentCount == 0L)? 0.0 : (double) sum.get() / currentCount;
+    }
+
+    /**
+     * Returns the duration that is not exceeded by the given percentage of the recorded durations, e.g. 50 for the
+     * median or 99 for the 99th percentile.
+     * @param percentile the percentage of durations, from 0 to 100
+     * @return the upper bound of the bucket of the percentile in nanoseconds, at most the longest duration, or 0 if
+     * no duration was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if ((percentile < 0.0) || (percentile > 100.0)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long totalCount = 0L;
+        long[] bucketCounts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            bucketCounts[i] = counts.get(i);
+            totalCount += bucketCounts[i];
+        }
+        if (totalCount == 0L) {
+            return 0L;
+        }
+        long rank = Math.max((long) Math.ceil(percentile / 100.0 * totalCount), 1L);
+        long currentCount = 0L;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            currentCount += bucketCounts[i];
+            if (currentCount >= rank) {
+                return Math.min(bucketUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        // the value without its lowest bits is between SUB_BUCKET_COUNT and 2 * SUB_BUCKET_COUNT - 1
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return getCount() + " duration(s), p50 " + getValueAtPercentile(50.0) + " ns, p99 " + getValueAtPercentile(99.0) +
+                " ns, max " + getMax() + " ns";
+    }
+
+}
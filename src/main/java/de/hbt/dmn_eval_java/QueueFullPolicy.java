@@ -0,0 +1,27 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java;
+
+/**
+ * Defines what happens to an asynchronous evaluation if the queue of pending asynchronous evaluations is full,
+ * see {@link DecisionServiceConfiguration#getAsyncQueueFullPolicy()}.
+ */
+public enum QueueFullPolicy {
+
+    /**
+     * The returned future fails with a {@link DecisionEvaluationException}.
+     */
+    REJECT,
+
+    /**
+     * The decision is evaluated by the calling thread, so the caller is slowed down until the queue drains.
+     */
+    CALLER_RUNS,
+
+    /**
+     * The calling thread waits until there is free space in the queue.
+     */
+    BLOCK
+}
@@ -0,0 +1,54 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java;
+
+/**
+ * Reports how often the results of a decision were taken from the result cache, see
+ * {@link DecisionServiceConfiguration#getResultCacheSize()}. The statistics cover the evaluations since the decision
+ * was registered the last time, because registering a decision again starts with an empty cache.
+ */
+public class ResultCacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final int size;
+
+    ResultCacheStatistics(long hits, long misses, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of evaluations whose result was taken from the cache.
+     * @return the number of cache hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of evaluations whose result was not cached yet. Evaluations with inputs that are never cached,
+     * e.g. because an input expression resolves to a Java function, are not counted.
+     * @return the number of cache misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of cached results.
+     * @return the size of the cache
+     */
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return hits + " hit(s), " + misses + " miss(es), " + size + " cached result(s)";
+    }
+
+}
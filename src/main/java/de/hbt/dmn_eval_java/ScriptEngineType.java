@@ -0,0 +1,22 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java;
+
+/**
+ * The Javascript engine that runs dmn-eval-js, see {@link DecisionServiceConfiguration#getScriptEngineType()}.
+ */
+public enum ScriptEngineType {
+
+    /**
+     * Nashorn, which is part of the JDK up to Java 14.
+     */
+    NASHORN,
+
+    /**
+     * GraalJS, which runs on any JDK from Java 8 on, and compiles the scripts to machine code on GraalVM. It requires
+     * the artifact <code>org.graalvm.js:js</code> on the classpath.
+     */
+    GRAALJS
+}
@@ -0,0 +1,64 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java;
+
+/**
+ * Reports how long it took to start a {@link DecisionService}, split into its phases. Compiling the dmn-eval-js scripts
+ * happens only once per JVM, so a decision service that is started after another one reports a compile time of zero.
+ * Evaluating the compiled scripts happens once for each script engine that is bootstrapped at startup.
+ */
+public class StartupMetrics {
+
+    private final long scriptCompilationNanos;
+    private final long scriptEvaluationNanos;
+    private final int bootstrappedEngines;
+    private final long totalNanos;
+
+    StartupMetrics(long scriptCompilationNanos, long scriptEvaluationNanos, int bootstrappedEngines, long totalNanos) {
+        this.scriptCompilationNanos = scriptCompilationNanos;
+        this.scriptEvaluationNanos = scriptEvaluationNanos;
+        this.bootstrappedEngines = bootstrappedEngines;
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * Returns the time spent compiling the dmn-eval-js scripts, or zero if the compiled scripts were already available.
+     * @return the compile time in nanoseconds
+     */
+    public long getScriptCompilationNanos() {
+        return scriptCompilationNanos;
+    }
+
+    /**
+     * Returns the time spent evaluating the compiled scripts for all script engines that were bootstrapped at startup.
+     * @return the evaluation time in nanoseconds
+     */
+    public long getScriptEvaluationNanos() {
+        return scriptEvaluationNanos;
+    }
+
+    /**
+     * Returns the number of script engines that were bootstrapped at startup.
+     * @return the number of script engines
+     */
+    public int getBootstrappedEngines() {
+        return bootstrappedEngines;
+    }
+
+    /**
+     * Returns the total time it took to start the decision service.
+     * @return the startup time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "compiling scripts took " + (scriptCompilationNanos / 1E9) + " seconds, evaluating scripts for "
+                + bootstrappedEngines + " script engine(s) took " + (scriptEvaluationNanos / 1E9) + " seconds";
+    }
+
+}
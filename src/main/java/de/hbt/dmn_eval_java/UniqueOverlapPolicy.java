@@ -0,0 +1,27 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java;
+
+/**
+ * Defines what happens when a decision table with hit policy UNIQUE is registered whose rules overlap, so that its
+ * evaluation fails for some inputs, see {@link DecisionServiceConfiguration#getUniqueOverlapPolicy()}.
+ */
+public enum UniqueOverlapPolicy {
+
+    /**
+     * The rules are not checked for overlaps.
+     */
+    IGNORE,
+
+    /**
+     * A warning with the overlapping rules and an example input that they both match is logged.
+     */
+    WARN,
+
+    /**
+     * The registration fails with a {@link DecisionRegistrationException} that names the overlapping rules.
+     */
+    FAIL
+}
@@ -0,0 +1,115 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.DecisionEvaluationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The requirements between the decisions of a DMN definition, planned once when the DMN definition is registered.
+ * <p>
+ * dmn-eval-js evaluates the required decisions of a decision depth-first, one after another, and merges their results
+ * into the context of the decision in this order. The graph tells which decisions can be evaluated independently of
+ * each other, and in which order the results of the required decisions of a decision must be merged, so that each
+ * decision can be evaluated on its own, and each required decision only once for any number of decisions.
+ */
+public final class DecisionGraph {
+
+    private final Map<String, List<String>> requiredDecisions;
+    private final Map<String, List<String>> mergeOrders = new HashMap<>();
+
+    /**
+     * Plans the graph of the given decisions.
+     * @param requiredDecisions the ids of the required decisions of each decision of the DMN definition, in the order
+     *                          of the DMN definition
+     * @throws IllegalArgumentException thrown if decisions require each other
+     */
+    public DecisionGraph(Map<String, List<String>> requiredDecisions) {
+        this.requiredDecisions = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry: requiredDecisions.entrySet()) {
+            this.requiredDecisions.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        }
+        for (String decisionId: this.requiredDecisions.keySet()) {
+            List<String> mergeOrder = new ArrayList<>();
+            addRequiredDecisions(decisionId, new LinkedHashSet<>(), new HashSet<>(), mergeOrder);
+            mergeOrders.put(decisionId, Collections.unmodifiableList(mergeOrder));
+        }
+    }
+
+    private void addRequiredDecisions(String decisionId, Set<String> path, Set<String> visited, List<String> order) {
+        if (!path.add(decisionId)) {
+            throw new IllegalArgumentException("The decisions " + path + " require each other.");
+        }
+        for (String requiredDecision: requiredDecisions.getOrDefault(decisionId, Collections.emptyList())) {
+            // like dmn-eval-js, evaluate each decision only once
+            if (visited.add(requiredDecision)) {
+                addRequiredDecisions(requiredDecision, path, visited, order);
+                order.add(requiredDecision);
+            }
+        }
+        path.remove(decisionId);
+    }
+
+    /**
+     * Returns whether the given decision is part of the graph.
+     * @param decisionId the id of the decision
+     * @return true if the DMN definition contains the decision
+     */
+    public boolean contains(String decisionId) {
+        return requiredDecisions.containsKey(decisionId);
+    }
+
+    /**
+     * Returns the decisions that the given decision requires directly.
+     * @param decisionId the id of the decision
+     * @return the ids of the required decisions
+     */
+    public List<String> getRequiredDecisions(String decisionId) {
+        return requiredDecisions.getOrDefault(decisionId, Collections.emptyList());
+    }
+
+    /**
+     * Returns all decisions that the given decision requires directly or indirectly, in the order in which
+     * dmn-eval-js evaluates them and merges their results into the context of the decision.
+     * @param decisionId the id of the decision
+     * @return the ids of the required decisions
+     */
+    public List<String> getMergeOrder(String decisionId) {
+        return mergeOrders.getOrDefault(decisionId, Collections.emptyList());
+    }
+
+    /**
+     * Returns the given decisions and all decisions they require, each once, in an order in which every decision
+     * follows the decisions it requires.
+     * @param decisionIds the ids of the decisions
+     * @return the ids of the decisions to evaluate
+     * @throws DecisionEvaluationException thrown if a decision is not contained in the DMN definition
+     */
+    public List<String> getEvaluationOrder(Collection<String> decisionIds) {
+        Set<String> evaluationOrder = new LinkedHashSet<>();
+        for (String decisionId: decisionIds) {
+            for (String requiredDecision: getMergeOrder(decisionId)) {
+                if (!contains(requiredDecision)) {
+                    throw new DecisionEvaluationException("No such decision '" + requiredDecision + "', which is required by decision '"
+                            + decisionId + "'.");
+                }
+                evaluationOrder.add(requiredDecision);
+            }
+            evaluationOrder.add(decisionId);
+        }
+        return new ArrayList<>(evaluationOrder);
+    }
+
+}
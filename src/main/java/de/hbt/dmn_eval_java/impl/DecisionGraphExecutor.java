@@ -0,0 +1,118 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Evaluates the decisions of a {@link DecisionGraph}, each once, and as many decisions in parallel as there are
+ * threads. A decision is evaluated as soon as all of its required decisions are evaluated, so decisions that do not
+ * depend on each other are evaluated in parallel. The threads only evaluate decisions whose required decisions were
+ * evaluated already, so they never wait for each other.
+ */
+public final class DecisionGraphExecutor {
+
+    private static final AtomicInteger executorCount = new AtomicInteger();
+
+    private final ExecutorService executor;
+
+    /**
+     * Creates an executor with the given number of threads.
+     * @param threads the number of threads, if it is 1, the decisions are evaluated by the calling thread one after another
+     */
+    public DecisionGraphExecutor(int threads) {
+        if (threads > 1) {
+            int executorNumber = executorCount.incrementAndGet();
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, (runnable) -> {
+                Thread thread = new Thread(runnable, "dmn-eval-java-" + executorNumber + "-drg-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            executor = null;
+        }
+    }
+
+    /**
+     * Evaluates the given decisions and all decisions they require, and waits until they are evaluated.
+     * @param decisionGraph the graph of the decisions
+     * @param decisionIds the ids of the decisions whose results are returned
+     * @param evaluation evaluates the decision with the given id, given the results of all decisions it requires directly
+     *                   or indirectly, in the {@linkplain DecisionGraph#getMergeOrder(String) order in which they are merged}
+     * @param <R> the type of the results
+     * @return the results of the given decisions, in the order of the given decision ids
+     * @throws RuntimeException the exception that was thrown by the evaluation of a decision
+     */
+    public <R> Map<String, R> evaluate(DecisionGraph decisionGraph, Collection<String> decisionIds, BiFunction<String, List<R>, R> evaluation) {
+        List<String> evaluationOrder = decisionGraph.getEvaluationOrder(decisionIds);
+        Map<String, R> results = new LinkedHashMap<>();
+        if (executor == null) {
+            for (String decisionId: evaluationOrder) {
+                List<R> requiredResults = new ArrayList<>();
+                for (String requiredDecision: decisionGraph.getMergeOrder(decisionId)) {
+                    requiredResults.add(results.get(requiredDecision));
+                }
+                results.put(decisionId, evaluation.apply(decisionId, requiredResults));
+            }
+        } else {
+            Map<String, CompletableFuture<R>> futures = new HashMap<>();
+            for (String decisionId: evaluationOrder) {
+                List<CompletableFuture<R>> requiredFutures = new ArrayList<>();
+                for (String requiredDecision: decisionGraph.getRequiredDecisions(decisionId)) {
+                    requiredFutures.add(futures.get(requiredDecision));
+                }
+                // the decisions are evaluated in topological order, so the futures of all required decisions exist already
+                List<CompletableFuture<R>> mergedFutures = new ArrayList<>();
+                for (String requiredDecision: decisionGraph.getMergeOrder(decisionId)) {
+                    mergedFutures.add(futures.get(requiredDecision));
+                }
+                futures.put(decisionId, CompletableFuture.allOf(requiredFutures.toArray(new CompletableFuture<?>[0])).thenApplyAsync((ignored) -> {
+                    List<R> requiredResults = new ArrayList<>();
+                    for (CompletableFuture<R> mergedFuture: mergedFutures) {
+                        requiredResults.add(mergedFuture.join());
+                    }
+                    return evaluation.apply(decisionId, requiredResults);
+                }, executor));
+            }
+            for (String decisionId: evaluationOrder) {
+                try {
+                    results.put(decisionId, futures.get(decisionId).join());
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+        }
+        Map<String, R> requestedResults = new LinkedHashMap<>();
+        for (String decisionId: decisionIds) {
+            requestedResults.put(decisionId, results.get(decisionId));
+        }
+        return requestedResults;
+    }
+
+    /**
+     * Stops the threads of the executor.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,200 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.HitPolicy;
+import de.hbt.dmn_eval_java.impl.compiler.FeelValues;
+import de.hbt.dmn_eval_java.impl.compiler.InputExpression;
+import de.hbt.dmn_eval_java.impl.compiler.ScriptObjects;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the results of a decision by the resolved values of its input expressions. A decision can only be cached if
+ * its result depends on nothing but these values, see
+ * {@link de.hbt.dmn_eval_java.impl.compiler.DecisionTableCompiler#compileInputExpressions(Object)}.
+ * <p>
+ * The cache holds at most the given number of results, and evicts the least recently used result if it is full.
+ * Optionally, results expire a given time after they were cached. Inputs whose input expressions resolve to other
+ * values than strings, numbers, and booleans, e.g. to Java functions, are never cached.
+ * <p>
+ * The cache belongs to a single registration of a decision, so registering the decision again starts with an empty cache.
+ */
+public final class DecisionResultCache {
+
+    private final InputExpression[] inputExpressions;
+    private final int maxSize;
+    private final long timeToLiveNanos;
+    private final Map<List<Object>, CachedResult> cachedResults;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates an empty cache.
+     * @param inputExpressions the compiled input expressions of the decision
+     * @param maxSize the maximum number of cached results
+     * @param timeToLiveMillis the time after which a cached result expires, or a negative value if results never expire
+     */
+    public DecisionResultCache(InputExpression[] inputExpressions, int maxSize, long timeToLiveMillis) {
+        this.inputExpressions = inputExpressions;
+        this.maxSize = maxSize;
+        this.timeToLiveNanos = (timeToLiveMillis < 0L)? -1L : timeToLiveMillis * 1000000L;
+        this.cachedResults = new LinkedHashMap<List<Object>, CachedResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedResult> eldest) {
+                return size() > DecisionResultCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Creates the key of the given decision input, which consists of the resolved values of the input expressions.
+     * @param input the decision input
+     * @return the key, or <code>null</code> if the result for the input must not be cached
+     */
+    public List<Object> createKey(Object input) {
+        if (!(input instanceof Map) && !InputObjectWrapper.isObject(input)) {
+            return null;
+        }
+        Object[] values = new Object[inputExpressions.length];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = inputExpressions[i].resolve(input);
+            if (!isKeyValue(values[i])) {
+                return null;
+            }
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Creates the key for the given resolved values of the input expressions, like {@link #createKey(Object)}.
+     * @param values the resolved values, one for each input expression, which are copied into the key
+     * @return the key, or <code>null</code> if the result for the values must not be cached
+     */
+    public List<Object> createKeyFromValues(Object[] values) {
+        for (Object value: values) {
+            if (!isKeyValue(value)) {
+                return null;
+            }
+        }
+        return Arrays.asList(values.clone());
+    }
+
+    private static boolean isKeyValue(Object value) {
+        // only immutable values, whose equality is the equality for dmn-eval-js
+        return (value == FeelValues.UNDEFINED) || (value instanceof String) || (value instanceof Boolean)
+                || (value instanceof Integer) || (value instanceof Long) || (value instanceof Short) || (value instanceof Byte)
+                || (value instanceof Double) || (value instanceof Float) || (value instanceof BigDecimal) || (value instanceof BigInteger);
+    }
+
+    /**
+     * Returns the cached result for the given key.
+     * @param key the key of the decision input
+     * @return the result objects, or <code>null</code> if no result is cached for the key
+     */
+    public List<Map<String, Object>> get(List<Object> key) {
+        CachedResult cachedResult;
+        synchronized (cachedResults) {
+            cachedResult = cachedResults.get(key);
+            if ((cachedResult != null) && (timeToLiveNanos >= 0L) && (System.nanoTime() - cachedResult.cachedAt > timeToLiveNanos)) {
+                cachedResults.remove(key);
+                cachedResult = null;
+            }
+        }
+        if (cachedResult == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return cachedResult.resultObjects;
+    }
+
+    /**
+     * Caches the result for the given key.
+     * @param key the key of the decision input
+     * @param resultObjects the result objects, which must not be modified afterwards
+     */
+    public void put(List<Object> key, List<Map<String, Object>> resultObjects) {
+        CachedResult cachedResult = new CachedResult(Collections.unmodifiableList(resultObjects), System.nanoTime());
+        synchronized (cachedResults) {
+            cachedResults.put(key, cachedResult);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of cached results, including expired results that were not evicted yet.
+     * @return the number of cached results
+     */
+    public int size() {
+        synchronized (cachedResults) {
+            return cachedResults.size();
+        }
+    }
+
+    /**
+     * Copies the result of dmn-eval-js into plain Java objects, so that it can be cached. This must be called by
+     * the thread that currently uses the script engine of the result.
+     * @param scriptResult the result of dmn-eval-js
+     * @param hitPolicy the hit policy of the decision
+     * @return the result objects, like {@link de.hbt.dmn_eval_java.impl.compiler.CompiledDecision#evaluate(Object)} returns them
+     */
+    public static List<Map<String, Object>> toResultObjects(Object scriptResult, HitPolicy hitPolicy) {
+        List<Map<String, Object>> resultObjects = new ArrayList<>();
+        if ((hitPolicy == HitPolicy.FIRST) || (hitPolicy == HitPolicy.UNIQUE)) {
+            if (!((Map<?, ?>) scriptResult).isEmpty()) {
+                resultObjects.add(toResultObject((Map<?, ?>) scriptResult));
+            }
+        } else {
+            for (Object scriptObject: ScriptObjects.toList(scriptResult)) {
+                resultObjects.add(toResultObject((Map<?, ?>) scriptObject));
+            }
+        }
+        return resultObjects;
+    }
+
+    private static Map<String, Object> toResultObject(Map<?, ?> scriptObject) {
+        Map<String, Object> resultObject = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry: scriptObject.entrySet()) {
+            Object value = entry.getValue();
+            if (ScriptObjects.isUndefined(value)) {
+                value = null;
+            } else if (value instanceof Map) {
+                // the outputs are constants, so nested objects stem from output names like "output.property"
+                value = toResultObject((Map<?, ?>) value);
+            }
+            resultObject.put(String.valueOf(entry.getKey()), value);
+        }
+        return Collections.unmodifiableMap(resultObject);
+    }
+
+    private static final class CachedResult {
+
+        private final List<Map<String, Object>> resultObjects;
+        private final long cachedAt;
+
+        private CachedResult(List<Map<String, Object>> resultObjects, long cachedAt) {
+            this.resultObjects = resultObjects;
+            this.cachedAt = cachedAt;
+        }
+
+    }
+
+}
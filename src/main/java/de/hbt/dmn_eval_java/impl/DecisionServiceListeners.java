@@ -0,0 +1,82 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.DecisionServiceListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Notifies all configured {@link DecisionServiceListener}s. An exception thrown by a listener is logged, and the
+ * other listeners are notified nevertheless.
+ */
+public final class DecisionServiceListeners implements DecisionServiceListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecisionServiceListeners.class);
+
+    private final DecisionServiceListener[] listeners;
+
+    private DecisionServiceListeners(List<DecisionServiceListener> listeners) {
+        this.listeners = listeners.toArray(new DecisionServiceListener[0]);
+    }
+
+    /**
+     * Returns a listener that notifies the given listeners.
+     * @param listeners the listeners, may be <code>null</code>
+     * @return the listener, or <code>null</code> if there are no listeners, so that the decision service can skip measuring
+     */
+    public static DecisionServiceListener of(List<DecisionServiceListener> listeners) {
+        if ((listeners == null) || listeners.isEmpty()) {
+            return null;
+        }
+        return new DecisionServiceListeners(new ArrayList<>(listeners));
+    }
+
+    private void notifyListeners(Consumer<DecisionServiceListener> notification) {
+        for (DecisionServiceListener listener: listeners) {
+            try {
+                notification.accept(listener);
+            } catch (RuntimeException e) {
+                logger.warn("Decision service listener {} failed.", listener, e);
+            }
+        }
+    }
+
+    @Override
+    public void definitionsParsed(Collection<String> decisionIds, long nanos, boolean restoredFromSnapshot) {
+        notifyListeners((listener) -> listener.definitionsParsed(decisionIds, nanos, restoredFromSnapshot));
+    }
+
+    @Override
+    public void inputWrapped(String decisionId, long nanos) {
+        notifyListeners((listener) -> listener.inputWrapped(decisionId, nanos));
+    }
+
+    @Override
+    public void engineCalled(String decisionId, int inputCount, long nanos) {
+        notifyListeners((listener) -> listener.engineCalled(decisionId, inputCount, nanos));
+    }
+
+    @Override
+    public void rulesMatched(String decisionId, int ruleCount, List<Integer> matchedRules, long nanos) {
+        notifyListeners((listener) -> listener.rulesMatched(decisionId, ruleCount, matchedRules, nanos));
+    }
+
+    @Override
+    public void resultMapped(String decisionId, long nanos) {
+        notifyListeners((listener) -> listener.resultMapped(decisionId, nanos));
+    }
+
+    @Override
+    public void decisionEvaluated(String decisionId, long nanos) {
+        notifyListeners((listener) -> listener.decisionEvaluated(decisionId, nanos));
+    }
+
+}
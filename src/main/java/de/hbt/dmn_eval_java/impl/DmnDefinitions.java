@@ -0,0 +1,65 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+/**
+ * The XML content of a DMN definition, shared by the registrations of all decisions that it contains. Each script
+ * engine of the pool parses a DMN definition only once, no matter how many of its decisions were registered.
+ * Each registration of a DMN file is a new instance with a new version, so script engines detect that the file was
+ * registered again by comparing the instances.
+ */
+public final class DmnDefinitions {
+
+    private final String dmnXml;
+    private final String snapshot;
+    private final String source;
+    private final long version;
+
+    /**
+     * Creates the DMN definition.
+     * @param dmnXml the XML content of the DMN definition
+     * @param snapshot the snapshot of the parsed DMN definition, or <code>null</code> if the DMN definition must be parsed
+     * @param source the normalized path of the DMN file, or <code>null</code> if the DMN definition was not loaded from a file
+     * @param version the version of the registration
+     */
+    public DmnDefinitions(String dmnXml, String snapshot, String source, long version) {
+        this.dmnXml = dmnXml;
+        this.snapshot = snapshot;
+        this.source = source;
+        this.version = version;
+    }
+
+    public String getDmnXml() {
+        return dmnXml;
+    }
+
+    /**
+     * Returns the snapshot of the parsed DMN definition, from which script engines restore the DMN definition instead of
+     * parsing the XML content, see {@link DmnSnapshotStore}.
+     * @return the snapshot, or <code>null</code>
+     */
+    public String getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns where the DMN definition was loaded from. All decisions of a DMN file are replaced when the file
+     * is registered again.
+     * @return the normalized path of the DMN file, or <code>null</code>
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the version of the registration, which is higher than that of any earlier registration with the
+     * decision service.
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.DecisionEvaluationException;
+import de.hbt.dmn_eval_java.DecisionServiceInstantiationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * A bootstrapped instance of the embedded dmn-eval-js engine. It consists of a {@linkplain DmnEvalJsContext global scope}
+ * in which the compiled dmn-eval-js scripts were evaluated, and the DMN definitions that were parsed in that global scope.
+ * An instance must only be used by one thread at a time.
+ */
+public class DmnEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(DmnEngine.class);
+
+    private final DmnEvalJsContext dmnEvalJsContext;
+    private final DmnEvalJsWrapper dmnEvalJsWrapper;
+    private final long bootstrapNanos;
+
+    // DMN definitions that are not registered anymore are dropped by the garbage collector
+    private final Map<DmnDefinitions, Object> parsedDmnDefinitions = new WeakHashMap<>();
+
+    /**
+     * Bootstraps a new script engine by evaluating the compiled dmn-eval-js scripts of the given runtime in a new global scope.
+     * @param dmnEvalJsRuntime the runtime with the compiled scripts
+     * @param dmnEvalJsLogger the logger for the log messages of dmn-eval-js
+     * @throws DecisionServiceInstantiationException thrown if the script engine could not be initialized properly
+     */
+    public DmnEngine(DmnEvalJsRuntime dmnEvalJsRuntime, DmnEvalJsLogger dmnEvalJsLogger) {
+        long startTime = System.nanoTime();
+        dmnEvalJsContext = dmnEvalJsRuntime.createContext(dmnEvalJsLogger);
+        dmnEvalJsWrapper = dmnEvalJsContext.getDmnEvalJsWrapper();
+        bootstrapNanos = System.nanoTime() - startTime;
+        logger.debug("Script engine bootstrapped in {} seconds.", bootstrapNanos / 1E9);
+    }
+
+    /**
+     * Returns the time it took to bootstrap this engine, i.e. to evaluate the compiled scripts.
+     * @return the bootstrap time in nanoseconds
+     */
+    public long getBootstrapNanos() {
+        return bootstrapNanos;
+    }
+
+    public DmnEvalJsWrapper getDmnEvalJsWrapper() {
+        return dmnEvalJsWrapper;
+    }
+
+    public DmnEvalJsContext getDmnEvalJsContext() {
+        return dmnEvalJsContext;
+    }
+
+    /**
+     * Converts the given value of this script engine deeply into plain Java objects, see {@link DmnEvalJsContext#toJava(Object)}.
+     * @param value the value, as returned by the wrapper of dmn-eval-js
+     * @return the converted value
+     */
+    public Object toJava(Object value) {
+        return dmnEvalJsContext.toJava(value);
+    }
+
+    /**
+     * Releases the global scope of this script engine. The engine must not be used anymore afterwards.
+     */
+    public void close() {
+        parsedDmnDefinitions.clear();
+        dmnEvalJsContext.close();
+    }
+
+    /**
+     * Stores the DMN definition that was parsed by this script engine.
+     * @param dmnDefinitions the registered DMN definition
+     * @param parsedDmnDefinition the DMN definition as parsed by this script engine
+     */
+    public void putParsedDmnDefinition(DmnDefinitions dmnDefinitions, Object parsedDmnDefinition) {
+        parsedDmnDefinitions.put(dmnDefinitions, parsedDmnDefinition);
+    }
+
+    /**
+     * Returns the DMN definition that contains the given decision as parsed by this script engine. If the DMN definition
+     * was registered with another script engine of the pool, or if it was registered again in the meantime,
+     * it is parsed by this script engine first, so the first evaluation of a decision by each engine of a pool takes
+     * as long as its registration.
+     * @param registeredDmnDefinition the registration of the decision
+     * @return the parsed DMN definition
+     * @throws DecisionEvaluationException thrown if the DMN definition could not be parsed
+     */
+    public Object getParsedDmnDefinition(RegisteredDmnDefinition registeredDmnDefinition) {
+        DmnDefinitions dmnDefinitions = registeredDmnDefinition.getDmnDefinitions();
+        Object parsedDmnDefinition = parsedDmnDefinitions.get(dmnDefinitions);
+        if (parsedDmnDefinition == null) {
+            logger.debug("Replicating DMN definition for decision '{}' to script engine...", registeredDmnDefinition.getDecisionId());
+            parsedDmnDefinition = parseDmnDefinition(registeredDmnDefinition);
+            putParsedDmnDefinition(dmnDefinitions, parsedDmnDefinition);
+        }
+        return parsedDmnDefinition;
+    }
+
+    private Object parseDmnDefinition(RegisteredDmnDefinition registeredDmnDefinition) {
+        String decisionId = registeredDmnDefinition.getDecisionId();
+        String snapshot = registeredDmnDefinition.getDmnDefinitions().getSnapshot();
+        if (snapshot != null) {
+            try {
+                return dmnEvalJsWrapper.deserializeDmnDefinition(snapshot);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to restore DMN definition for decision '{}' from snapshot, parsing it instead.", decisionId, e);
+            }
+        }
+        PromiseFuture<Object> result = new PromiseFuture<>(dmnEvalJsWrapper.parseDmnXml(registeredDmnDefinition.getDmnDefinitions().getDmnXml()), dmnEvalJsContext) {
+
+            protected Consumer<Object> resolve() {
+                return this::complete;
+            }
+
+            protected Consumer<Object> reject() {
+                return (error) -> this.completeExceptionally(new DecisionEvaluationException(
+                        "Failed to parse DMN definition for decision '" + decisionId + "': " + String.valueOf(error)));
+            }
+        };
+        result.handlePromise();
+        return getCompleted(result, decisionId);
+    }
+
+    private static Object getCompleted(CompletableFuture<Object> result, String decisionId) {
+        if (!result.isDone()) {
+            throw new DecisionEvaluationException("Parsing the DMN definition for decision '" + decisionId + "' did not complete.");
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw (DecisionEvaluationException) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DecisionEvaluationException("Interrupted while parsing the DMN definition for decision '" + decisionId + "'", e);
+        }
+    }
+
+}
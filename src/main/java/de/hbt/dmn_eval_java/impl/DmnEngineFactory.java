@@ -0,0 +1,63 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates the script engines for the engine pool of the decision service. All engines share the compiled scripts of the same runtime.
+ */
+public class DmnEngineFactory extends BasePooledObjectFactory<DmnEngine> {
+
+    private final DmnEvalJsRuntime dmnEvalJsRuntime;
+    private final DmnEvalJsLogger dmnEvalJsLogger;
+    private final AtomicInteger createdEngines = new AtomicInteger();
+    private final AtomicLong bootstrapNanos = new AtomicLong();
+
+    public DmnEngineFactory(DmnEvalJsRuntime dmnEvalJsRuntime) {
+        this.dmnEvalJsRuntime = dmnEvalJsRuntime;
+        this.dmnEvalJsLogger = new DmnEvalJsLogger();
+    }
+
+    @Override
+    public DmnEngine create() {
+        DmnEngine dmnEngine = new DmnEngine(dmnEvalJsRuntime, dmnEvalJsLogger);
+        createdEngines.incrementAndGet();
+        bootstrapNanos.addAndGet(dmnEngine.getBootstrapNanos());
+        return dmnEngine;
+    }
+
+    @Override
+    public PooledObject<DmnEngine> wrap(DmnEngine dmnEngine) {
+        return new DefaultPooledObject<>(dmnEngine);
+    }
+
+    @Override
+    public void destroyObject(PooledObject<DmnEngine> pooledEngine) {
+        pooledEngine.getObject().close();
+    }
+
+    /**
+     * Returns the number of engines that this factory created so far.
+     * @return the number of created engines
+     */
+    public int getCreatedEngines() {
+        return createdEngines.get();
+    }
+
+    /**
+     * Returns the total time it took to bootstrap the engines that this factory created so far.
+     * @return the total bootstrap time in nanoseconds
+     */
+    public long getBootstrapNanos() {
+        return bootstrapNanos.get();
+    }
+
+}
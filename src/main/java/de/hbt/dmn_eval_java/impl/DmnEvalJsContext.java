@@ -0,0 +1,46 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import java.util.function.Consumer;
+
+/**
+ * A global scope of a {@link DmnEvalJsRuntime} in which the dmn-eval-js scripts were run. The decision service only
+ * talks to dmn-eval-js through the {@link DmnEvalJsWrapper} of the global scope, whose results are either maps and lists
+ * of the script engine, like the <code>ScriptObjectMirror</code>s of Nashorn, or plain Java maps and lists.
+ * <p>
+ * A global scope must only be used by one thread at a time.
+ */
+public interface DmnEvalJsContext {
+
+    /**
+     * Returns the functions of dmn-eval-js that the decision service calls.
+     * @return the wrapper of dmn-eval-js
+     */
+    DmnEvalJsWrapper getDmnEvalJsWrapper();
+
+    /**
+     * Attaches the given handlers to the given Javascript promise, and processes the event loop of the global scope
+     * until it is empty. Afterwards, one of the handlers was usually called.
+     * @param promise the promise, as returned by the wrapper
+     * @param resolve the handler for the result of the promise
+     * @param reject the handler for the error of the promise
+     */
+    void handlePromise(Object promise, Consumer<Object> resolve, Consumer<Object> reject);
+
+    /**
+     * Converts the given value deeply into plain Java objects, like
+     * {@link de.hbt.dmn_eval_java.impl.compiler.ScriptObjects#toJava(Object)}.
+     * @param value the value, as returned by the wrapper
+     * @return the converted value
+     */
+    Object toJava(Object value);
+
+    /**
+     * Releases the resources of the global scope.
+     */
+    void close();
+
+}
@@ -0,0 +1,60 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the log messages of dmn-eval-js to the SLF4J logger "dmn-eval-js". When the scripts are compiled, each
+ * logging call of dmn-eval-js is prefixed with a check of the level, like
+ * <code>dmnEvalJsLogger.isInfoEnabled() &amp;&amp; dmnEvalJsLogger.info(...)</code>, so that messages are neither
+ * concatenated nor stringified if the level of the SLF4J logger is not enabled.
+ * <p>
+ * dmn-eval-js logs every evaluation at level info, and its own details at level debug. These messages are logged one
+ * level lower, at debug and trace, so that they stay below the usual threshold of an application. Warnings, like
+ * that no rule matched, and errors keep their level.
+ */
+public final class DmnEvalJsLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger("dmn-eval-js");
+
+    public boolean isDebugEnabled() {
+        return logger.isTraceEnabled();
+    }
+
+    public boolean isInfoEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    public boolean isWarnEnabled() {
+        return logger.isWarnEnabled();
+    }
+
+    public boolean isErrorEnabled() {
+        return logger.isErrorEnabled();
+    }
+
+    public void debug(Object message) {
+        logger.trace(String.valueOf(message));
+    }
+
+    public void info(Object message) {
+        logger.debug(String.valueOf(message));
+    }
+
+    public void warn(Object message) {
+        logger.warn(String.valueOf(message));
+    }
+
+    public void error(Object message) {
+        if (message instanceof Throwable) {
+            logger.error("dmn-eval-js failed.", (Throwable) message);
+        } else {
+            logger.error(String.valueOf(message));
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.DecisionServiceInstantiationException;
+
+/**
+ * A Javascript engine that runs the scripts of dmn-eval-js. The scripts are loaded and compiled once per runtime and
+ * shared by all {@link DmnEngine}s, each of which runs the scripts in a {@linkplain DmnEvalJsContext global scope} of its own.
+ * <p>
+ * There is a runtime for Nashorn, {@link DmnEvalJsScripts}, and one for GraalJS, {@link GraalJsScripts}.
+ */
+public interface DmnEvalJsRuntime {
+
+    /**
+     * Bootstraps a new global scope by running the compiled scripts in it.
+     * @param dmnEvalJsLogger the logger for the log messages of dmn-eval-js
+     * @return the new global scope
+     * @throws DecisionServiceInstantiationException thrown if a script failed
+     */
+    DmnEvalJsContext createContext(DmnEvalJsLogger dmnEvalJsLogger);
+
+    /**
+     * Returns the time it took to compile the scripts.
+     * @return the compile time in nanoseconds
+     */
+    long getCompileNanos();
+
+}
@@ -0,0 +1,241 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.DecisionServiceInstantiationException;
+import jdk.nashorn.api.scripting.NashornScriptEngineFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The scripts of the embedded dmn-eval-js engine, compiled once per JVM. All {@link DmnEngine}s share a single
+ * Nashorn script engine and its compiled scripts; each of them evaluates the scripts in a global scope of its own.
+ * This way, the 2 MB of Javascript are only parsed and compiled once, no matter how many script engines are bootstrapped.
+ * <p>
+ * The polyfills are the exception: Nashorn fails to run their compiled code in more than one global scope, so they
+ * are loaded once, but evaluated from source in each global scope. They are small, so this hardly matters.
+ * <p>
+ * Optionally, Nashorn can store the compiled code in a persistent code cache on disk, so that subsequent JVM starts can
+ * skip compiling the scripts as well.
+ * <p>
+ * Before dmn-eval-js is compiled, its logging calls are redirected to the {@link DmnEvalJsLogger} of the global scope,
+ * behind a check of the level, so that messages are only built if they are logged.
+ * <p>
+ * Nashorn was removed from the JDK with Java 15. On newer JDKs, use the {@link GraalJsScripts} instead.
+ */
+public final class DmnEvalJsScripts implements DmnEvalJsRuntime {
+
+    private static final Logger logger = LoggerFactory.getLogger(DmnEvalJsScripts.class);
+
+    private static final String PERSISTENT_CODE_CACHE_PROPERTY = "nashorn.persistent.code.cache";
+
+    // dmn-eval-js is the script before the last one, the wrapper creates the DmnEvalJsWrapper from its result
+    static final String[] SCRIPT_FILES = { "my-timer-polyfill.js", "nashorn-polyfill.js", "dmn-eval-js.js", "dmn-eval-js-wrapper.js" };
+
+    private static final int POLYFILL_COUNT = 2;
+
+    private static final String DMN_EVAL_JS_FILE = "dmn-eval-js.js";
+
+    /**
+     * The name of the global variable that holds the {@link DmnEvalJsLogger} of a global scope.
+     */
+    public static final String LOGGER_VARIABLE = "dmnEvalJsLogger";
+
+    // calls of the loglevel logger of dmn-eval-js, like "logger.info(", but not "dmnEvalJsLogger.info(" or "self.logger.info("
+    private static final Pattern LOGGING_CALL = Pattern.compile("(?<![\\w.$])logger\\.(debug|info|warn|error)\\(");
+
+    private static final Map<String, DmnEvalJsScripts> compiledScripts = new ConcurrentHashMap<>();
+
+    private final ScriptEngine scriptEngine;
+    private final List<String> polyfills = new ArrayList<>();
+    private final List<CompiledScript> scripts = new ArrayList<>();
+    private final long compileNanos;
+
+    private DmnEvalJsScripts(String persistentCodeCacheDirectory) {
+        long startTime = System.nanoTime();
+        scriptEngine = createScriptEngine(persistentCodeCacheDirectory);
+        for (int i = 0; i < SCRIPT_FILES.length; ++i) {
+            if (i < POLYFILL_COUNT) {
+                polyfills.add(loadScript(SCRIPT_FILES[i]));
+            } else {
+                scripts.add(compileScript(SCRIPT_FILES[i]));
+            }
+        }
+        compileNanos = System.nanoTime() - startTime;
+        logger.info("Compiled the dmn-eval-js scripts in {} seconds.", compileNanos / 1E9);
+    }
+
+    /**
+     * Returns the compiled scripts for the given persistent code cache directory. The scripts are compiled when this method
+     * is called for the first time with a directory, and then shared by all callers.
+     * @param persistentCodeCacheDirectory the directory of the persistent code cache of Nashorn, or <code>null</code> to
+     *                                     not use a persistent code cache
+     * @return the compiled scripts
+     * @throws DecisionServiceInstantiationException thrown if the scripts could not be compiled
+     */
+    public static DmnEvalJsScripts getInstance(String persistentCodeCacheDirectory) {
+        String key = (persistentCodeCacheDirectory == null)? "" : persistentCodeCacheDirectory;
+        return compiledScripts.computeIfAbsent(key, (k) -> new DmnEvalJsScripts(persistentCodeCacheDirectory));
+    }
+
+    /**
+     * Returns whether the scripts for the given persistent code cache directory were already compiled.
+     * @param persistentCodeCacheDirectory the directory of the persistent code cache, or <code>null</code>
+     * @return true if {@link #getInstance(String)} will not compile the scripts again
+     */
+    public static boolean isCompiled(String persistentCodeCacheDirectory) {
+        return compiledScripts.containsKey((persistentCodeCacheDirectory == null)? "" : persistentCodeCacheDirectory);
+    }
+
+    private static ScriptEngine createScriptEngine(String persistentCodeCacheDirectory) {
+        List<String> options = new ArrayList<>();
+        // optimistic types speed up long running scripts, but multiply the time to bootstrap dmn-eval-js
+        options.add("--optimistic-types=false");
+        if (persistentCodeCacheDirectory != null) {
+            // Nashorn reads the location of the code cache from a system property only
+            System.setProperty(PERSISTENT_CODE_CACHE_PROPERTY, persistentCodeCacheDirectory);
+            options.add("--persistent-code-cache=true");
+            logger.info("Using persistent code cache in directory '{}'.", persistentCodeCacheDirectory);
+        }
+        try {
+            return new NashornScriptEngineFactory().getScriptEngine(options.toArray(new String[0]), DmnEvalJsScripts.class.getClassLoader());
+        } catch (LinkageError e) {
+            throw new DecisionServiceInstantiationException("Nashorn is not available in this JVM, use the script engine type GRAALJS instead.", e);
+        } catch (Exception e) {
+            throw new DecisionServiceInstantiationException("Failed to initialize script engine.", e);
+        }
+    }
+
+    /**
+     * Loads the source of the given script file, with {@linkplain #guardLoggingCalls(String) guarded logging calls}
+     * if it is dmn-eval-js.
+     * @param scriptFile the name of the script file in the classpath
+     * @return the source of the script
+     * @throws DecisionServiceInstantiationException thrown if the script file could not be loaded
+     */
+    static String loadScriptSource(String scriptFile) {
+        String script = loadScript(scriptFile);
+        return DMN_EVAL_JS_FILE.equals(scriptFile)? guardLoggingCalls(script) : script;
+    }
+
+    private static String loadScript(String scriptFile) {
+        try (InputStream jsFileStream = DmnEvalJsScripts.class.getClassLoader().getResourceAsStream(scriptFile)) {
+            if (jsFileStream == null) {
+                throw new IllegalArgumentException("Did not find script file " + scriptFile + " in classpath.");
+            }
+            ByteArrayOutputStream script = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = jsFileStream.read(buffer)) != -1) {
+                script.write(buffer, 0, length);
+            }
+            return new String(script.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new DecisionServiceInstantiationException("Failed to load script file " + scriptFile, e);
+        }
+    }
+
+    private CompiledScript compileScript(String scriptFile) {
+        try (InputStream jsFileStream = DmnEvalJsScripts.class.getClassLoader().getResourceAsStream(scriptFile)) {
+            if (jsFileStream == null) {
+                throw new IllegalArgumentException("Did not find script file " + scriptFile + " in classpath.");
+            }
+            // the script name is required by the persistent code cache to identify the script
+            scriptEngine.put(ScriptEngine.FILENAME, scriptFile);
+            if (DMN_EVAL_JS_FILE.equals(scriptFile)) {
+                return ((Compilable) scriptEngine).compile(guardLoggingCalls(loadScript(scriptFile)));
+            }
+            return ((Compilable) scriptEngine).compile(new InputStreamReader(jsFileStream, StandardCharsets.UTF_8));
+        } catch (ScriptException e) {
+            throw new DecisionServiceInstantiationException("Failed to compile script file " + scriptFile, e);
+        } catch (IOException e) {
+            throw new DecisionServiceInstantiationException("Failed to load script file " + scriptFile, e);
+        }
+    }
+
+    /**
+     * Replaces the logging calls of dmn-eval-js like <code>logger.info(message)</code> by
+     * <code>dmnEvalJsLogger.isInfoEnabled() &amp;&amp; dmnEvalJsLogger.info(message)</code>. dmn-eval-js only logs
+     * in statements of their own, so the result of the expression does not matter.
+     * @param script the source of dmn-eval-js
+     * @return the source with guarded logging calls
+     */
+    static String guardLoggingCalls(String script) {
+        Matcher matcher = LOGGING_CALL.matcher(script);
+        StringBuffer guardedScript = new StringBuffer(script.length() + 4096);
+        int guardedCalls = 0;
+        while (matcher.find()) {
+            String level = matcher.group(1);
+            String enabledMethod = "is" + Character.toUpperCase(level.charAt(0)) + level.substring(1) + "Enabled";
+            matcher.appendReplacement(guardedScript, LOGGER_VARIABLE + "." + enabledMethod + "() && " + LOGGER_VARIABLE + "." + level + "(");
+            ++guardedCalls;
+        }
+        matcher.appendTail(guardedScript);
+        logger.debug("Guarded {} logging calls of dmn-eval-js.", guardedCalls);
+        return guardedScript.toString();
+    }
+
+    @Override
+    public DmnEvalJsContext createContext(DmnEvalJsLogger dmnEvalJsLogger) {
+        return new NashornContext(this, dmnEvalJsLogger);
+    }
+
+    /**
+     * Creates a new script context with a global scope of its own, in which none of the scripts was evaluated yet.
+     * @return the new script context
+     */
+    public ScriptContext createScriptContext() {
+        ScriptContext scriptContext = new SimpleScriptContext();
+        scriptContext.setBindings(scriptEngine.createBindings(), ScriptContext.ENGINE_SCOPE);
+        return scriptContext;
+    }
+
+    /**
+     * Evaluates all scripts in the given script context, in the order in which they need to be loaded.
+     * @param scriptContext the script context, as created by {@link #createScriptContext()}
+     * @return the results of evaluating the scripts, one for each script
+     * @throws DecisionServiceInstantiationException thrown if a script failed
+     */
+    public List<Object> evaluate(ScriptContext scriptContext) {
+        List<Object> results = new ArrayList<>(SCRIPT_FILES.length);
+        for (int i = 0; i < SCRIPT_FILES.length; ++i) {
+            try {
+                if (i < POLYFILL_COUNT) {
+                    scriptContext.setAttribute(ScriptEngine.FILENAME, SCRIPT_FILES[i], ScriptContext.ENGINE_SCOPE);
+                    results.add(scriptEngine.eval(polyfills.get(i), scriptContext));
+                } else {
+                    results.add(scripts.get(i - POLYFILL_COUNT).eval(scriptContext));
+                }
+            } catch (ScriptException e) {
+                throw new DecisionServiceInstantiationException("Failed to run script file " + SCRIPT_FILES[i], e);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public long getCompileNanos() {
+        return compileNanos;
+    }
+
+}
@@ -4,10 +4,12 @@
  */
 package de.hbt.dmn_eval_java.impl;
 
-import jdk.nashorn.api.scripting.ScriptObjectMirror;
+import java.util.List;
 
 /**
- * Java interface to wrap functions from the Javascript dmn-eval-js library.
+ * Java interface to wrap functions from the Javascript dmn-eval-js library. Parsed DMN definitions are values of the
+ * global scope that parsed them, and must only be passed to the wrapper of that global scope. Objects and arrays
+ * are returned as maps and lists, either of the script engine or plain Java ones, see {@link DmnEvalJsContext}.
  */
 public interface DmnEvalJsWrapper {
 
@@ -19,13 +21,62 @@ public interface DmnEvalJsWrapper {
      * @param decisionInput the input as a {@link WrappedInputObject}
      * @return the decision result
      */
-    Object evaluateDecision(String decisionId, ScriptObjectMirror parsedDecision, Object decisionInput);
+    Object evaluateDecision(String decisionId, Object parsedDecision, Object decisionInput);
+
+    /**
+     * Evaluates the decision with the given decision id, like {@link #evaluateDecision(String, Object, Object)},
+     * but the properties of the decision input are resolved only when the decision reads them.
+     * @param decisionId the id of the decision that shall be evaluated
+     * @param parsedDecision the DMN definition of the decision
+     * @param decisionInput the input as a {@link LazyInputObject}
+     * @return the decision result
+     */
+    Object evaluateDecisionLazily(String decisionId, Object parsedDecision, LazyInputObject decisionInput);
+
+    /**
+     * Evaluates the decision with the given decision id, but not its required decisions. Instead, the given results of
+     * the required decisions are merged into the decision input, like dmn-eval-js merges them after evaluating them.
+     * @param decisionId the id of the decision that shall be evaluated
+     * @param parsedDecision the DMN definition of the decision
+     * @param decisionInput the input as a {@link WrappedInputObject} or a {@link LazyInputObject}
+     * @param requiredResults the results of all directly and indirectly required decisions, in the order in which they are
+     *                        merged, each converted by {@link de.hbt.dmn_eval_java.impl.compiler.ScriptObjects#toJavaValue(Object)}
+     * @return an object with the decision result as property "result", and as property "plain" whether the result
+     *         consists of plain objects, arrays, and primitive values only, so that it can be converted to Java
+     */
+    Object evaluateDecisionWithResults(String decisionId, Object parsedDecision, Object decisionInput, List<Object> requiredResults);
+
+    /**
+     * Evaluates the decision with the given decision id for each of the given inputs. Evaluating the decision may fail
+     * for some inputs without affecting the others.
+     * @param decisionId the id of the decision that shall be evaluated
+     * @param parsedDecision the DMN definition of the decision
+     * @param decisionInputs the inputs, each a {@link WrappedInputObject} or a {@link LazyInputObject}
+     * @return an array with an object for each input, either with the decision result as property "result", or with
+     *         the exception or error message as property "error"
+     */
+    Object evaluateDecisions(String decisionId, Object parsedDecision, List<Object> decisionInputs);
 
     /**
      * Parses the DMN definition of a decision from a string with the DMN XML content.
      * @param dmnXml the DMN XML content
+     * @return the promise of the parsed DMN definition, see {@link DmnEvalJsContext#handlePromise(Object, java.util.function.Consumer, java.util.function.Consumer)}
+     */
+    Object parseDmnXml(String dmnXml);
+
+    /**
+     * Serializes the given parsed DMN definition, so that it can be restored by {@link #deserializeDmnDefinition(String)}
+     * without parsing the DMN XML content again.
+     * @param parsedDmnDefinition the parsed DMN definition
+     * @return the snapshot of the parsed DMN definition
+     */
+    String serializeDmnDefinition(Object parsedDmnDefinition);
+
+    /**
+     * Restores a parsed DMN definition from a snapshot that was created by {@link #serializeDmnDefinition(Object)}.
+     * @param snapshot the snapshot of the parsed DMN definition
      * @return the parsed DMN definition
      */
-    ScriptObjectMirror parseDmnXml(String dmnXml);
+    Object deserializeDmnDefinition(String snapshot);
 
 }
@@ -0,0 +1,125 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.DecisionEvaluationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches DMN files for changes, using a {@link WatchService} for the directories of the files. Changes are reported
+ * by a thread of the watcher, one file at a time. Since editors and build tools usually write a file in several steps,
+ * a change is reported only after no further change happened for {@value #SETTLE_MILLIS} msecs.
+ */
+public final class DmnFileWatcher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DmnFileWatcher.class);
+
+    private static final long SETTLE_MILLIS = 200L;
+
+    private final WatchService watchService;
+    private final Map<Path, Set<Path>> watchedFiles = new ConcurrentHashMap<>();
+    private final Consumer<Path> changeListener;
+    private final Thread thread;
+
+    /**
+     * Creates the watcher and starts its thread.
+     * @param changeListener the listener that is notified with the path of a watched file that was changed
+     * @throws DecisionEvaluationException thrown if the file system does not support watching files
+     */
+    public DmnFileWatcher(Consumer<Path> changeListener) {
+        this.changeListener = changeListener;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new DecisionEvaluationException("Failed to watch DMN files.", e);
+        }
+        thread = new Thread(this::watch, "dmn-eval-java-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Watches the given file for changes.
+     * @param dmnFile the DMN file
+     * @throws DecisionEvaluationException thrown if the directory of the file cannot be watched
+     */
+    public void watch(Path dmnFile) {
+        Path file = dmnFile.toAbsolutePath().normalize();
+        Path directory = file.getParent();
+        try {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | ClosedWatchServiceException e) {
+            throw new DecisionEvaluationException("Failed to watch DMN file '" + dmnFile + "'", e);
+        }
+        watchedFiles.computeIfAbsent(directory, (key) -> ConcurrentHashMap.newKeySet()).add(file);
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                Set<Path> changedFiles = new LinkedHashSet<>();
+                WatchKey watchKey = watchService.take();
+                while (watchKey != null) {
+                    collectChangedFiles(watchKey, changedFiles);
+                    watchKey = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                for (Path changedFile: changedFiles) {
+                    try {
+                        changeListener.accept(changedFile);
+                    } catch (RuntimeException e) {
+                        logger.error("Failed to handle change of DMN file '{}'", changedFile, e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.debug("Stopped watching DMN files.");
+        }
+    }
+
+    private void collectChangedFiles(WatchKey watchKey, Set<Path> changedFiles) {
+        Path directory = (Path) watchKey.watchable();
+        Set<Path> files = watchedFiles.getOrDefault(directory, new HashSet<>());
+        for (WatchEvent<?> event: watchKey.pollEvents()) {
+            if (event.context() instanceof Path) {
+                Path file = directory.resolve((Path) event.context());
+                if (files.contains(file)) {
+                    changedFiles.add(file);
+                }
+            }
+        }
+        watchKey.reset();
+    }
+
+    /**
+     * Stops watching files.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close the watch service.", e);
+        }
+        thread.interrupt();
+    }
+
+}
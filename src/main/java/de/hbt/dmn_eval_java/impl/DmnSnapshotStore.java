@@ -0,0 +1,207 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Stores snapshots of parsed DMN definitions in a directory, so that a DMN definition does not need to be parsed again
+ * by subsequent JVM starts. A snapshot is stored in a file that is named after the SHA-256 hash of the DMN XML content,
+ * so a changed DMN definition never uses the snapshot of its previous content.
+ * <p>
+ * A snapshot file consists of a magic number, the version of the snapshot format, the hash of the DMN XML content,
+ * the hash of the bundled scripts, and the UTF-8 encoded snapshot as created by
+ * {@link DmnEvalJsWrapper#serializeDmnDefinition}. Snapshot files are memory-mapped when they are read. Snapshot files
+ * with another format version, or that were created by other versions of dmn-eval-js or its wrapper, are ignored, and
+ * replaced when the DMN definition was parsed again.
+ */
+public final class DmnSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DmnSnapshotStore.class);
+
+    private static final int MAGIC = 0x444D4E53; // "DMNS"
+    private static final int FORMAT_VERSION = 2;
+    private static final String FILE_EXTENSION = ".dmnsnapshot";
+
+    private final Path directory;
+    private final String scriptsHash;
+
+    public DmnSnapshotStore(String directory) {
+        this(directory, ScriptsHash.VALUE);
+    }
+
+    DmnSnapshotStore(String directory, String scriptsHash) {
+        this.directory = Paths.get(directory);
+        this.scriptsHash = scriptsHash;
+    }
+
+    /**
+     * Reads the snapshot of the given DMN XML content.
+     * @param dmnXml the DMN XML content
+     * @return the snapshot, or <code>null</code> if there is no valid snapshot of the content
+     */
+    public String read(String dmnXml) {
+        String hash = hash(dmnXml);
+        Path file = directory.resolve(hash + FILE_EXTENSION);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+            if ((buffer.getInt() != MAGIC) || (buffer.getInt() != FORMAT_VERSION)) {
+                logger.debug("Ignoring snapshot '{}' with another format.", file);
+                return null;
+            }
+            if (!hash.equals(readHash(buffer))) {
+                logger.warn("Ignoring snapshot '{}' of another DMN definition.", file);
+                return null;
+            }
+            if (!scriptsHash.equals(readHash(buffer))) {
+                logger.debug("Ignoring snapshot '{}' that was created by other versions of the scripts.", file);
+                return null;
+            }
+            int length = buffer.getInt();
+            buffer.limit(buffer.position() + length);
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to read snapshot '{}', the DMN definition is parsed instead.", file, e);
+            return null;
+        }
+    }
+
+    private static String readHash(ByteBuffer buffer) {
+        byte[] hash = new byte[buffer.getInt()];
+        buffer.get(hash);
+        return new String(hash, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes the snapshot of the given DMN XML content. Failures are logged only, since the DMN definition can be parsed
+     * without a snapshot.
+     * @param dmnXml the DMN XML content
+     * @param snapshot the snapshot of the parsed DMN definition
+     */
+    public void write(String dmnXml, String snapshot) {
+        String hash = hash(dmnXml);
+        Path file = directory.resolve(hash + FILE_EXTENSION);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(directory);
+            // the snapshot becomes visible only when it is complete, even if several JVMs write it at the same time
+            tempFile = Files.createTempFile(directory, hash, ".tmp");
+            try (OutputStream outputStream = Files.newOutputStream(tempFile); DataOutputStream output = new DataOutputStream(outputStream)) {
+                byte[] hashBytes = hash.getBytes(StandardCharsets.US_ASCII);
+                byte[] scriptsHashBytes = scriptsHash.getBytes(StandardCharsets.US_ASCII);
+                byte[] snapshotBytes = snapshot.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeInt(hashBytes.length);
+                output.write(hashBytes);
+                output.writeInt(scriptsHashBytes.length);
+                output.write(scriptsHashBytes);
+                output.writeInt(snapshotBytes.length);
+                output.write(snapshotBytes);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Wrote snapshot '{}'.", file);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to write snapshot '{}'.", file, e);
+            deleteTempFile(tempFile);
+        }
+    }
+
+    private static void deleteTempFile(Path tempFile) {
+        if (tempFile != null) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                logger.debug("Failed to delete temporary file '{}'.", tempFile, e);
+            }
+        }
+    }
+
+    private static String hash(String dmnXml) {
+        MessageDigest digest = createDigest();
+        // the content is encoded chunk by chunk, instead of copying all of it into a byte array
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.wrap(dmnXml);
+        ByteBuffer bytes = ByteBuffer.allocate(8192);
+        boolean endOfInput;
+        do {
+            endOfInput = !encoder.encode(chars, bytes, true).isOverflow();
+            if (endOfInput) {
+                encoder.flush(bytes);
+            }
+            bytes.flip();
+            digest.update(bytes);
+            bytes.clear();
+        } while (!endOfInput);
+        return toHex(digest.digest());
+    }
+
+    private static String hashScripts() {
+        MessageDigest digest = createDigest();
+        byte[] buffer = new byte[8192];
+        for (String scriptFile: DmnEvalJsScripts.SCRIPT_FILES) {
+            try (InputStream scriptStream = DmnSnapshotStore.class.getClassLoader().getResourceAsStream(scriptFile)) {
+                if (scriptStream == null) {
+                    throw new IllegalArgumentException("Did not find script file " + scriptFile + " in classpath.");
+                }
+                int length;
+                while ((length = scriptStream.read(buffer)) != -1) {
+                    digest.update(buffer, 0, length);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to load script file " + scriptFile, e);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported.", e);
+        }
+    }
+
+    private static String toHex(byte[] digest) {
+        StringBuilder hash = new StringBuilder(digest.length * 2);
+        for (byte b: digest) {
+            hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hash.toString();
+    }
+
+    // the scripts are hashed once per JVM, when the first snapshot store is created
+    private static final class ScriptsHash {
+
+        private static final String VALUE = hashScripts();
+
+    }
+
+}
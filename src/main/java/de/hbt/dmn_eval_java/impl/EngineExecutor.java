@@ -0,0 +1,157 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.DecisionEvaluationException;
+import de.hbt.dmn_eval_java.QueueFullPolicy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executes work that needs a script engine asynchronously. The executor has as many threads as there are script
+ * engines in the pool, so each engine that is borrowed by the executor is driven by a thread of its own, and no
+ * thread waits for an engine just because another thread of the executor holds it. The number of pending evaluations
+ * is bounded; what happens if there are too many of them is defined by a {@link QueueFullPolicy}. Other work, like
+ * parsing DMN definitions, is queued regardless of that bound.
+ */
+public final class EngineExecutor {
+
+    private static final AtomicInteger executorCount = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+    // the number of further evaluations that can be running or pending
+    private final Semaphore queueSpace;
+    private final QueueFullPolicy queueFullPolicy;
+
+    /**
+     * Creates the executor and its threads.
+     * @param threads the number of threads, which should be the size of the engine pool
+     * @param queueCapacity the maximum number of pending evaluations
+     * @param queueFullPolicy what to do if there are as many pending evaluations
+     */
+    public EngineExecutor(int threads, int queueCapacity, QueueFullPolicy queueFullPolicy) {
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                createThreadFactory(), (runnable, executor) -> ((Task<?>) runnable).cancel());
+        queueSpace = new Semaphore(threads + queueCapacity);
+        this.queueFullPolicy = queueFullPolicy;
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        int executorNumber = executorCount.incrementAndGet();
+        AtomicInteger threadCount = new AtomicInteger();
+        return (runnable) -> {
+            Thread thread = new Thread(runnable, "dmn-eval-java-" + executorNumber + "-engine-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Evaluates a decision asynchronously. If the queue of pending evaluations is full, the {@link QueueFullPolicy}
+     * applies.
+     * @param work the evaluation
+     * @param <T> the result type of the evaluation
+     * @return the future that is completed with the result of the evaluation, or with the exception that it threw
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        Task<T> task = new Task<>(work);
+        if (!queueSpace.tryAcquire()) {
+            if (executor.isShutdown()) {
+                task.cancel();
+                return task.future;
+            }
+            if (queueFullPolicy == QueueFullPolicy.CALLER_RUNS) {
+                task.run();
+                return task.future;
+            }
+            if (queueFullPolicy != QueueFullPolicy.BLOCK) {
+                task.future.completeExceptionally(new DecisionEvaluationException("The queue of asynchronous evaluations is full."));
+                return task.future;
+            }
+            try {
+                queueSpace.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                task.future.completeExceptionally(new DecisionEvaluationException("Interrupted while waiting for free space in the queue.", e));
+                return task.future;
+            }
+        }
+        task.queueSpace = queueSpace;
+        executor.execute(task);
+        return task.future;
+    }
+
+    /**
+     * Executes the given work asynchronously, no matter how many evaluations are pending, e.g. parsing a DMN definition.
+     * Such work does not take up space in the queue of pending evaluations.
+     * @param work the work
+     * @param <T> the result type of the work
+     * @return the future that is completed with the result of the work, or with the exception that it threw
+     */
+    public <T> CompletableFuture<T> submitUnbounded(Supplier<T> work) {
+        Task<T> task = new Task<>(work);
+        executor.execute(task);
+        return task.future;
+    }
+
+    /**
+     * Shuts down the executor. Pending work is not executed anymore, its futures fail.
+     */
+    public void shutdown() {
+        for (Runnable task: executor.shutdownNow()) {
+            ((Task<?>) task).cancel();
+        }
+        // wake up the callers that wait for free space in the queue
+        queueSpace.release(Integer.MAX_VALUE / 2);
+    }
+
+    private static final class Task<T> implements Runnable {
+
+        private final Supplier<T> work;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        // the space that the task takes up until it is done, if it is an evaluation that was queued
+        private Semaphore queueSpace;
+
+        private Task(Supplier<T> work) {
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            T result;
+            try {
+                result = work.get();
+            } catch (RuntimeException | Error e) {
+                // the space is free before the future completes, so that dependent evaluations find it
+                freeQueueSpace();
+                future.completeExceptionally(e);
+                return;
+            }
+            freeQueueSpace();
+            future.complete(result);
+        }
+
+        private void freeQueueSpace() {
+            if (queueSpace != null) {
+                queueSpace.release();
+                queueSpace = null;
+            }
+        }
+
+        private void cancel() {
+            freeQueueSpace();
+            future.completeExceptionally(new DecisionEvaluationException("The decision service was closed."));
+        }
+
+    }
+
+}
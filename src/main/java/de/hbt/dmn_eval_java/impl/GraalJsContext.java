@@ -0,0 +1,182 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.DecisionServiceInstantiationException;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyExecutable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A polyglot context of GraalJS in which the {@linkplain GraalJsScripts dmn-eval-js scripts} were run. The wrapper
+ * of dmn-eval-js calls the Javascript functions of the wrapper script, and converts their results into plain Java
+ * objects right away, because the values of a polyglot context must not be used after the context was returned to the
+ * engine pool. Only the parsed DMN definitions and promises stay polyglot {@link Value}s.
+ */
+final class GraalJsContext implements DmnEvalJsContext {
+
+    private static final String LOCATION_PROPERTY = "loc";
+
+    private final Context context;
+    private final Value nashornEventLoop;
+    private final DmnEvalJsWrapper dmnEvalJsWrapper;
+
+    GraalJsContext(GraalJsScripts graalJsScripts, DmnEvalJsLogger dmnEvalJsLogger) {
+        context = graalJsScripts.createPolyglotContext();
+        try {
+            Value global = context.getBindings("js");
+            global.putMember(DmnEvalJsScripts.LOGGER_VARIABLE, dmnEvalJsLogger);
+            List<Value> scriptResults = new ArrayList<>();
+            for (Source source: graalJsScripts.getSources()) {
+                scriptResults.add(context.eval(source));
+            }
+            nashornEventLoop = global.getMember("nashornEventLoop");
+            Value functions = global.getMember("createDmnEvalJsFunctions").execute(scriptResults.get(2));
+            dmnEvalJsWrapper = new GraalJsWrapper(functions);
+        } catch (PolyglotException e) {
+            context.close();
+            throw new DecisionServiceInstantiationException("Failed to load embedded dmn-eval-js engine.", e);
+        }
+    }
+
+    @Override
+    public DmnEvalJsWrapper getDmnEvalJsWrapper() {
+        return dmnEvalJsWrapper;
+    }
+
+    @Override
+    public void handlePromise(Object promise, Consumer<Object> resolve, Consumer<Object> reject) {
+        // the parsed DMN definition must stay a value of the context, so the handlers are called with the value itself
+        ((Value) promise).invokeMember("then", (ProxyExecutable) (arguments) -> {
+            resolve.accept(arguments[0]);
+            return null;
+        }, (ProxyExecutable) (arguments) -> {
+            reject.accept(arguments[0].isHostObject()? arguments[0].asHostObject() : arguments[0].toString());
+            return null;
+        });
+        invoke(nashornEventLoop, "process");
+    }
+
+    @Override
+    public Object toJava(Object value) {
+        return (value instanceof Value)? toJava((Value) value, true) : value;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    private static Value invoke(Value object, String function, Object... arguments) {
+        try {
+            return object.invokeMember(function, arguments);
+        } catch (PolyglotException e) {
+            if (e.isHostException() && (e.asHostException() instanceof RuntimeException)) {
+                throw (RuntimeException) e.asHostException();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Converts the given value deeply into plain Java objects, like
+     * {@link de.hbt.dmn_eval_java.impl.compiler.ScriptObjects#toJava(Object)} does for Nashorn. Numbers become integers
+     * if they fit, and doubles otherwise, like in Nashorn.
+     */
+    private static Object toJava(Value value, boolean dropLocations) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (value.isHostObject()) {
+            return value.asHostObject();
+        }
+        if (value.isString()) {
+            return value.asString();
+        }
+        if (value.isBoolean()) {
+            return value.asBoolean();
+        }
+        if (value.isNumber()) {
+            return value.fitsInInt()? (Object) value.asInt() : (Object) value.asDouble();
+        }
+        if (value.canExecute()) {
+            return null;
+        }
+        Set<String> keys = value.getMemberKeys();
+        if (value.hasArrayElements()) {
+            // arrays with string keys (like the parsed DMN definitions) have a size of 0, so only real arrays are converted to lists
+            long size = value.getArraySize();
+            if ((size > 0) || keys.isEmpty()) {
+                List<Object> list = new ArrayList<>((int) size);
+                for (long i = 0; i < size; ++i) {
+                    list.add(toJava(value.getArrayElement(i), dropLocations));
+                }
+                return list;
+            }
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (String key: keys) {
+            if (!dropLocations || !LOCATION_PROPERTY.equals(key)) {
+                map.put(key, toJava(value.getMember(key), dropLocations));
+            }
+        }
+        return map;
+    }
+
+    private static final class GraalJsWrapper implements DmnEvalJsWrapper {
+
+        private final Value functions;
+
+        private GraalJsWrapper(Value functions) {
+            this.functions = functions;
+        }
+
+        @Override
+        public Object evaluateDecision(String decisionId, Object parsedDecision, Object decisionInput) {
+            return toJava(invoke(functions, "evaluateDecision", decisionId, parsedDecision, decisionInput), false);
+        }
+
+        @Override
+        public Object evaluateDecisionLazily(String decisionId, Object parsedDecision, LazyInputObject decisionInput) {
+            return toJava(invoke(functions, "evaluateDecisionLazily", decisionId, parsedDecision, decisionInput), false);
+        }
+
+        @Override
+        public Object evaluateDecisionWithResults(String decisionId, Object parsedDecision, Object decisionInput, List<Object> requiredResults) {
+            return toJava(invoke(functions, "evaluateDecisionWithResults", decisionId, parsedDecision, decisionInput, requiredResults), false);
+        }
+
+        @Override
+        public Object evaluateDecisions(String decisionId, Object parsedDecision, List<Object> decisionInputs) {
+            return toJava(invoke(functions, "evaluateDecisions", decisionId, parsedDecision, decisionInputs), false);
+        }
+
+        @Override
+        public Object parseDmnXml(String dmnXml) {
+            return invoke(functions, "parseDmnXml", dmnXml);
+        }
+
+        @Override
+        public String serializeDmnDefinition(Object parsedDmnDefinition) {
+            return invoke(functions, "serializeDmnDefinition", parsedDmnDefinition).asString();
+        }
+
+        @Override
+        public Object deserializeDmnDefinition(String snapshot) {
+            return invoke(functions, "deserializeDmnDefinition", snapshot);
+        }
+
+    }
+
+}
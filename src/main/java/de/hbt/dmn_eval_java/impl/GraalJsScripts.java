@@ -0,0 +1,130 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.DecisionServiceInstantiationException;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The scripts of the embedded dmn-eval-js engine for GraalJS, loaded once per JVM. All {@link DmnEngine}s share a single
+ * polyglot engine and the sources of the scripts; each of them runs the scripts in a polyglot context of its own. The
+ * polyglot engine caches the code of the sources, so the scripts are only parsed once, and the code that GraalVM
+ * compiled to machine code for one context is reused by the others. To fill the cache, the scripts are run once in a
+ * context that is discarded afterwards.
+ * <p>
+ * The scripts are the same as for Nashorn. GraalJS runs them in its Nashorn compatibility mode, which provides
+ * <code>Java.type()</code> and the <code>JSAdapter</code>, and converts Java bean getters into properties.
+ */
+public final class GraalJsScripts implements DmnEvalJsRuntime {
+
+    private static final Logger logger = LoggerFactory.getLogger(GraalJsScripts.class);
+
+    private static final String LANGUAGE = "js";
+
+    // the packages of the Java classes that the scripts look up by Java.type()
+    private static final String[] HOST_CLASS_PREFIXES = { "java.", "de.hbt.dmn_eval_java." };
+
+    private static volatile GraalJsScripts instance;
+
+    private final Engine engine;
+    private final List<Source> sources;
+    private final long compileNanos;
+
+    private GraalJsScripts() {
+        long startTime = System.nanoTime();
+        engine = Engine.create();
+        List<Source> loadedSources = new ArrayList<>();
+        for (String scriptFile: DmnEvalJsScripts.SCRIPT_FILES) {
+            loadedSources.add(Source.newBuilder(LANGUAGE, DmnEvalJsScripts.loadScriptSource(scriptFile), scriptFile).buildLiteral());
+        }
+        sources = Collections.unmodifiableList(loadedSources);
+        // running the sources once puts their code into the cache of the engine, which every context shares
+        try (Context context = createPolyglotContext()) {
+            context.getBindings(LANGUAGE).putMember(DmnEvalJsScripts.LOGGER_VARIABLE, new DmnEvalJsLogger());
+            for (Source source: sources) {
+                context.eval(source);
+            }
+        } catch (PolyglotException e) {
+            throw new DecisionServiceInstantiationException("Failed to compile the dmn-eval-js scripts.", e);
+        }
+        compileNanos = System.nanoTime() - startTime;
+        logger.info("Compiled the dmn-eval-js scripts for GraalJS in {} seconds.", compileNanos / 1E9);
+    }
+
+    /**
+     * Returns the scripts for GraalJS. The scripts are compiled when this method is called for the first time, and then
+     * shared by all callers.
+     * @return the compiled scripts
+     * @throws DecisionServiceInstantiationException thrown if the scripts could not be compiled
+     */
+    public static GraalJsScripts getInstance() {
+        if (instance == null) {
+            synchronized (GraalJsScripts.class) {
+                if (instance == null) {
+                    instance = new GraalJsScripts();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Returns whether the scripts for GraalJS were already compiled.
+     * @return true if {@link #getInstance()} will not compile the scripts again
+     */
+    public static boolean isCompiled() {
+        return instance != null;
+    }
+
+    /**
+     * Creates a new polyglot context of the shared engine, in which none of the scripts was run yet.
+     * @return the new context
+     */
+    Context createPolyglotContext() {
+        return Context.newBuilder(LANGUAGE)
+                .engine(engine)
+                .allowAllAccess(true)
+                .allowHostClassLookup(GraalJsScripts::isHostClassAllowed)
+                .option("js.nashorn-compat", "true")
+                .build();
+    }
+
+    private static boolean isHostClassAllowed(String className) {
+        for (String prefix: HOST_CLASS_PREFIXES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the sources of the scripts, in the order in which they need to be run.
+     * @return the sources
+     */
+    List<Source> getSources() {
+        return sources;
+    }
+
+    @Override
+    public DmnEvalJsContext createContext(DmnEvalJsLogger dmnEvalJsLogger) {
+        return new GraalJsContext(this, dmnEvalJsLogger);
+    }
+
+    @Override
+    public long getCompileNanos() {
+        return compileNanos;
+    }
+
+}
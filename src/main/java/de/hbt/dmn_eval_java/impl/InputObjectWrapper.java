@@ -6,29 +6,50 @@ package de.hbt.dmn_eval_java.impl;
 
 import de.hbt.dmn_eval_java.DecisionEvaluationException;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Utility class to wrap the input for a decision evaluation so that in Javascript it is possible to enumerate
  * over the attributes.
+ * <p>
+ * The properties of a Java bean are those of its public getter methods, including inherited ones and "is" getters of
+ * boolean properties, and of the non-public getter methods that its class declares, or the components of a record.
+ * They are resolved once per class and then cached.
  */
 public final class InputObjectWrapper {
 
     public static final InputObjectWrapper INSTANCE = new InputObjectWrapper();
 
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<Map<String, PropertyGetter>> propertyGetters = new ClassValue<>() {
+        @Override
+        protected Map<String, PropertyGetter> computeValue(Class<?> type) {
+            return resolvePropertyGetters(type);
+        }
+    };
+
     private InputObjectWrapper() {
         // prevent instantiation
     }
 
     public WrappedInputObject wrapInput(Object input) {
+        if (input == null) {
+            // like unset properties of nested Java beans
+            return WrappedInputObject.fromPlainValue(null);
+        }
         if (input instanceof Map) {
             Map<?, ?> map = (Map<?, ?>) input;
             Map<String, Object> wrappedMap = new HashMap<>();
@@ -39,36 +60,124 @@ public final class InputObjectWrapper {
             }
             return WrappedInputObject.fromMap(wrappedMap, wrappedMap.keySet());
         }
-        Class<?> inputClass = input.getClass();
-        if ((input instanceof Number) || (input instanceof String) || (input instanceof Boolean) || (input instanceof Date) ||
-                (input instanceof Collection) || inputClass.isArray() || inputClass.isEnum()) {
+        if (isPlainValue(input)) {
             return WrappedInputObject.fromPlainValue(input);
         }
-        if ((inputClass.getAnnotation(FunctionalInterface.class) != null) ||
-                inputClass.isSynthetic() && !(inputClass.isLocalClass() || inputClass.isAnonymousClass())) {
+        if (isFunction(input)) {
             return wrapFunction(input);
         }
         return wrapObject(input);
     }
 
-    public WrappedInputObject wrapObject(Object object) {
-        Class<?> objectClass = object.getClass();
-        List<String> properties = new ArrayList<>();
-        Map<String, Object> objectMap = new HashMap<>();
-        for (Method method: objectClass.getDeclaredMethods()) {
-            String methodName = method.getName();
-            if ((method.getParameterCount() == 0) && methodName.startsWith("get") && (methodName.length() > 3)) {
-                String fieldName = methodName.substring(3, 4).toLowerCase() + ((methodName.length() > 4)? methodName.substring(4) : "");
-                properties.add(fieldName);
-                try {
-                    Object fieldValue = method.invoke(object);
-                    objectMap.put(fieldName, wrapInput(fieldValue));
-                } catch (InvocationTargetException | IllegalAccessException | IllegalArgumentException e) {
-                    throw new DecisionEvaluationException("Failed to process decision input: cannot get value from getter method '" + methodName + "'", e);
+    /**
+     * Returns whether the given input is passed to Javascript as it is, instead of being wrapped.
+     * @param input the input
+     * @return true if the input is a plain value
+     */
+    public static boolean isPlainValue(Object input) {
+        Class<?> inputClass = input.getClass();
+        return (input instanceof Number) || (input instanceof String) || (input instanceof Boolean) || (input instanceof Date) ||
+                (input instanceof Collection) || inputClass.isArray() || inputClass.isEnum();
+    }
+
+    /**
+     * Returns whether the given input is passed to Javascript as a function.
+     * @param input the input
+     * @return true if the input is a function
+     */
+    public static boolean isFunction(Object input) {
+        Class<?> inputClass = input.getClass();
+        return (inputClass.getAnnotation(FunctionalInterface.class) != null) ||
+                inputClass.isSynthetic() && !(inputClass.isLocalClass() || inputClass.isAnonymousClass());
+    }
+
+    /**
+     * Returns whether the given input is a Java bean that is passed to Javascript as an object with the properties
+     * of its getter methods.
+     * @param input the input
+     * @return true if the input is a Java bean
+     */
+    public static boolean isObject(Object input) {
+        return (input != null) && !(input instanceof Map) && !isPlainValue(input) && !isFunction(input);
+    }
+
+    /**
+     * Returns the getters of the properties of the given Java bean class, by property name.
+     * @param objectClass the class of the Java bean
+     * @return the unmodifiable map of property getters
+     */
+    public static Map<String, PropertyGetter> getPropertyGetters(Class<?> objectClass) {
+        return propertyGetters.get(objectClass);
+    }
+
+    private static Map<String, PropertyGetter> resolvePropertyGetters(Class<?> objectClass) {
+        Map<String, PropertyGetter> getters = new LinkedHashMap<>();
+        if (isRecord(objectClass)) {
+            for (Field field: objectClass.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    try {
+                        getters.put(field.getName(), new PropertyGetter(field.getName(), objectClass.getMethod(field.getName())));
+                    } catch (NoSuchMethodException e) {
+                        // no accessor method of a record component
+                    }
+                }
+            }
+        } else {
+            for (Method method: objectClass.getMethods()) {
+                if (method.getDeclaringClass() != Object.class) {
+                    addPropertyGetter(getters, method);
+                }
+            }
+            for (Method method: objectClass.getDeclaredMethods()) {
+                if (!Modifier.isPublic(method.getModifiers()) && !method.isSynthetic()) {
+                    addPropertyGetter(getters, method);
                 }
             }
         }
-        return WrappedInputObject.fromMap(objectMap, properties);
+        return Collections.unmodifiableMap(getters);
+    }
+
+    private static void addPropertyGetter(Map<String, PropertyGetter> getters, Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || method.isBridge()) {
+            return;
+        }
+        String propertyName = getPropertyName(method);
+        // a "get" getter takes precedence over an "is" getter of the same property
+        if ((propertyName != null) && (!getters.containsKey(propertyName) || method.getName().startsWith("get"))) {
+            getters.put(propertyName, new PropertyGetter(propertyName, method));
+        }
+    }
+
+    private static boolean isRecord(Class<?> objectClass) {
+        Class<?> superclass = objectClass.getSuperclass();
+        return (superclass != null) && superclass.getName().equals("java.lang.Record");
+    }
+
+    private static String getPropertyName(Method method) {
+        if (method.getParameterCount() != 0) {
+            return null;
+        }
+        String methodName = method.getName();
+        if (methodName.startsWith("get") && (methodName.length() > 3) && (method.getReturnType() != void.class)) {
+            return decapitalize(methodName.substring(3));
+        }
+        if (methodName.startsWith("is") && (methodName.length() > 2) && (method.getReturnType() == boolean.class)) {
+            return decapitalize(methodName.substring(2));
+        }
+        return null;
+    }
+
+    private static String decapitalize(String name) {
+        return name.substring(0, 1).toLowerCase() + name.substring(1);
+    }
+
+    public WrappedInputObject wrapObject(Object object) {
+        Map<String, PropertyGetter> getters = getPropertyGetters(object.getClass());
+        Map<String, Object> objectMap = new HashMap<>();
+        for (PropertyGetter getter: getters.values()) {
+            objectMap.put(getter.getPropertyName(), wrapInput(getter.get(object)));
+        }
+        return WrappedInputObject.fromMap(objectMap, getters.keySet());
     }
 
     public WrappedInputObject wrapFunction(Object function) {
@@ -78,4 +187,60 @@ public final class InputObjectWrapper {
         int parameterCount = applyMethod.getParameterCount();
         return WrappedInputObject.fromFunction(function, parameterCount);
     }
+
+    /**
+     * The cached getter of a property of a Java bean, which invokes the getter method by a method handle.
+     */
+    public static final class PropertyGetter {
+
+        private final String propertyName;
+        private final String methodName;
+        private final MethodHandle methodHandle;
+        private final IllegalAccessException accessException;
+
+        private PropertyGetter(String propertyName, Method method) {
+            this.propertyName = propertyName;
+            this.methodName = method.getName();
+            MethodHandle handle = null;
+            IllegalAccessException exception = null;
+            try {
+                try {
+                    // non-public methods, and public methods of non-public classes, are not accessible otherwise
+                    method.setAccessible(true);
+                } catch (RuntimeException e) {
+                    // the method may still be accessible
+                }
+                handle = MethodHandles.lookup().unreflect(method).asType(GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                exception = e;
+            }
+            this.methodHandle = handle;
+            this.accessException = exception;
+        }
+
+        public String getPropertyName() {
+            return propertyName;
+        }
+
+        /**
+         * Returns the value of the property of the given Java bean.
+         * @param object the Java bean
+         * @return the value of the property
+         * @throws DecisionEvaluationException thrown if the getter method failed
+         */
+        public Object get(Object object) {
+            if (methodHandle == null) {
+                throw new DecisionEvaluationException("Failed to process decision input: cannot get value from getter method '" + methodName + "'", accessException);
+            }
+            try {
+                return methodHandle.invokeExact(object);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new DecisionEvaluationException("Failed to process decision input: cannot get value from getter method '" + methodName + "'", e);
+            }
+        }
+
+    }
+
 }
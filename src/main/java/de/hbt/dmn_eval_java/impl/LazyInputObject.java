@@ -0,0 +1,100 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A live view on a map or a Java bean of the decision input, which is passed to Javascript instead of a
+ * {@link WrappedInputObject}. In Javascript, the view is adapted to an object whose properties are resolved only when
+ * a FEEL expression reads them, so the parts of the input that a decision does not read are never visited.
+ * <p>
+ * Property values that are maps or Java beans are returned as views again, functions are returned as
+ * {@link WrappedInputObject}s, and all other values are returned as they are.
+ */
+public final class LazyInputObject {
+
+    private final Object object;
+
+    private LazyInputObject(Object object) {
+        this.object = object;
+    }
+
+    /**
+     * Creates a view on the given decision input.
+     * @param input the decision input, a map or a Java bean
+     * @return the view on the decision input
+     */
+    public static LazyInputObject of(Object input) {
+        return new LazyInputObject(input);
+    }
+
+    /**
+     * Returns the names of the properties of the map or Java bean.
+     * @return the property names
+     */
+    public List<String> getProperties() {
+        if (object instanceof Map) {
+            List<String> properties = new ArrayList<>();
+            for (Object key: ((Map<?, ?>) object).keySet()) {
+                properties.add(key.toString());
+            }
+            return properties;
+        }
+        return new ArrayList<>(InputObjectWrapper.getPropertyGetters(object.getClass()).keySet());
+    }
+
+    public boolean hasProperty(String name) {
+        if (object instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) object;
+            return map.containsKey(name) || (findKey(map, name) != null);
+        }
+        return InputObjectWrapper.getPropertyGetters(object.getClass()).containsKey(name);
+    }
+
+    /**
+     * Returns the value of the property with the given name.
+     * @param name the property name
+     * @return the property value, or <code>null</code> if the property does not exist
+     */
+    public Object getProperty(String name) {
+        Object value;
+        if (object instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) object;
+            value = map.get(name);
+            if ((value == null) && !map.containsKey(name)) {
+                Object key = findKey(map, name);
+                value = (key != null)? map.get(key) : null;
+            }
+        } else {
+            InputObjectWrapper.PropertyGetter getter = InputObjectWrapper.getPropertyGetters(object.getClass()).get(name);
+            value = (getter != null)? getter.get(object) : null;
+        }
+        return wrapValue(value);
+    }
+
+    private static Object findKey(Map<?, ?> map, String name) {
+        // keys are converted to strings for dmn-eval-js
+        for (Object key: map.keySet()) {
+            if (!(key instanceof String) && name.equals(String.valueOf(key))) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private static Object wrapValue(Object value) {
+        if ((value instanceof Map) || InputObjectWrapper.isObject(value)) {
+            return new LazyInputObject(value);
+        }
+        if ((value != null) && InputObjectWrapper.isFunction(value)) {
+            return InputObjectWrapper.INSTANCE.wrapFunction(value);
+        }
+        return value;
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.DecisionServiceInstantiationException;
+import de.hbt.dmn_eval_java.impl.compiler.ScriptObjects;
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
+
+import javax.script.ScriptContext;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A global scope of Nashorn in which the {@linkplain DmnEvalJsScripts compiled dmn-eval-js scripts} were evaluated.
+ * The wrapper of dmn-eval-js is implemented in Javascript, and returns Javascript values as {@link ScriptObjectMirror}s.
+ */
+final class NashornContext implements DmnEvalJsContext {
+
+    private final DmnEvalJsWrapper dmnEvalJsWrapper;
+    private final ScriptObjectMirror nashornEventLoop;
+
+    NashornContext(DmnEvalJsScripts dmnEvalJsScripts, DmnEvalJsLogger dmnEvalJsLogger) {
+        ScriptContext scriptContext = dmnEvalJsScripts.createScriptContext();
+        scriptContext.setAttribute(DmnEvalJsScripts.LOGGER_VARIABLE, dmnEvalJsLogger, ScriptContext.ENGINE_SCOPE);
+        List<Object> scriptResults = dmnEvalJsScripts.evaluate(scriptContext);
+        ScriptObjectMirror global = (ScriptObjectMirror) scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
+        nashornEventLoop = (ScriptObjectMirror) global.get("nashornEventLoop");
+        ScriptObjectMirror dmnEvalJs = (ScriptObjectMirror) scriptResults.get(2);
+        try {
+            dmnEvalJsWrapper = (DmnEvalJsWrapper) global.callMember("newDmnEvalJsWrapper", dmnEvalJs);
+        } catch (RuntimeException e) {
+            throw new DecisionServiceInstantiationException("Failed to load embedded dmn-eval-js engine.", e);
+        }
+    }
+
+    @Override
+    public DmnEvalJsWrapper getDmnEvalJsWrapper() {
+        return dmnEvalJsWrapper;
+    }
+
+    @Override
+    public void handlePromise(Object promise, Consumer<Object> resolve, Consumer<Object> reject) {
+        ((ScriptObjectMirror) promise).callMember("then", resolve, reject);
+        nashornEventLoop.callMember("process");
+    }
+
+    @Override
+    public Object toJava(Object value) {
+        return ScriptObjects.toJava(value);
+    }
+
+    @Override
+    public void close() {
+        // the global scope is released by the garbage collector
+    }
+
+}
@@ -4,71 +4,61 @@
  */
 package de.hbt.dmn_eval_java.impl;
 
-import jdk.nashorn.api.scripting.ScriptObjectMirror;
-
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 /**
  * A completable future to represent the outcome of a Javascript Promise.
  * Implementing subclasses must define the logic that is to be executed when the promise is resolved,
  * as well as when it is rejected.
+ * <p>
+ * The future is completed by {@link #handlePromise()}, which must be called by the thread that uses the script engine
+ * of the promise. Afterwards, the future can be used like any other completable future, by any thread.
  *
  * @param <T> the run-time type of the promise's result
  */
 public abstract class PromiseFuture<T> extends CompletableFuture<T> {
 
-    private final ScriptObjectMirror promise;
-    private final ScriptObjectMirror nashornEventLoop;
+    private final Object promise;
+    private final DmnEvalJsContext dmnEvalJsContext;
 
-    private boolean promiseHandled;
+    private final AtomicBoolean promiseHandled = new AtomicBoolean();
 
     /**
-     * Creates the future from the given Javascript promise. The given reference to the event loop of Nashorn
-     * is required to trigger the asynchronous processing.
+     * Creates the future from the given Javascript promise. The given global scope of the promise is required to
+     * trigger the asynchronous processing.
      * @param promise the promise to be awaited
-     * @param nashornEventLoop the event loop of Nashorn
+     * @param dmnEvalJsContext the global scope of the promise
      */
-    public PromiseFuture(ScriptObjectMirror promise, ScriptObjectMirror nashornEventLoop) {
+    public PromiseFuture(Object promise, DmnEvalJsContext dmnEvalJsContext) {
         this.promise = promise;
-        this.nashornEventLoop = nashornEventLoop;
-        this.promiseHandled = false;
+        this.dmnEvalJsContext = dmnEvalJsContext;
     }
 
-    private void handlePromise() {
-        if (!promiseHandled) {
-            promise.callMember("then", resolve(), reject());
-
-            nashornEventLoop.callMember("process");
-            promiseHandled = true;
+    /**
+     * Attaches the handlers to the promise and processes the event loop of the global scope until it is empty. Afterwards,
+     * the future is usually completed. This must be called by the thread that currently uses the script engine
+     * of the promise. Only the first call has an effect.
+     */
+    public void handlePromise() {
+        if (promiseHandled.compareAndSet(false, true)) {
+            dmnEvalJsContext.handlePromise(promise, resolve(), reject());
         }
     }
 
-    public T get() throws InterruptedException, ExecutionException {
-        handlePromise();
-        return super.get();
-    }
-
-    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-        handlePromise();
-        return super.get(timeout, unit);
-    }
-
     /**
      * Creates and returns a consumer that consumes the event that the promise is resolved successfully. The promise's result
      * is the single input argument for the consumer.
      * @return the consumer for resolved promises
      */
-    protected abstract Consumer<?> resolve();
+    protected abstract Consumer<Object> resolve();
 
     /**
      * Creates and returns a consumer that consumes the event that the promise is rejected. The error object is the single
      * input argument for the consumer.
      * @return the consumer for rejected promises
      */
-    protected abstract Consumer<?> reject();
+    protected abstract Consumer<Object> reject();
 
 }
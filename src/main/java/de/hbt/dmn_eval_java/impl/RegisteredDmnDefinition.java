@@ -0,0 +1,109 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.Decision;
+import de.hbt.dmn_eval_java.HitPolicy;
+import de.hbt.dmn_eval_java.impl.compiler.CompiledDecision;
+import de.hbt.dmn_eval_java.impl.compiler.DecisionTableCompiler;
+import de.hbt.dmn_eval_java.impl.compiler.InputExpression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A decision that was successfully registered with the decision service. The {@linkplain DmnDefinitions DMN definition}
+ * that contains the decision is kept, so that it can be parsed by every script engine of the pool. All decisions of
+ * a DMN definition that were registered together share the same instance of it.
+ * <p>
+ * The metadata of the decision that is needed to evaluate it, like its hit policy, is resolved once at registration,
+ * so that evaluating the decision does not need to inspect the parsed decision in the script engine.
+ * <p>
+ * If the decision could be compiled for evaluation without a script engine, the compiled decision is kept as well,
+ * and so is the cache of its results, if results are cached.
+ */
+public final class RegisteredDmnDefinition {
+
+    private final String decisionId;
+    private final DmnDefinitions dmnDefinitions;
+    private final HitPolicy hitPolicy;
+    private final List<String> requiredDecisions;
+    private final InputExpression[] inputExpressions;
+    private final CompiledDecision compiledDecision;
+    private final DecisionResultCache resultCache;
+    private final DecisionGraph decisionGraph;
+
+    public RegisteredDmnDefinition(String decisionId, DmnDefinitions dmnDefinitions, Decision decision, InputExpression[] inputExpressions,
+                                   CompiledDecision compiledDecision, DecisionResultCache resultCache, DecisionGraph decisionGraph) {
+        this.decisionId = decisionId;
+        this.dmnDefinitions = dmnDefinitions;
+        this.hitPolicy = decision.getDecisionTable().getHitPolicy();
+        this.requiredDecisions = Collections.unmodifiableList(new ArrayList<>(decision.getRequiredDecisions()));
+        this.inputExpressions = inputExpressions;
+        this.compiledDecision = compiledDecision;
+        this.resultCache = resultCache;
+        this.decisionGraph = decisionGraph;
+    }
+
+    public String getDecisionId() {
+        return decisionId;
+    }
+
+    public DmnDefinitions getDmnDefinitions() {
+        return dmnDefinitions;
+    }
+
+    public long getVersion() {
+        return dmnDefinitions.getVersion();
+    }
+
+    public HitPolicy getHitPolicy() {
+        return hitPolicy;
+    }
+
+    /**
+     * Returns the ids of the decisions that are required to evaluate the decision.
+     * @return the unmodifiable list of required decisions
+     */
+    public List<String> getRequiredDecisions() {
+        return requiredDecisions;
+    }
+
+    /**
+     * Returns the compiled input expressions of the decision, if the result of the decision depends on nothing but their
+     * values, see {@link DecisionTableCompiler#compileInputExpressions(Object)}.
+     * @return the input expressions, or <code>null</code> if the result of the decision depends on more
+     */
+    public InputExpression[] getInputExpressions() {
+        return inputExpressions;
+    }
+
+    /**
+     * Returns the decision compiled for evaluation without a script engine.
+     * @return the compiled decision, or <code>null</code> if the decision must be evaluated by a script engine
+     */
+    public CompiledDecision getCompiledDecision() {
+        return compiledDecision;
+    }
+
+    /**
+     * Returns the cache of the results of the decision.
+     * @return the result cache, or <code>null</code> if the results of the decision are not cached
+     */
+    public DecisionResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Returns the requirements between all decisions of the DMN definition, which is shared by the registrations
+     * of all decisions of the DMN definition.
+     * @return the decision graph of the DMN definition
+     */
+    public DecisionGraph getDecisionGraph() {
+        return decisionGraph;
+    }
+
+}
@@ -0,0 +1,292 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl;
+
+import com.google.gson.Gson;
+import de.hbt.dmn_eval_java.DecisionEvaluationException;
+import de.hbt.dmn_eval_java.impl.compiler.ScriptObjects;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Utility class to map the result objects of a decision to the Java result type. The values are copied directly
+ * from the Javascript objects into the fields of the result type, the way Gson would map the JSON of the result
+ * objects: fields are matched by name, unknown properties and <code>null</code> values are ignored, and numbers are
+ * converted to the type of the field. The fields of each result type are resolved once and then cached.
+ * <p>
+ * If the result type is a {@link Map}, the result objects are returned as maps, with nested maps for output names
+ * like "output.property", lists for arrays, and numbers as {@link Integer} or {@link Double}.
+ * <p>
+ * Types that cannot be mapped directly, like enums or types with Gson annotations, are still mapped by Gson.
+ */
+public final class ResultMapper {
+
+    public static final ResultMapper INSTANCE = new ResultMapper();
+
+    private static final Gson gson = new Gson();
+
+    private static final Object NOT_CONVERTED = new Object();
+
+    private final Map<Class<?>, ObjectType> objectTypes = new ConcurrentHashMap<>();
+
+    private ResultMapper() {
+        // prevent instantiation
+    }
+
+    /**
+     * Maps the given result object to the given result type. If the result object is a Javascript object, this must
+     * be called by the thread that currently uses its script engine.
+     * @param resultObject the result object, either a Javascript object or a map
+     * @param resultType the result type
+     * @param <T> the result type
+     * @return the mapped result
+     * @throws DecisionEvaluationException thrown if the result object could not be mapped
+     */
+    public <T> T mapResult(Object resultObject, Class<T> resultType) {
+        return resultType.cast(convert(resultObject, resultType));
+    }
+
+    private Object convert(Object value, Type type) {
+        if ((value == null) || ScriptObjects.isUndefined(value)) {
+            return null;
+        }
+        if (type == Object.class) {
+            return toJava(value);
+        }
+        Class<?> rawType = getRawType(type);
+        Object result = NOT_CONVERTED;
+        if ((value instanceof String) || (value instanceof Boolean) || (value instanceof Number)) {
+            result = convertPlainValue(value, rawType);
+        } else if (ScriptObjects.isFunction(value)) {
+            return null;
+        } else if (ScriptObjects.isArray(value)) {
+            if (rawType.isAssignableFrom(ArrayList.class)) {
+                result = convertList(value, getTypeArgument(type, 0));
+            }
+        } else if (value instanceof Map) {
+            if (rawType.isAssignableFrom(LinkedHashMap.class)) {
+                Type keyType = getTypeArgument(type, 0);
+                if ((keyType == Object.class) || (keyType == String.class)) {
+                    result = convertMap((Map<?, ?>) value, getTypeArgument(type, 1));
+                }
+            } else {
+                ObjectType objectType = objectTypes.computeIfAbsent(rawType, ObjectType::resolve);
+                if (objectType != ObjectType.UNSUPPORTED) {
+                    result = objectType.newInstance((Map<?, ?>) value, this);
+                }
+            }
+        }
+        if (result == NOT_CONVERTED) {
+            return gson.fromJson(gson.toJsonTree(toJava(value)), type);
+        }
+        return result;
+    }
+
+    private static Object convertPlainValue(Object value, Class<?> type) {
+        if (type.isInstance(value)) {
+            return value;
+        }
+        if (type == String.class) {
+            return value.toString();
+        }
+        if (value instanceof Boolean) {
+            return (type == boolean.class)? value : NOT_CONVERTED;
+        }
+        if (!(value instanceof Integer) && !(value instanceof Double)) {
+            // Javascript numbers are either integers or doubles
+            return NOT_CONVERTED;
+        }
+        Number number = (Number) value;
+        double doubleValue = number.doubleValue();
+        if ((type == Double.class) || (type == double.class)) {
+            return doubleValue;
+        }
+        if ((type == Float.class) || (type == float.class)) {
+            return number.floatValue();
+        }
+        if (type == BigDecimal.class) {
+            return new BigDecimal(number.toString());
+        }
+        boolean isInt = (doubleValue == (int) doubleValue);
+        if ((type == Integer.class) || (type == int.class)) {
+            return isInt? (Object) (int) doubleValue : NOT_CONVERTED;
+        }
+        if ((type == Long.class) || (type == long.class)) {
+            return (doubleValue == (long) doubleValue)? (Object) (long) doubleValue : NOT_CONVERTED;
+        }
+        if ((type == Short.class) || (type == short.class)) {
+            return isInt? (Object) (short) doubleValue : NOT_CONVERTED;
+        }
+        if ((type == Byte.class) || (type == byte.class)) {
+            return isInt? (Object) (byte) doubleValue : NOT_CONVERTED;
+        }
+        if (type == BigInteger.class) {
+            boolean isInteger = !Double.isInfinite(doubleValue) && (doubleValue == Math.floor(doubleValue));
+            return isInteger? BigDecimal.valueOf(doubleValue).toBigInteger() : NOT_CONVERTED;
+        }
+        return NOT_CONVERTED;
+    }
+
+    private List<Object> convertList(Object value, Type elementType) {
+        List<Object> list = new ArrayList<>();
+        Collection<?> elements = ScriptObjects.isScriptObject(value)? ScriptObjects.toList(value) : (Collection<?>) value;
+        for (Object element: elements) {
+            list.add(convert(element, elementType));
+        }
+        return list;
+    }
+
+    private Map<String, Object> convertMap(Map<?, ?> value, Type valueType) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry: value.entrySet()) {
+            Object convertedValue = convert(entry.getValue(), valueType);
+            if (convertedValue != null) {
+                map.put(String.valueOf(entry.getKey()), convertedValue);
+            }
+        }
+        return map;
+    }
+
+    private Object toJava(Object value) {
+        if (ScriptObjects.isArray(value)) {
+            return convertList(value, Object.class);
+        }
+        if (value instanceof Map) {
+            return convertMap((Map<?, ?>) value, Object.class);
+        }
+        return ScriptObjects.isUndefined(value)? null : value;
+    }
+
+    private static Class<?> getRawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return getRawType(((ParameterizedType) type).getRawType());
+        }
+        if (type instanceof WildcardType) {
+            return getRawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    private static Type getTypeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType) {
+            Type typeArgument = ((ParameterizedType) type).getActualTypeArguments()[index];
+            if (typeArgument instanceof WildcardType) {
+                typeArgument = ((WildcardType) typeArgument).getUpperBounds()[0];
+            }
+            return (typeArgument instanceof Class || typeArgument instanceof ParameterizedType)? typeArgument : Object.class;
+        }
+        return Object.class;
+    }
+
+    /**
+     * The cached metadata of a result type whose results are mapped directly into its fields.
+     */
+    private static final class ObjectType {
+
+        private static final ObjectType UNSUPPORTED = new ObjectType(null, null);
+
+        private final Constructor<?> constructor;
+        private final Map<String, Field> fields;
+
+        private ObjectType(Constructor<?> constructor, Map<String, Field> fields) {
+            this.constructor = constructor;
+            this.fields = fields;
+        }
+
+        private static ObjectType resolve(Class<?> type) {
+            if (type.isInterface() || type.isArray() || type.isPrimitive() || type.isEnum() || Modifier.isAbstract(type.getModifiers()) ||
+                    (type.getEnclosingClass() != null && !Modifier.isStatic(type.getModifiers())) || type.getName().startsWith("java.") ||
+                    hasGsonAnnotation(type.getAnnotations())) {
+                return UNSUPPORTED;
+            }
+            try {
+                Constructor<?> constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                Map<String, Field> fields = new HashMap<>();
+                for (Class<?> declaringType = type; declaringType != Object.class; declaringType = declaringType.getSuperclass()) {
+                    for (Field field: declaringType.getDeclaredFields()) {
+                        if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers()) || field.isSynthetic()) {
+                            continue;
+                        }
+                        if (hasGsonAnnotation(field.getAnnotations()) || !isResolved(field.getGenericType()) ||
+                                (fields.put(field.getName(), field) != null)) {
+                            return UNSUPPORTED;
+                        }
+                        field.setAccessible(true);
+                    }
+                }
+                return new ObjectType(constructor, fields);
+            } catch (NoSuchMethodException | RuntimeException e) {
+                // let Gson handle (or reject) the type
+                return UNSUPPORTED;
+            }
+        }
+
+        private static boolean hasGsonAnnotation(Annotation[] annotations) {
+            for (Annotation annotation: annotations) {
+                if (annotation.annotationType().getName().startsWith("com.google.gson.")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isResolved(Type type) {
+            if (type instanceof Class) {
+                return true;
+            }
+            if (type instanceof ParameterizedType) {
+                for (Type typeArgument: ((ParameterizedType) type).getActualTypeArguments()) {
+                    if (!isResolved(typeArgument)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            if (type instanceof WildcardType) {
+                return isResolved(((WildcardType) type).getUpperBounds()[0]);
+            }
+            return false;
+        }
+
+        private Object newInstance(Map<?, ?> properties, ResultMapper resultMapper) {
+            try {
+                Object instance = constructor.newInstance();
+                for (Map.Entry<?, ?> property: properties.entrySet()) {
+                    Field field = fields.get(String.valueOf(property.getKey()));
+                    if (field != null) {
+                        Object value = resultMapper.convert(property.getValue(), field.getGenericType());
+                        if (value != null) {
+                            field.set(instance, value);
+                        }
+                    }
+                }
+                return instance;
+            } catch (ReflectiveOperationException e) {
+                throw new DecisionEvaluationException("Failed to map decision result to type '" + constructor.getDeclaringClass().getName() + "'", e);
+            }
+        }
+
+    }
+
+}
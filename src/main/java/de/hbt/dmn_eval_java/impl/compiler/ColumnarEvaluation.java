@@ -0,0 +1,296 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+import de.hbt.dmn_eval_java.HitPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates a compiled decision for many rows whose values are given column by column, see
+ * {@link CompiledDecision#evaluateColumns(Object[], int)}. The rows are split into chunks, which are evaluated by the
+ * fork/join pool in parallel.
+ * <p>
+ * Within a chunk, the rules are matched column by column: each test of a rule is applied down the column to the rows
+ * that the rule still matches, and clears the bits of the rows it does not match, so the bits that remain after the last
+ * column are the rows that the rule matches. Like {@link CompiledRule#matches(Object[])}, a row is not tested against
+ * the remaining columns of a rule once a test was not true. Then the hit policy is applied to the bits of all rules,
+ * 64 rows at a time.
+ * <p>
+ * The rows for which a test was {@linkplain UnaryTest#UNSUPPORTED not supported}, or for which the outcome depends
+ * on more than the matched rules, like a violation of the hit policy UNIQUE, are evaluated one by one by
+ * {@link CompiledDecision#evaluateValues(Object[], List)} instead.
+ */
+final class ColumnarEvaluation extends RecursiveAction {
+
+    static final long serialVersionUID = 0L;
+
+    // the number of rows that are evaluated by one task
+    static final int CHUNK_ROWS = 4096;
+
+    private final CompiledDecision decision;
+    private final Column[] columns;
+    private final List<Map<String, Object>>[] results;
+    private final int from;
+    private final int to;
+
+    ColumnarEvaluation(CompiledDecision decision, Object[] columns, List<Map<String, Object>>[] results) {
+        this(decision, toColumns(columns), results, 0, results.length);
+    }
+
+    private ColumnarEvaluation(CompiledDecision decision, Column[] columns, List<Map<String, Object>>[] results, int from, int to) {
+        this.decision = decision;
+        this.columns = columns;
+        this.results = results;
+        this.from = from;
+        this.to = to;
+    }
+
+    private static Column[] toColumns(Object[] values) {
+        Column[] columns = new Column[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] == null) {
+                columns[i] = new UndefinedColumn();
+            } else if (values[i] instanceof double[]) {
+                columns[i] = new DoubleColumn((double[]) values[i]);
+            } else if (values[i] instanceof long[]) {
+                columns[i] = new LongColumn((long[]) values[i]);
+            } else if (values[i] instanceof Object[]) {
+                columns[i] = new ObjectColumn((Object[]) values[i]);
+            } else {
+                throw new IllegalArgumentException("Unsupported column type " + values[i].getClass().getName());
+            }
+        }
+        return columns;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from > CHUNK_ROWS) {
+            int middle = from + (((to - from) / 2 + 63) & ~63);
+            invokeAll(new ColumnarEvaluation(decision, columns, results, from, middle),
+                    new ColumnarEvaluation(decision, columns, results, middle, to));
+        } else {
+            evaluateChunk();
+        }
+    }
+
+    private void evaluateChunk() {
+        int words = (to - from + 63) >>> 6;
+        CompiledRule[] rules = decision.getRules();
+        // rows that are evaluated one by one
+        long[] rowsByRow = new long[words];
+        for (Column column: columns) {
+            column.markUnsupportedValues(from, to, rowsByRow);
+        }
+        long[][] matchedRows = new long[rules.length][];
+        // if the evaluation stops at the first matching rule, later rules need not test the rows that a rule matched
+        long[] unmatchedRows = decision.isStoppingAtFirstMatch()? allRows(words) : null;
+        for (int i = 0; i < rules.length; ++i) {
+            matchedRows[i] = (unmatchedRows != null)? unmatchedRows.clone() : allRows(words);
+            UnaryTest[] tests = rules[i].getTests();
+            for (int j = 0; j < columns.length; ++j) {
+                if (tests[j] != UnaryTest.ANY) {
+                    testColumn(tests[j], columns[j], matchedRows[i], rowsByRow);
+                }
+            }
+            if (unmatchedRows != null) {
+                for (int word = 0; word < words; ++word) {
+                    unmatchedRows[word] &= ~matchedRows[i][word];
+                }
+            }
+        }
+        for (int word = 0; word < words; ++word) {
+            applyHitPolicy(rules, matchedRows, word, rowsByRow);
+        }
+        Object[] values = new Object[columns.length];
+        for (int word = 0; word < words; ++word) {
+            for (long bits = rowsByRow[word]; bits != 0L; bits &= bits - 1) {
+                int row = toRow(word, bits);
+                for (int j = 0; j < columns.length; ++j) {
+                    values[j] = columns[j].getValue(row);
+                }
+                results[row] = decision.evaluateValues(values, null);
+            }
+        }
+    }
+
+    private long[] allRows(int words) {
+        long[] rows = new long[words];
+        for (int word = 0; word < words; ++word) {
+            rows[word] = wordMask(word);
+        }
+        return rows;
+    }
+
+    // the bits of the rows of the chunk within the given word
+    private long wordMask(int word) {
+        int rows = Math.min(to - from - (word << 6), 64);
+        return (rows == 64)? -1L : (1L << rows) - 1L;
+    }
+
+    private int toRow(int word, long bits) {
+        return from + (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    private void testColumn(UnaryTest test, Column column, long[] matchedRows, long[] rowsByRow) {
+        for (int word = 0; word < matchedRows.length; ++word) {
+            long notMatched = 0L;
+            for (long bits = matchedRows[word]; bits != 0L; bits &= bits - 1) {
+                int result = column.test(test, toRow(word, bits));
+                if (result != UnaryTest.TRUE) {
+                    long bit = Long.lowestOneBit(bits);
+                    notMatched |= bit;
+                    if (result == UnaryTest.UNSUPPORTED) {
+                        rowsByRow[word] |= bit;
+                    }
+                }
+            }
+            matchedRows[word] &= ~notMatched;
+        }
+    }
+
+    private void applyHitPolicy(CompiledRule[] rules, long[][] matchedRows, int word, long[] rowsByRow) {
+        long rows = wordMask(word) & ~rowsByRow[word];
+        HitPolicy hitPolicy = decision.getHitPolicy();
+        if (hitPolicy == HitPolicy.UNIQUE) {
+            long anyMatched = 0L;
+            long multipleMatched = 0L;
+            for (long[] matched: matchedRows) {
+                multipleMatched |= anyMatched & matched[word];
+                anyMatched |= matched[word];
+            }
+            // let the script engine report the violation of the hit policy
+            rowsByRow[word] |= rows & multipleMatched;
+            rows &= ~multipleMatched;
+        }
+        if ((hitPolicy == HitPolicy.FIRST) || (hitPolicy == HitPolicy.UNIQUE)) {
+            for (int i = 0; (i < rules.length) && (rows != 0L); ++i) {
+                long matched = matchedRows[i][word] & rows;
+                List<Map<String, Object>> result = CompiledDecision.toResult(rules[i].getOutput());
+                for (long bits = matched; bits != 0L; bits &= bits - 1) {
+                    results[toRow(word, bits)] = result;
+                }
+                rows &= ~matched;
+            }
+            List<Map<String, Object>> emptyResult = CompiledDecision.toResult(decision.getEmptyOutput());
+            for (long bits = rows; bits != 0L; bits &= bits - 1) {
+                results[toRow(word, bits)] = emptyResult;
+            }
+            return;
+        }
+        for (long bits = rows; bits != 0L; bits &= bits - 1) {
+            results[toRow(word, bits)] = new ArrayList<>();
+        }
+        for (int i = 0; i < rules.length; ++i) {
+            for (long bits = matchedRows[i][word] & rows; bits != 0L; bits &= bits - 1) {
+                results[toRow(word, bits)].add(rules[i].getOutput());
+            }
+        }
+    }
+
+    /**
+     * The values of an input expression for all rows.
+     */
+    private interface Column {
+
+        int test(UnaryTest test, int row);
+
+        Object getValue(int row);
+
+        default void markUnsupportedValues(int from, int to, long[] rows) {
+            // all values are supported
+        }
+
+    }
+
+    private static final class UndefinedColumn implements Column {
+
+        @Override
+        public int test(UnaryTest test, int row) {
+            return test.test(FeelValues.UNDEFINED);
+        }
+
+        @Override
+        public Object getValue(int row) {
+            return FeelValues.UNDEFINED;
+        }
+
+    }
+
+    private static final class DoubleColumn implements Column {
+
+        private final double[] values;
+
+        private DoubleColumn(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int test(UnaryTest test, int row) {
+            return test.testNumber(values[row]);
+        }
+
+        @Override
+        public Object getValue(int row) {
+            return values[row];
+        }
+
+    }
+
+    private static final class LongColumn implements Column {
+
+        private final long[] values;
+
+        private LongColumn(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int test(UnaryTest test, int row) {
+            return test.testNumber(values[row]);
+        }
+
+        @Override
+        public Object getValue(int row) {
+            return FeelValues.toNumber(values[row]);
+        }
+
+    }
+
+    private static final class ObjectColumn implements Column {
+
+        private final Object[] values;
+
+        private ObjectColumn(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int test(UnaryTest test, int row) {
+            return test.test(values[row]);
+        }
+
+        @Override
+        public Object getValue(int row) {
+            // null values are not supported as decision input
+            return (values[row] == null)? FeelValues.UNSUPPORTED : values[row];
+        }
+
+        @Override
+        public void markUnsupportedValues(int from, int to, long[] rows) {
+            for (int row = from; row < to; ++row) {
+                if (values[row] == null) {
+                    rows[(row - from) >>> 6] |= 1L << (row - from);
+                }
+            }
+        }
+
+    }
+
+}
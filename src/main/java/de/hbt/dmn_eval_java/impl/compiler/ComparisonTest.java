@@ -0,0 +1,150 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+/**
+ * Compares the tested value with a constant, like the input entries "Bags", &lt; 10, or &gt;= -2.5 do.
+ * The semantics are those of the FEEL operators of dmn-eval-js: numbers are compared with numbers, strings with strings,
+ * and booleans only for equality. Comparing values of different types fails in dmn-eval-js, so such tests are
+ * {@linkplain UnaryTest#UNSUPPORTED not supported}.
+ */
+public final class ComparisonTest implements UnaryTest {
+
+    private static final int EQ = 0;
+    private static final int LT = 1;
+    private static final int LE = 2;
+    private static final int GT = 3;
+    private static final int GE = 4;
+
+    private final int operator;
+    private final Object operand;
+    private final double numericOperand;
+
+    /**
+     * Creates the test.
+     * @param operator one of "==", "&lt;", "&lt;=", "&gt;", "&gt;="
+     * @param operand the constant to compare the tested value with, a {@link Double}, {@link String}, {@link Boolean}, or <code>null</code>
+     * @throws UnsupportedConstructException thrown if dmn-eval-js would not be able to apply the operator to the operand
+     */
+    public ComparisonTest(String operator, Object operand) {
+        this.operator = toOperatorCode(operator);
+        this.operand = operand;
+        this.numericOperand = (operand instanceof Double)? (Double) operand : Double.NaN;
+        if (this.operator != EQ) {
+            // dmn-eval-js requires the operands of relational operators to be present, i.e. to be truthy or zero
+            if (!(operand instanceof Double) && !((operand instanceof String) && !((String) operand).isEmpty())) {
+                throw new UnsupportedConstructException("operator '" + operator + "' applied to '" + operand + "'");
+            }
+        }
+        if ((operand instanceof Double) && !FeelValues.isFinite(numericOperand)) {
+            throw new UnsupportedConstructException("number " + operand);
+        }
+    }
+
+    private static int toOperatorCode(String operator) {
+        switch (operator) {
+            case "==": return EQ;
+            case "<": return LT;
+            case "<=": return LE;
+            case ">": return GT;
+            case ">=": return GE;
+            default: throw new UnsupportedConstructException("operator '" + operator + "'");
+        }
+    }
+
+    /**
+     * Returns the operator with swapped operands, e.g. "&lt;" for "&gt;", so that "a &gt; x" can be tested as "x &lt; a".
+     * @param operator the operator
+     * @return the operator with swapped operands
+     */
+    public static String swapOperands(String operator) {
+        switch (operator) {
+            case "<": return ">";
+            case "<=": return ">=";
+            case ">": return "<";
+            case ">=": return "<=";
+            default: return operator;
+        }
+    }
+
+    boolean isRelational() {
+        return operator != EQ;
+    }
+
+    Object getOperand() {
+        return operand;
+    }
+
+    @Override
+    public int test(Object value) {
+        if (value == FeelValues.UNDEFINED) {
+            return UNDEFINED;
+        }
+        if (operator == EQ) {
+            return testEquality(value);
+        }
+        if (operand instanceof Double) {
+            if (!FeelValues.isNumber(value)) {
+                return UNSUPPORTED;
+            }
+            double number = ((Number) value).doubleValue();
+            if (!FeelValues.isFinite(number)) {
+                return UNSUPPORTED;
+            }
+            return toResult(Double.compare(number + 0.0d, numericOperand + 0.0d));
+        }
+        if (!(value instanceof String) || ((String) value).isEmpty()) {
+            return UNSUPPORTED;
+        }
+        return toResult(((String) value).compareTo((String) operand));
+    }
+
+    @Override
+    public int testNumber(double number) {
+        if (!(operand instanceof Double)) {
+            // numbers only equal numbers, and are not null
+            return ((operator == EQ) && (operand == null))? FALSE : UNSUPPORTED;
+        }
+        if (!FeelValues.isFinite(number)) {
+            return UNSUPPORTED;
+        }
+        if (operator == EQ) {
+            return (number == numericOperand)? TRUE : FALSE;
+        }
+        return toResult(Double.compare(number + 0.0d, numericOperand + 0.0d));
+    }
+
+    private int testEquality(Object value) {
+        if ((value == null) || (operand == null)) {
+            return (value == operand)? TRUE : FALSE;
+        }
+        if (operand instanceof Double) {
+            if (!FeelValues.isNumber(value)) {
+                return UNSUPPORTED;
+            }
+            double number = ((Number) value).doubleValue();
+            if (!FeelValues.isFinite(number)) {
+                return UNSUPPORTED;
+            }
+            return (number == numericOperand)? TRUE : FALSE;
+        }
+        if (operand.getClass() != value.getClass()) {
+            return UNSUPPORTED;
+        }
+        return operand.equals(value)? TRUE : FALSE;
+    }
+
+    private int toResult(int comparison) {
+        boolean result;
+        switch (operator) {
+            case LT: result = comparison < 0; break;
+            case LE: result = comparison <= 0; break;
+            case GT: result = comparison > 0; break;
+            default: result = comparison >= 0; break;
+        }
+        return result? TRUE : FALSE;
+    }
+
+}
@@ -0,0 +1,220 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+import de.hbt.dmn_eval_java.HitPolicy;
+import de.hbt.dmn_eval_java.impl.InputObjectWrapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A decision table that was compiled into Java objects by the {@link DecisionTableCompiler}, so that it can be
+ * evaluated without a script engine. Compiled decisions are immutable and can be evaluated by any number of threads
+ * in parallel.
+ * <p>
+ * The evaluation follows the semantics of dmn-eval-js. Whenever dmn-eval-js would fail to evaluate the decision for
+ * a given input, or whenever the outcome cannot be determined without a script engine, the evaluation is aborted, so
+ * that the decision is evaluated by the script engine instead.
+ * <p>
+ * The rules of large decision tables are looked up in a {@link RuleIndex}, so that only the candidate rules for an
+ * input are tested. The rules of decision tables with hit policy UNIQUE are analysed by the {@link RuleOverlapAnalysis},
+ * and if no later rule can match after a rule matched, the evaluation stops at the first matching rule.
+ */
+public final class CompiledDecision {
+
+    private final String decisionId;
+    private final HitPolicy hitPolicy;
+    private final InputExpression[] inputExpressions;
+    private final CompiledRule[] rules;
+    private final Map<String, Object> emptyOutput;
+    private final RuleIndex ruleIndex;
+    private final boolean stopAtFirstMatch;
+    private final List<RuleOverlap> overlappingRules;
+
+    CompiledDecision(String decisionId, HitPolicy hitPolicy, InputExpression[] inputExpressions, CompiledRule[] rules,
+                     Map<String, Object> emptyOutput) {
+        this.decisionId = decisionId;
+        this.hitPolicy = hitPolicy;
+        this.inputExpressions = inputExpressions;
+        this.rules = rules;
+        this.emptyOutput = emptyOutput;
+        this.ruleIndex = RuleIndex.build(rules, inputExpressions.length);
+        RuleOverlapAnalysis overlapAnalysis = (hitPolicy == HitPolicy.UNIQUE)? RuleOverlapAnalysis.analyze(rules, inputExpressions) : null;
+        this.stopAtFirstMatch = (hitPolicy == HitPolicy.FIRST) || ((overlapAnalysis != null) && overlapAnalysis.isFirstMatchSufficient());
+        this.overlappingRules = (overlapAnalysis != null)? overlapAnalysis.getOverlaps() : Collections.emptyList();
+    }
+
+    public String getDecisionId() {
+        return decisionId;
+    }
+
+    public HitPolicy getHitPolicy() {
+        return hitPolicy;
+    }
+
+    /**
+     * Evaluates the decision for the given input. The result objects are the outputs of the matched rules, with
+     * nested maps for output names like "output.property", and <code>null</code> values for empty output entries.
+     * If the hit policy is FIRST or UNIQUE and no rule matched, the result is a single object with <code>null</code>
+     * values, like in dmn-eval-js.
+     * @param input the decision input, a map or a Java bean
+     * @return the result objects, or <code>null</code> if the decision must be evaluated by the script engine for this input
+     */
+    public List<Map<String, Object>> evaluate(Object input) {
+        return evaluate(input, null);
+    }
+
+    /**
+     * Evaluates the decision for the given input, like {@link #evaluate(Object)}, and adds the numbers of the matched
+     * rules, starting with 1, to the given list.
+     * @param input the decision input, a map or a Java bean
+     * @param matchedRules the list to add the numbers of the matched rules to, or <code>null</code>
+     * @return the result objects, or <code>null</code> if the decision must be evaluated by the script engine for this input
+     */
+    public List<Map<String, Object>> evaluate(Object input, List<Integer> matchedRules) {
+        if (!(input instanceof Map) && !InputObjectWrapper.isObject(input)) {
+            return null;
+        }
+        Object[] values = new Object[inputExpressions.length];
+        for (int i = 0; i < inputExpressions.length; ++i) {
+            values[i] = inputExpressions[i].resolve(input);
+        }
+        return evaluateValues(values, matchedRules);
+    }
+
+    /**
+     * Evaluates the decision for the given resolved values of its input expressions, like {@link #evaluate(Object, List)}.
+     * @param values the resolved values, one for each input expression, which may be {@link FeelValues#UNDEFINED} or
+     *               {@link FeelValues#UNSUPPORTED}
+     * @param matchedRules the list to add the numbers of the matched rules to, or <code>null</code>
+     * @return the result objects, or <code>null</code> if the decision must be evaluated by the script engine for these values
+     */
+    public List<Map<String, Object>> evaluateValues(Object[] values, List<Integer> matchedRules) {
+        for (Object value: values) {
+            if (value == FeelValues.UNSUPPORTED) {
+                return null;
+            }
+        }
+        BitSet candidates = (ruleIndex != null)? ruleIndex.findCandidates(values) : null;
+        if ((hitPolicy == HitPolicy.FIRST) || (hitPolicy == HitPolicy.UNIQUE)) {
+            CompiledRule matchedRule = null;
+            for (int i = nextRule(candidates, 0); i >= 0; i = nextRule(candidates, i + 1)) {
+                CompiledRule rule = rules[i];
+                int result = rule.matches(values);
+                if (result == UnaryTest.UNSUPPORTED) {
+                    return null;
+                }
+                if (result == UnaryTest.TRUE) {
+                    if (stopAtFirstMatch) {
+                        addMatchedRule(matchedRules, i);
+                        return toResult(rule.getOutput());
+                    }
+                    if (matchedRule != null) {
+                        // let the script engine report the violation of the hit policy
+                        return null;
+                    }
+                    matchedRule = rule;
+                    addMatchedRule(matchedRules, i);
+                }
+            }
+            return toResult((matchedRule != null)? matchedRule.getOutput() : emptyOutput);
+        }
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int i = nextRule(candidates, 0); i >= 0; i = nextRule(candidates, i + 1)) {
+            CompiledRule rule = rules[i];
+            int result = rule.matches(values);
+            if (result == UnaryTest.UNSUPPORTED) {
+                return null;
+            }
+            if (result == UnaryTest.TRUE) {
+                results.add(rule.getOutput());
+                addMatchedRule(matchedRules, i);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Evaluates the decision for many rows at once, whose values are given column by column, one column for each input
+     * expression. The rules are matched against whole columns, and the rows are split into chunks that are evaluated in
+     * parallel by the common fork/join pool, see {@link ColumnarEvaluation}. Numbers in primitive arrays are tested
+     * without boxing them. The result of each row is the same as that of {@link #evaluateValues(Object[], List)} for
+     * the values of the row.
+     * @param columns the values of the input expressions, in the order of the input expressions, each a
+     *                <code>double[]</code>, a <code>long[]</code>, or an <code>Object[]</code> with a value for each row,
+     *                or <code>null</code> if the input expression is undefined for all rows
+     * @param rowCount the number of rows, which is the length of each column
+     * @return the result objects for each row, with <code>null</code> for the rows for which the decision must be
+     *         evaluated by the script engine
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<List<Map<String, Object>>> evaluateColumns(Object[] columns, int rowCount) {
+        if (columns.length != inputExpressions.length) {
+            throw new IllegalArgumentException("Decision '" + decisionId + "' has " + inputExpressions.length + " input expressions, but "
+                    + columns.length + " columns were given.");
+        }
+        List<Map<String, Object>>[] results = new List[rowCount];
+        // the calling thread evaluates small inputs itself, and forks the chunks of larger ones into the common pool
+        new ColumnarEvaluation(this, columns, results).invoke();
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Returns whether the evaluation stops at the first matching rule, which is the case for hit policy FIRST, and for
+     * hit policy UNIQUE if no later rule can match or be unsupported for an input that a rule matched.
+     * @return true if the evaluation stops at the first matching rule
+     */
+    public boolean isStoppingAtFirstMatch() {
+        return stopAtFirstMatch;
+    }
+
+    /**
+     * Returns pairs of rules of a decision table with hit policy UNIQUE that both match some input, for which
+     * dmn-eval-js would fail to evaluate the decision.
+     * @return the first few overlapping rules, or an empty list if there are none, or if the hit policy is not UNIQUE
+     */
+    public List<RuleOverlap> getOverlappingRules() {
+        return overlappingRules;
+    }
+
+    /**
+     * Returns the number of rules of the decision table.
+     * @return the number of rules
+     */
+    public int getRuleCount() {
+        return rules.length;
+    }
+
+    private static void addMatchedRule(List<Integer> matchedRules, int index) {
+        if (matchedRules != null) {
+            matchedRules.add(index + 1);
+        }
+    }
+
+    private int nextRule(BitSet candidates, int index) {
+        if (candidates != null) {
+            return candidates.nextSetBit(index);
+        }
+        return (index < rules.length)? index : -1;
+    }
+
+    CompiledRule[] getRules() {
+        return rules;
+    }
+
+    Map<String, Object> getEmptyOutput() {
+        return emptyOutput;
+    }
+
+    static List<Map<String, Object>> toResult(Map<String, Object> output) {
+        return output.isEmpty()? Collections.emptyList() : Collections.singletonList(output);
+    }
+
+}
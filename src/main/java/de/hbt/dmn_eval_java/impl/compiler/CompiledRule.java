@@ -0,0 +1,50 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+import java.util.Map;
+
+/**
+ * A compiled rule of a decision table, with one test for each input expression and a constant output.
+ */
+final class CompiledRule {
+
+    private final UnaryTest[] tests;
+    private final Map<String, Object> output;
+
+    CompiledRule(UnaryTest[] tests, Map<String, Object> output) {
+        this.tests = tests;
+        this.output = output;
+    }
+
+    /**
+     * Tests the given resolved input values. Like in dmn-eval-js, the tests are applied in order until one of them
+     * is not true.
+     * @param values the resolved values of the input expressions
+     * @return {@link UnaryTest#TRUE} if the rule matches, {@link UnaryTest#FALSE} if it does not match, or
+     *         {@link UnaryTest#UNSUPPORTED} if this cannot be determined without a script engine
+     */
+    int matches(Object[] values) {
+        for (int i = 0; i < tests.length; ++i) {
+            int result = tests[i].test(values[i]);
+            if (result == UnaryTest.UNSUPPORTED) {
+                return UnaryTest.UNSUPPORTED;
+            }
+            if (result != UnaryTest.TRUE) {
+                return UnaryTest.FALSE;
+            }
+        }
+        return UnaryTest.TRUE;
+    }
+
+    UnaryTest[] getTests() {
+        return tests;
+    }
+
+    Map<String, Object> getOutput() {
+        return output;
+    }
+
+}
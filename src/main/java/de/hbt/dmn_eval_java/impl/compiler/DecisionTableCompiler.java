@@ -0,0 +1,373 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+import de.hbt.dmn_eval_java.HitPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles decision tables, as parsed by dmn-eval-js, into {@link CompiledDecision}s that are evaluated without
+ * a script engine. The parsed decision must have been {@linkplain ScriptObjects#toJava(Object) converted} into plain
+ * Java objects before.
+ * <p>
+ * The compiler supports the FEEL constructs that make up most decision tables: input expressions that are qualified names,
+ * input entries that compare with number, string, or boolean literals, intervals of such literals, lists of these tests
+ * and their negation with not(...), and output entries that are literals. Decisions that require other decisions or
+ * contain other constructs are not compiled, and are evaluated by the script engine instead.
+ */
+public final class DecisionTableCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecisionTableCompiler.class);
+
+    // the names of the built-in functions of dmn-eval-js, which take precedence over the input in name resolution
+    private static final Set<String> BUILT_IN_NAMES = new HashSet<>(Arrays.asList("time", "date and time", "date", "duration",
+            "years and months duration", "days and time duration", "setTimezone", "formatDateTime", "formatDate", "formatTime",
+            "format", "listContains", "count", "min", "max", "sum", "mean", "and", "or", "append", "concatenate", "insertBefore",
+            "remove", "reverse", "indexOf", "union", "distinctValues", "flatten", "not", "defined", "isBuiltInFn"));
+
+    // the names of the properties that every Javascript object inherits
+    private static final Set<String> OBJECT_PROPERTY_NAMES = new HashSet<>(Arrays.asList("constructor", "hasOwnProperty",
+            "isPrototypeOf", "propertyIsEnumerable", "toLocaleString", "toString", "valueOf", "__proto__", "__defineGetter__",
+            "__defineSetter__", "__lookupGetter__", "__lookupSetter__"));
+
+    // the types of FEEL nodes whose value depends on nothing but the tested value
+    private static final Set<String> CONSTANT_NODE_TYPES = new HashSet<>(Arrays.asList("SimpleUnaryTestsNode",
+            "SimplePositiveUnaryTest", "Interval", "IntervalStartLiteral", "IntervalEndLiteral", "Literal",
+            "ArithmeticExpression", "ComparisonExpression", "SimpleExpressions"));
+
+    private DecisionTableCompiler() {
+        // prevent instantiation
+    }
+
+    /**
+     * Compiles the given decision.
+     * @param decisionId the id of the decision
+     * @param parsedDecision the decision as parsed by dmn-eval-js and converted into plain Java objects
+     * @return the compiled decision, or <code>null</code> if the decision must be evaluated by the script engine
+     */
+    public static CompiledDecision compile(String decisionId, Object parsedDecision) {
+        try {
+            CompiledDecision compiledDecision = compileDecision(decisionId, asMap(parsedDecision, "decision"));
+            logger.info("Compiled decision '{}' for evaluation without script engine.", decisionId);
+            return compiledDecision;
+        } catch (UnsupportedConstructException e) {
+            logger.info("Decision '{}' is evaluated by the script engine, because it contains an unsupported construct: {}",
+                    decisionId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Finds rules of the given decision that overlap although its hit policy is UNIQUE, see
+     * {@link CompiledDecision#getOverlappingRules()}. This works for decisions that are evaluated by the script engine,
+     * too, as long as the compiler supports their constructs.
+     * @param decisionId the id of the decision
+     * @param parsedDecision the decision as parsed by dmn-eval-js and converted into plain Java objects
+     * @return the overlapping rules, or <code>null</code> if the decision cannot be analysed
+     */
+    public static List<RuleOverlap> findOverlappingRules(String decisionId, Object parsedDecision) {
+        try {
+            return compileDecision(decisionId, asMap(parsedDecision, "decision")).getOverlappingRules();
+        } catch (UnsupportedConstructException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Compiles the input expressions of the given decision, if the result of the decision depends on nothing but the
+     * values of its input expressions, so that the results can be cached by these values. This is the case if the
+     * decision requires no other decisions, its input expressions are qualified names, and its input and output
+     * entries contain no names, function invocations, or date and time literals.
+     * @param parsedDecision the decision as parsed by dmn-eval-js and converted into plain Java objects
+     * @return the compiled input expressions, or <code>null</code> if the result of the decision depends on more
+     */
+    public static InputExpression[] compileInputExpressions(Object parsedDecision) {
+        try {
+            Map<String, Object> decision = asMap(parsedDecision, "decision");
+            if ((decision.get("requiredDecisions") != null) && !asList(decision.get("requiredDecisions"), "required decisions").isEmpty()) {
+                return null;
+            }
+            Map<String, Object> decisionTable = asMap(decision.get("decisionTable"), "decision table");
+            List<Object> parsedInputExpressions = asList(decisionTable.get("parsedInputExpressions"), "input expressions");
+            InputExpression[] inputExpressions = new InputExpression[parsedInputExpressions.size()];
+            for (int i = 0; i < inputExpressions.length; ++i) {
+                inputExpressions[i] = compileInputExpression(parsedInputExpressions.get(i));
+            }
+            for (Object rule: asList(decisionTable.get("rules"), "rules")) {
+                if (!isConstant(asMap(rule, "rule").get("input")) || !isConstant(asMap(rule, "rule").get("output"))) {
+                    return null;
+                }
+            }
+            return inputExpressions;
+        } catch (UnsupportedConstructException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether the value of a FEEL node of the given type depends on nothing but the tested value, provided that
+     * the same holds for its child nodes. The wrapper of dmn-eval-js uses this to build such input and output entries
+     * only once.
+     * @param type the type of the node, as parsed by dmn-eval-js
+     * @return true if the node does not depend on the context of the evaluation
+     */
+    public static boolean isConstantNodeType(String type) {
+        return CONSTANT_NODE_TYPES.contains(type);
+    }
+
+    private static boolean isConstant(Object value) {
+        if (value instanceof List) {
+            for (Object element: (List<?>) value) {
+                if (!isConstant(element)) {
+                    return false;
+                }
+            }
+        } else if (value instanceof Map) {
+            Object type = ((Map<?, ?>) value).get("type");
+            if ((type instanceof String) && !isConstantNodeType((String) type)) {
+                return false;
+            }
+            for (Object propertyValue: ((Map<?, ?>) value).values()) {
+                if (!isConstant(propertyValue)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static CompiledDecision compileDecision(String decisionId, Map<String, Object> decision) {
+        if ((decision.get("requiredDecisions") != null) && !asList(decision.get("requiredDecisions"), "required decisions").isEmpty()) {
+            throw new UnsupportedConstructException("required decisions");
+        }
+        Map<String, Object> decisionTable = asMap(decision.get("decisionTable"), "decision table");
+        HitPolicy hitPolicy = toHitPolicy(decisionTable.get("hitPolicy"));
+
+        List<Object> parsedInputExpressions = asList(decisionTable.get("parsedInputExpressions"), "input expressions");
+        InputExpression[] inputExpressions = new InputExpression[parsedInputExpressions.size()];
+        for (int i = 0; i < inputExpressions.length; ++i) {
+            inputExpressions[i] = compileInputExpression(parsedInputExpressions.get(i));
+        }
+
+        List<String[]> outputNames = new ArrayList<>();
+        for (Object outputName: asList(decisionTable.get("outputNames"), "output names")) {
+            outputNames.add(splitOutputName(outputName));
+        }
+        checkOutputNames(outputNames);
+
+        List<Object> parsedRules = asList(decisionTable.get("rules"), "rules");
+        CompiledRule[] rules = new CompiledRule[parsedRules.size()];
+        for (int i = 0; i < rules.length; ++i) {
+            rules[i] = compileRule(asMap(parsedRules.get(i), "rule"), inputExpressions.length, outputNames);
+        }
+        return new CompiledDecision(decisionId, hitPolicy, inputExpressions, rules, buildOutput(outputNames, new Object[outputNames.size()]));
+    }
+
+    private static HitPolicy toHitPolicy(Object hitPolicy) {
+        if ("FIRST".equals(hitPolicy)) {
+            return HitPolicy.FIRST;
+        }
+        if ("UNIQUE".equals(hitPolicy)) {
+            return HitPolicy.UNIQUE;
+        }
+        if ("COLLECT".equals(hitPolicy)) {
+            return HitPolicy.COLLECT;
+        }
+        if ("RULE ORDER".equals(hitPolicy)) {
+            return HitPolicy.RULE_ORDER;
+        }
+        throw new UnsupportedConstructException("hit policy '" + hitPolicy + "'");
+    }
+
+    private static InputExpression compileInputExpression(Object parsedInputExpression) {
+        List<Object> simpleExpressions = asList(asNode(parsedInputExpression, "SimpleExpressions").get("simpleExpressions"), "input expression");
+        if (simpleExpressions.size() != 1) {
+            throw new UnsupportedConstructException("input expression with " + simpleExpressions.size() + " expressions");
+        }
+        List<Object> nameNodes = asList(asNode(simpleExpressions.get(0), "QualifiedName").get("names"), "qualified name");
+        String[] names = new String[nameNodes.size()];
+        for (int i = 0; i < names.length; ++i) {
+            Object name = asNode(nameNodes.get(i), "Name").get("nameChars");
+            if (!(name instanceof String) || OBJECT_PROPERTY_NAMES.contains(name) || ((i == 0) && BUILT_IN_NAMES.contains(name))) {
+                throw new UnsupportedConstructException("name '" + name + "' in input expression");
+            }
+            names[i] = (String) name;
+        }
+        if (names.length == 0) {
+            throw new UnsupportedConstructException("empty input expression");
+        }
+        return new InputExpression(names);
+    }
+
+    private static String[] splitOutputName(Object outputName) {
+        if (!(outputName instanceof String)) {
+            throw new UnsupportedConstructException("output name '" + outputName + "'");
+        }
+        String[] names = ((String) outputName).split("\\.", -1);
+        for (String name: names) {
+            if (name.isEmpty() || OBJECT_PROPERTY_NAMES.contains(name)) {
+                throw new UnsupportedConstructException("output name '" + outputName + "'");
+            }
+        }
+        return names;
+    }
+
+    private static void checkOutputNames(List<String[]> outputNames) {
+        // dmn-eval-js merges outputs like "a" and "a.b" into the same object, which is not supported
+        for (int i = 0; i < outputNames.size(); ++i) {
+            for (int j = i + 1; j < outputNames.size(); ++j) {
+                String[] first = outputNames.get(i);
+                String[] second = outputNames.get(j);
+                int length = Math.min(first.length, second.length);
+                if (Arrays.equals(Arrays.copyOf(first, length), Arrays.copyOf(second, length))) {
+                    throw new UnsupportedConstructException("overlapping output names '" + String.join(".", first)
+                            + "' and '" + String.join(".", second) + "'");
+                }
+            }
+        }
+    }
+
+    private static CompiledRule compileRule(Map<String, Object> rule, int inputCount, List<String[]> outputNames) {
+        List<Object> inputEntries = asList(rule.get("input"), "input entries");
+        List<Object> outputEntries = asList(rule.get("output"), "output entries");
+        if ((inputEntries.size() != inputCount) || (outputEntries.size() != outputNames.size())) {
+            throw new UnsupportedConstructException("rule " + rule.get("number") + " with a mismatching number of entries");
+        }
+        UnaryTest[] tests = new UnaryTest[inputCount];
+        for (int i = 0; i < inputCount; ++i) {
+            tests[i] = compileInputEntry(inputEntries.get(i));
+        }
+        Object[] outputValues = new Object[outputNames.size()];
+        for (int i = 0; i < outputValues.length; ++i) {
+            outputValues[i] = compileOutputEntry(outputEntries.get(i));
+        }
+        return new CompiledRule(tests, buildOutput(outputNames, outputValues));
+    }
+
+    private static UnaryTest compileInputEntry(Object inputEntry) {
+        Map<String, Object> node = asNode(inputEntry, "SimpleUnaryTestsNode");
+        if (node.get("expr") == null) {
+            return UnaryTest.ANY;
+        }
+        List<Object> expressions = asList(node.get("expr"), "input entry");
+        UnaryTest[] tests = new UnaryTest[expressions.size()];
+        for (int i = 0; i < tests.length; ++i) {
+            Map<String, Object> expression = asMap(expressions.get(i), "input entry");
+            if ("SimplePositiveUnaryTest".equals(expression.get("type"))) {
+                String operator = (expression.get("operator") != null)? String.valueOf(expression.get("operator")) : "==";
+                tests[i] = new ComparisonTest(operator, compileConstant(expression.get("operand")));
+            } else if ("Interval".equals(expression.get("type"))) {
+                // the interval tests "start op x" and "end op x"
+                String startType = String.valueOf(asMap(expression.get("intervalstart"), "interval").get("intervalType"));
+                String endType = String.valueOf(asMap(expression.get("intervalend"), "interval").get("intervalType"));
+                tests[i] = new IntervalTest(new ComparisonTest(ComparisonTest.swapOperands(startType), compileConstant(expression.get("startpoint"))),
+                        new ComparisonTest(ComparisonTest.swapOperands(endType), compileConstant(expression.get("endpoint"))));
+            } else {
+                throw new UnsupportedConstructException(expression.get("type") + " in input entry");
+            }
+        }
+        Object not = node.get("not");
+        boolean negated = (not != null) && !Boolean.FALSE.equals(not) && !"".equals(not);
+        return new UnaryTests(tests, negated);
+    }
+
+    private static Object compileConstant(Object operand) {
+        Map<String, Object> node = asMap(operand, "operand");
+        if ("Literal".equals(node.get("type"))) {
+            Object value = node.get("value");
+            if (FeelValues.isNumber(value)) {
+                return ((Number) value).doubleValue();
+            }
+            if ((value == null) || (value instanceof String) || (value instanceof Boolean)) {
+                return value;
+            }
+            throw new UnsupportedConstructException("literal '" + value + "'");
+        }
+        if ("ArithmeticExpression".equals(node.get("type")) && "-".equals(node.get("operator")) && (node.get("operand_1") == null)) {
+            Object negatedValue = compileConstant(node.get("operand_2"));
+            if (negatedValue instanceof Double) {
+                // dmn-eval-js computes -0 as 0
+                return 0.0d - (Double) negatedValue;
+            }
+        }
+        throw new UnsupportedConstructException(node.get("type") + " as operand");
+    }
+
+    private static Object compileOutputEntry(Object outputEntry) {
+        if (outputEntry == null) {
+            return null;
+        }
+        List<Object> simpleExpressions = asList(asNode(outputEntry, "SimpleExpressions").get("simpleExpressions"), "output entry");
+        if (simpleExpressions.size() > 1) {
+            // dmn-eval-js returns the values of all expressions
+            throw new UnsupportedConstructException(simpleExpressions.size() + " expressions in output entry");
+        }
+        for (Object simpleExpression: simpleExpressions) {
+            if (!"Literal".equals(asMap(simpleExpression, "output entry").get("type"))) {
+                throw new UnsupportedConstructException(asMap(simpleExpression, "output entry").get("type") + " in output entry");
+            }
+        }
+        return simpleExpressions.isEmpty()? null : asMap(simpleExpressions.get(0), "output entry").get("value");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> buildOutput(List<String[]> outputNames, Object[] outputValues) {
+        Map<String, Object> output = new LinkedHashMap<>();
+        for (int i = 0; i < outputValues.length; ++i) {
+            String[] names = outputNames.get(i);
+            Map<String, Object> parent = output;
+            for (int j = 0; j < names.length - 1; ++j) {
+                parent = (Map<String, Object>) parent.computeIfAbsent(names[j], (name) -> new LinkedHashMap<String, Object>());
+            }
+            parent.put(names[names.length - 1], outputValues[i]);
+        }
+        return makeUnmodifiable(output);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> makeUnmodifiable(Map<String, Object> map) {
+        for (Map.Entry<String, Object> entry: map.entrySet()) {
+            if (entry.getValue() instanceof Map) {
+                entry.setValue(makeUnmodifiable((Map<String, Object>) entry.getValue()));
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static Map<String, Object> asNode(Object value, String type) {
+        Map<String, Object> node = asMap(value, type);
+        if (!type.equals(node.get("type"))) {
+            throw new UnsupportedConstructException(node.get("type") + " instead of " + type);
+        }
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value, String description) {
+        if (!(value instanceof Map)) {
+            throw new UnsupportedConstructException("unexpected structure of " + description);
+        }
+        return (Map<String, Object>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> asList(Object value, String description) {
+        if (!(value instanceof List)) {
+            throw new UnsupportedConstructException("unexpected structure of " + description);
+        }
+        return (List<Object>) value;
+    }
+
+}
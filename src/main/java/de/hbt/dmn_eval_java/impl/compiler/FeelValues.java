@@ -0,0 +1,72 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+/**
+ * Utility class for the values that compiled decisions operate on. Input values are plain Java objects, of which
+ * only those are supported that dmn-eval-js treats as numbers, strings, or booleans.
+ */
+public final class FeelValues {
+
+    /**
+     * The value of an input expression that resolved to undefined, e.g. because the input has no such property.
+     */
+    public static final Object UNDEFINED = new Sentinel("undefined");
+
+    /**
+     * The value of an input expression that cannot be resolved without a script engine.
+     */
+    public static final Object UNSUPPORTED = new Sentinel("unsupported");
+
+    private FeelValues() {
+        // prevent instantiation
+    }
+
+    /**
+     * Returns whether the given value is a number in Javascript. Other numeric Java types like {@link Long} are objects
+     * in Javascript, and dmn-eval-js does not compare them.
+     * @param value the value
+     * @return true if the value is a Javascript number
+     */
+    public static boolean isNumber(Object value) {
+        return (value instanceof Integer) || (value instanceof Double) || (value instanceof Short) || (value instanceof Float);
+    }
+
+    /**
+     * Returns whether the given number can be processed by dmn-eval-js, which converts numbers to Big.js decimals
+     * for comparisons. Big.js rejects NaN and infinite numbers.
+     * @param number the number
+     * @return true if the number is finite
+     */
+    public static boolean isFinite(double number) {
+        return !Double.isNaN(number) && !Double.isInfinite(number);
+    }
+
+    /**
+     * Converts the given integer into a Javascript number, i.e. an {@link Integer} if it fits, and a {@link Double}
+     * otherwise, because dmn-eval-js treats a {@link Long} as an object.
+     * @param number the integer
+     * @return the Javascript number
+     */
+    public static Object toNumber(long number) {
+        return (number == (int) number)? (Object) (int) number : (Object) (double) number;
+    }
+
+    private static final class Sentinel {
+
+        private final String name;
+
+        private Sentinel(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+
+    }
+
+}
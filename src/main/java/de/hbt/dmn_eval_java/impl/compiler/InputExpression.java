@@ -0,0 +1,87 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+import de.hbt.dmn_eval_java.DecisionEvaluationException;
+import de.hbt.dmn_eval_java.impl.InputObjectWrapper;
+
+import java.util.Map;
+
+/**
+ * A compiled input expression of a decision table that is a qualified name like "salesLot.packaging". It is resolved
+ * directly against the decision input, with the same view on maps and Java beans that {@link InputObjectWrapper}
+ * provides to dmn-eval-js.
+ */
+public final class InputExpression {
+
+    private final String[] names;
+
+    public InputExpression(String[] names) {
+        this.names = names;
+    }
+
+    /**
+     * Returns the names of the expression, e.g. "salesLot" and "packaging" for "salesLot.packaging".
+     * @return a copy of the names
+     */
+    public String[] getNames() {
+        return names.clone();
+    }
+
+    /**
+     * Resolves the expression against the given decision input.
+     * @param input the decision input, a map or a Java bean
+     * @return the resolved value, {@link FeelValues#UNDEFINED} if the input has no such property, or
+     *         {@link FeelValues#UNSUPPORTED} if the expression cannot be resolved without a script engine
+     */
+    public Object resolve(Object input) {
+        Object value = input;
+        for (String name: names) {
+            value = getProperty(value, name);
+            if ((value == FeelValues.UNDEFINED) || (value == FeelValues.UNSUPPORTED)) {
+                return value;
+            }
+        }
+        return value;
+    }
+
+    private static Object getProperty(Object object, String name) {
+        Object value;
+        if (object instanceof Map) {
+            value = getMapValue((Map<?, ?>) object, name);
+        } else if (InputObjectWrapper.isObject(object)) {
+            InputObjectWrapper.PropertyGetter getter = InputObjectWrapper.getPropertyGetters(object.getClass()).get(name);
+            if (getter == null) {
+                return FeelValues.UNDEFINED;
+            }
+            try {
+                value = getter.get(object);
+            } catch (DecisionEvaluationException e) {
+                // let the script engine report the failure
+                return FeelValues.UNSUPPORTED;
+            }
+        } else {
+            // plain values and functions are no Javascript objects with properties
+            return FeelValues.UNSUPPORTED;
+        }
+        // null values are not supported as decision input
+        return (value == null)? FeelValues.UNSUPPORTED : value;
+    }
+
+    private static Object getMapValue(Map<?, ?> map, String name) {
+        Object value = map.get(name);
+        if ((value != null) || map.containsKey(name)) {
+            return value;
+        }
+        // keys are converted to strings for dmn-eval-js
+        for (Map.Entry<?, ?> entry: map.entrySet()) {
+            if (!(entry.getKey() instanceof String) && name.equals(String.valueOf(entry.getKey()))) {
+                return entry.getValue();
+            }
+        }
+        return FeelValues.UNDEFINED;
+    }
+
+}
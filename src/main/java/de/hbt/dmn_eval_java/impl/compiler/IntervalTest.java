@@ -0,0 +1,63 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+/**
+ * Tests whether the tested value lies within an interval, like the input entries [1..10] or ]1..10[ do.
+ * Like in dmn-eval-js, the outcome is undefined if the outcome of either of the two comparisons is undefined.
+ */
+public final class IntervalTest implements UnaryTest {
+
+    private final ComparisonTest start;
+    private final ComparisonTest end;
+
+    /**
+     * Creates the test from the comparisons with the start and the end point, which must have the tested value
+     * as their left operand.
+     * @param start the comparison with the start point
+     * @param end the comparison with the end point
+     */
+    public IntervalTest(ComparisonTest start, ComparisonTest end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    ComparisonTest getStart() {
+        return start;
+    }
+
+    ComparisonTest getEnd() {
+        return end;
+    }
+
+    @Override
+    public int test(Object value) {
+        int startResult = start.test(value);
+        if (startResult == UNSUPPORTED) {
+            return UNSUPPORTED;
+        }
+        return combine(startResult, end.test(value));
+    }
+
+    @Override
+    public int testNumber(double number) {
+        int startResult = start.testNumber(number);
+        if (startResult == UNSUPPORTED) {
+            return UNSUPPORTED;
+        }
+        return combine(startResult, end.testNumber(number));
+    }
+
+    private static int combine(int startResult, int endResult) {
+        if (endResult == UNSUPPORTED) {
+            return UNSUPPORTED;
+        }
+        if ((startResult == UNDEFINED) || (endResult == UNDEFINED)) {
+            return UNDEFINED;
+        }
+        return ((startResult == TRUE) && (endResult == TRUE))? TRUE : FALSE;
+    }
+
+}
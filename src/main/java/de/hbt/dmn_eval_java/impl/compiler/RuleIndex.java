@@ -0,0 +1,255 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * An index of the rules of a large decision table, which finds the candidate rules for the resolved input values
+ * without testing every rule.
+ * <p>
+ * The tests of a column only compare the tested value with constants, so the outcome of all tests of a column is the
+ * same for all values between two adjacent constants. For each constant and for each gap between two constants, the
+ * index holds the set of rules whose test of the column is true. The candidate rules are the intersection of these
+ * sets over all columns.
+ * <p>
+ * Like in dmn-eval-js, the tests of a rule are applied in order until one of them is not true, and the evaluation
+ * of the decision must be aborted if a test is {@linkplain UnaryTest#UNSUPPORTED not supported}. Therefore, the
+ * columns are intersected in order only as long as no test of the column can be unsupported for the value. All rules
+ * that are no candidates are certain not to match, and the candidates must be tested as before.
+ */
+final class RuleIndex {
+
+    /**
+     * The minimum number of rules of a decision table for which an index is built. Testing a few rules is faster
+     * than looking them up.
+     */
+    static final int MIN_RULES = 8;
+
+    private final int ruleCount;
+    private final ColumnIndex[] columns;
+
+    private RuleIndex(int ruleCount, ColumnIndex[] columns) {
+        this.ruleCount = ruleCount;
+        this.columns = columns;
+    }
+
+    /**
+     * Builds the index of the given rules.
+     * @param rules the compiled rules of the decision table
+     * @param inputCount the number of input expressions of the decision table
+     * @return the index, or <code>null</code> if the rules cannot be indexed or are too few
+     */
+    static RuleIndex build(CompiledRule[] rules, int inputCount) {
+        if ((rules.length < MIN_RULES) || (inputCount == 0)) {
+            return null;
+        }
+        ColumnIndex[] columns = new ColumnIndex[inputCount];
+        for (int i = 0; i < inputCount; ++i) {
+            UnaryTest[] tests = new UnaryTest[rules.length];
+            for (int j = 0; j < rules.length; ++j) {
+                tests[j] = rules[j].getTests()[i];
+            }
+            columns[i] = ColumnIndex.build(tests);
+        }
+        // the columns are only intersected in order
+        return (columns[0] != null)? new RuleIndex(rules.length, columns) : null;
+    }
+
+    /**
+     * Finds the candidate rules for the given resolved input values. All rules that are no candidates do not match.
+     * @param values the resolved values of the input expressions
+     * @return the indexes of the candidate rules
+     */
+    BitSet findCandidates(Object[] values) {
+        BitSet candidates = new BitSet(ruleCount);
+        candidates.set(0, ruleCount);
+        for (int i = 0; (i < columns.length) && (columns[i] != null); ++i) {
+            BitSet matchingRules = columns[i].findMatchingRules(values[i]);
+            if (matchingRules == null) {
+                // the remaining candidates might be unsupported for the value, they must be tested
+                break;
+            }
+            candidates.and(matchingRules);
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Collects the comparisons with constants of which the given test consists.
+     * @return false if the test consists of other tests than comparisons
+     */
+    static boolean collectComparisons(UnaryTest test, List<ComparisonTest> comparisons) {
+        if (test == UnaryTest.ANY) {
+            return true;
+        }
+        if (test instanceof ComparisonTest) {
+            comparisons.add((ComparisonTest) test);
+            return true;
+        }
+        if (test instanceof IntervalTest) {
+            comparisons.add(((IntervalTest) test).getStart());
+            comparisons.add(((IntervalTest) test).getEnd());
+            return true;
+        }
+        if (test instanceof UnaryTests) {
+            for (UnaryTest nestedTest: ((UnaryTests) test).getTests()) {
+                if (!collectComparisons(nestedTest, comparisons)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a supported value that lies strictly between the given points.
+     * @return the value, or <code>null</code> if there is no such value
+     */
+    static Object findValueBetween(Class<?> type, boolean relational, Object lower, Object upper) {
+        Object value;
+        if (type == Double.class) {
+            double number = (lower != null)? Math.nextUp((Double) lower) : Math.nextDown((Double) upper);
+            value = FeelValues.isFinite(number)? number + 0.0d : null;
+        } else if (type == String.class) {
+            // the direct successor of a string, and the smallest string that all operators support
+            value = (lower != null)? lower + "\u0000" : (relational? "\u0000" : "");
+        } else {
+            value = (lower != null)? Boolean.TRUE : Boolean.FALSE;
+        }
+        if ((value == null) || ((lower != null) && (compare(value, lower) <= 0)) || ((upper != null) && (compare(value, upper) >= 0))) {
+            return null;
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object value, Object point) {
+        return ((Comparable<Object>) value).compareTo(point);
+    }
+
+    /**
+     * The index of a single column, holding the rules whose test is true for each range of values of one type.
+     */
+    private static final class ColumnIndex {
+
+        private final Class<?> operandType;
+        private final boolean relational;
+        private final BitSet undefinedRules;
+        private final BitSet nullRules;
+        private final Object[] points;
+        private final BitSet[] pointRules;
+        private final BitSet[] gapRules;
+
+        private ColumnIndex(Class<?> operandType, boolean relational, BitSet undefinedRules, BitSet nullRules,
+                            Object[] points, BitSet[] pointRules, BitSet[] gapRules) {
+            this.operandType = operandType;
+            this.relational = relational;
+            this.undefinedRules = undefinedRules;
+            this.nullRules = nullRules;
+            this.points = points;
+            this.pointRules = pointRules;
+            this.gapRules = gapRules;
+        }
+
+        static ColumnIndex build(UnaryTest[] tests) {
+            List<ComparisonTest> comparisons = new ArrayList<>();
+            for (UnaryTest test: tests) {
+                if (!collectComparisons(test, comparisons)) {
+                    return null;
+                }
+            }
+            Class<?> operandType = null;
+            boolean relational = false;
+            TreeSet<Object> operands = new TreeSet<>();
+            for (ComparisonTest comparison: comparisons) {
+                Object operand = comparison.getOperand();
+                relational |= comparison.isRelational();
+                if (operand == null) {
+                    continue;
+                }
+                if ((operandType != null) && (operandType != operand.getClass())) {
+                    // comparisons with values of different types, no type of value is supported by all tests
+                    return null;
+                }
+                operandType = operand.getClass();
+                operands.add((operand instanceof Double)? (Double) operand + 0.0d : operand);
+            }
+            Object[] points = operands.toArray();
+            BitSet[] pointRules = new BitSet[points.length];
+            BitSet[] gapRules = new BitSet[points.length + 1];
+            for (int i = 0; i < points.length; ++i) {
+                pointRules[i] = findMatchingRules(tests, points[i]);
+            }
+            for (int i = 0; i <= points.length; ++i) {
+                Object value = (operandType == null)? Boolean.TRUE : findValueBetween(operandType, relational,
+                        (i > 0)? points[i - 1] : null, (i < points.length)? points[i] : null);
+                gapRules[i] = (value != null)? findMatchingRules(tests, value) : new BitSet();
+            }
+            return new ColumnIndex(operandType, relational, findMatchingRules(tests, FeelValues.UNDEFINED),
+                    relational? null : findMatchingRules(tests, null), points, pointRules, gapRules);
+        }
+
+        private static BitSet findMatchingRules(UnaryTest[] tests, Object value) {
+            BitSet rules = new BitSet(tests.length);
+            for (int i = 0; i < tests.length; ++i) {
+                if (tests[i].test(value) == UnaryTest.TRUE) {
+                    rules.set(i);
+                }
+            }
+            return rules;
+        }
+
+        /**
+         * Returns the rules whose test of this column is true for the given value.
+         * @param value the resolved value of the input expression
+         * @return the indexes of the rules, or <code>null</code> if a test might be unsupported for the value
+         */
+        BitSet findMatchingRules(Object value) {
+            if (value == FeelValues.UNDEFINED) {
+                return undefinedRules;
+            }
+            if (value == null) {
+                return nullRules;
+            }
+            Object key;
+            if (FeelValues.isNumber(value)) {
+                double number = ((Number) value).doubleValue();
+                if (!FeelValues.isFinite(number) || !isOperandType(Double.class)) {
+                    return null;
+                }
+                key = number + 0.0d;
+            } else if (value instanceof String) {
+                if (!isOperandType(String.class) || (relational && ((String) value).isEmpty())) {
+                    return null;
+                }
+                key = value;
+            } else if (value instanceof Boolean) {
+                if (!isOperandType(Boolean.class)) {
+                    return null;
+                }
+                key = value;
+            } else {
+                return null;
+            }
+            int position = Arrays.binarySearch(points, key);
+            return (position >= 0)? pointRules[position] : gapRules[-position - 1];
+        }
+
+        private boolean isOperandType(Class<?> type) {
+            return (operandType == null) || (operandType == type);
+        }
+
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Two rules of a decision table with hit policy UNIQUE that both match some input, as found by
+ * {@link RuleOverlapAnalysis}. dmn-eval-js fails to evaluate the decision for such inputs.
+ */
+public final class RuleOverlap {
+
+    private final int firstRule;
+    private final int secondRule;
+    private final Map<String, Object> exampleInput;
+
+    RuleOverlap(int firstRule, int secondRule, Map<String, Object> exampleInput) {
+        this.firstRule = firstRule;
+        this.secondRule = secondRule;
+        this.exampleInput = exampleInput;
+    }
+
+    /**
+     * Returns the number of the first rule, starting with 1.
+     * @return the number of the rule
+     */
+    public int getFirstRule() {
+        return firstRule;
+    }
+
+    /**
+     * Returns the number of the second rule, starting with 1.
+     * @return the number of the rule
+     */
+    public int getSecondRule() {
+        return secondRule;
+    }
+
+    /**
+     * Returns an example of the values of the input expressions that both rules match.
+     * @return the values by input expression, with {@link FeelValues#UNDEFINED} for undefined values
+     */
+    public Map<String, Object> getExampleInput() {
+        return exampleInput;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner example = new StringJoiner(", ", " (e.g. ", ")");
+        example.setEmptyValue("");
+        for (Map.Entry<String, Object> value: exampleInput.entrySet()) {
+            example.add(value.getKey() + " = " + ((value.getValue() instanceof String)? "\"" + value.getValue() + "\"" : value.getValue()));
+        }
+        return "rules " + firstRule + " and " + secondRule + example;
+    }
+
+}
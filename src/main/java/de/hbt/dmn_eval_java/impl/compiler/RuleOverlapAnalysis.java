@@ -0,0 +1,222 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Analyses the rules of a decision table with hit policy UNIQUE when it is compiled. dmn-eval-js tests all rules of such
+ * a table, even after a rule matched, to detect a violation of the hit policy. The analysis finds out whether this can
+ * be skipped, and which rules overlap.
+ * <p>
+ * Like for the {@link RuleIndex}, the outcome of all tests of a column is the same for all values of a type between two
+ * adjacent constants that the tests compare with, and for all values of other types. So the outcomes of the tests for a
+ * representative of each such range of values are the outcomes for all values. As the values of the columns are
+ * independent of each other, two rules overlap if both are true for the same representative in every column.
+ * <p>
+ * A later rule need not be tested after an earlier rule matched if it cannot match and cannot be
+ * {@linkplain UnaryTest#UNSUPPORTED unsupported} for the values that the earlier rule matches: its tests are applied in
+ * order, so one of them must be false for all these values before any of them can be unsupported. If this holds for all
+ * pairs of rules, the evaluation can stop at the first matching rule like for hit policy FIRST.
+ */
+final class RuleOverlapAnalysis {
+
+    /**
+     * The maximum number of rules that are analysed, as all pairs of rules are compared.
+     */
+    static final int MAX_RULES = 2000;
+
+    // the overlaps are examples, the first few are enough
+    private static final int MAX_OVERLAPS = 10;
+
+    // representatives of the values whose type none of the tests compares with
+    private static final List<Object> OTHER_VALUES = Arrays.asList(FeelValues.UNDEFINED, null, 0, Double.NaN, "", "\u0000",
+            Boolean.TRUE, Boolean.FALSE, 0L);
+
+    private final boolean firstMatchSufficient;
+    private final List<RuleOverlap> overlaps;
+
+    private RuleOverlapAnalysis(boolean firstMatchSufficient, List<RuleOverlap> overlaps) {
+        this.firstMatchSufficient = firstMatchSufficient;
+        this.overlaps = overlaps;
+    }
+
+    /**
+     * Analyses the given rules.
+     * @param rules the compiled rules of the decision table
+     * @param inputExpressions the input expressions of the decision table
+     * @return the analysis, or <code>null</code> if the rules cannot be analysed
+     */
+    static RuleOverlapAnalysis analyze(CompiledRule[] rules, InputExpression[] inputExpressions) {
+        if (rules.length > MAX_RULES) {
+            return null;
+        }
+        int columnCount = inputExpressions.length;
+        List<List<Object>> representatives = new ArrayList<>(columnCount);
+        // the representatives for which the test of each rule is true, and for which it is unsupported
+        BitSet[][] trueValues = new BitSet[rules.length][columnCount];
+        BitSet[][] unsupportedValues = new BitSet[rules.length][columnCount];
+        for (int i = 0; i < columnCount; ++i) {
+            UnaryTest[] tests = new UnaryTest[rules.length];
+            for (int j = 0; j < rules.length; ++j) {
+                tests[j] = rules[j].getTests()[i];
+            }
+            List<Object> values = findRepresentatives(tests);
+            if (values == null) {
+                return null;
+            }
+            representatives.add(values);
+            for (int j = 0; j < rules.length; ++j) {
+                trueValues[j][i] = new BitSet(values.size());
+                unsupportedValues[j][i] = new BitSet(values.size());
+                for (int k = 0; k < values.size(); ++k) {
+                    int result = tests[j].test(values.get(k));
+                    trueValues[j][i].set(k, result == UnaryTest.TRUE);
+                    unsupportedValues[j][i].set(k, result == UnaryTest.UNSUPPORTED);
+                }
+            }
+        }
+        // columns with the same input expression have the same value, so an overlap of independent values might not exist
+        boolean independentColumns = hasIndependentColumns(inputExpressions);
+        boolean firstMatchSufficient = true;
+        List<RuleOverlap> overlaps = new ArrayList<>();
+        for (int i = 0; i < rules.length; ++i) {
+            if (!canMatch(trueValues[i])) {
+                continue;
+            }
+            for (int j = i + 1; j < rules.length; ++j) {
+                firstMatchSufficient &= isFalseAfterMatch(trueValues[i], trueValues[j], unsupportedValues[j]);
+                if (independentColumns && (overlaps.size() < MAX_OVERLAPS)) {
+                    RuleOverlap overlap = findOverlap(i, j, trueValues, inputExpressions, representatives);
+                    if (overlap != null) {
+                        overlaps.add(overlap);
+                    }
+                }
+            }
+        }
+        return new RuleOverlapAnalysis(firstMatchSufficient, Collections.unmodifiableList(overlaps));
+    }
+
+    /**
+     * Returns a representative of each range of values for which the outcomes of all the given tests are the same.
+     * @return the representatives, or <code>null</code> if the tests are no comparisons with constants
+     */
+    private static List<Object> findRepresentatives(UnaryTest[] tests) {
+        List<ComparisonTest> comparisons = new ArrayList<>();
+        for (UnaryTest test: tests) {
+            if (!RuleIndex.collectComparisons(test, comparisons)) {
+                return null;
+            }
+        }
+        Set<Object> values = new LinkedHashSet<>(OTHER_VALUES);
+        for (Class<?> type: Arrays.asList(Double.class, String.class, Boolean.class)) {
+            TreeSet<Object> points = new TreeSet<>();
+            boolean relational = false;
+            for (ComparisonTest comparison: comparisons) {
+                Object operand = comparison.getOperand();
+                if ((operand != null) && (operand.getClass() == type)) {
+                    points.add((operand instanceof Double)? (Double) operand + 0.0d : operand);
+                    relational |= comparison.isRelational();
+                }
+            }
+            Object lower = null;
+            for (Object point: points) {
+                addRepresentative(values, RuleIndex.findValueBetween(type, relational, lower, point));
+                values.add(point);
+                lower = point;
+            }
+            if (lower != null) {
+                addRepresentative(values, RuleIndex.findValueBetween(type, relational, lower, null));
+            }
+        }
+        return new ArrayList<>(values);
+    }
+
+    private static void addRepresentative(Set<Object> values, Object value) {
+        // there is no value between adjacent points
+        if (value != null) {
+            values.add(value);
+        }
+    }
+
+    private static boolean hasIndependentColumns(InputExpression[] inputExpressions) {
+        Set<List<String>> names = new HashSet<>();
+        for (InputExpression inputExpression: inputExpressions) {
+            if (!names.add(Arrays.asList(inputExpression.getNames()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean canMatch(BitSet[] trueValues) {
+        for (BitSet values: trueValues) {
+            if (values.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the later rule is false for all values that the earlier rule matches.
+     */
+    private static boolean isFalseAfterMatch(BitSet[] matchedValues, BitSet[] trueValues, BitSet[] unsupportedValues) {
+        for (int i = 0; i < matchedValues.length; ++i) {
+            if (matchedValues[i].intersects(unsupportedValues[i])) {
+                return false;
+            }
+            if (!matchedValues[i].intersects(trueValues[i])) {
+                return true;
+            }
+        }
+        // both rules match some values
+        return false;
+    }
+
+    private static RuleOverlap findOverlap(int firstRule, int secondRule, BitSet[][] trueValues, InputExpression[] inputExpressions,
+                                           List<List<Object>> representatives) {
+        Map<String, Object> exampleInput = new LinkedHashMap<>();
+        for (int i = 0; i < inputExpressions.length; ++i) {
+            BitSet commonValues = (BitSet) trueValues[firstRule][i].clone();
+            commonValues.and(trueValues[secondRule][i]);
+            if (commonValues.isEmpty()) {
+                return null;
+            }
+            Object value = representatives.get(i).get(commonValues.nextSetBit(0));
+            exampleInput.put(String.join(".", inputExpressions[i].getNames()), value);
+        }
+        return new RuleOverlap(firstRule + 1, secondRule + 1, Collections.unmodifiableMap(exampleInput));
+    }
+
+    /**
+     * Returns whether the evaluation of the decision can stop at the first matching rule, because no later rule can
+     * match or be unsupported for the values that an earlier rule matches.
+     * @return true if the first matching rule is the result
+     */
+    boolean isFirstMatchSufficient() {
+        return firstMatchSufficient;
+    }
+
+    /**
+     * Returns pairs of rules that both match some input, at most the first few of them. Nothing is reported if the
+     * decision table has the same input expression twice.
+     * @return the overlapping rules
+     */
+    List<RuleOverlap> getOverlaps() {
+        return overlaps;
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utility class to convert Javascript objects into plain Java objects, so that they can be processed without
+ * a script engine. Objects become maps, arrays become lists, and undefined values as well as functions become
+ * <code>null</code>. The source locations that the FEEL parser attaches to each AST node are dropped.
+ * <p>
+ * Only Nashorn returns Javascript objects, GraalJS returns plain Java objects already. Nashorn is not part of the JDK
+ * from Java 15 on, so the methods only touch the Nashorn API if it is available.
+ */
+public final class ScriptObjects {
+
+    private static final String LOCATION_PROPERTY = "loc";
+    private static final boolean NASHORN_AVAILABLE = isNashornAvailable();
+
+    private ScriptObjects() {
+        // prevent instantiation
+    }
+
+    /**
+     * Converts the given value deeply into plain Java objects. This must be called by the thread that currently
+     * uses the script engine of the value.
+     * @param value the value as returned by the script engine
+     * @return the converted value
+     */
+    public static Object toJava(Object value) {
+        if (isUndefined(value)) {
+            return null;
+        }
+        if (!isScriptObject(value)) {
+            return value;
+        }
+        ScriptObjectMirror mirror = (ScriptObjectMirror) value;
+        if (mirror.isFunction()) {
+            return null;
+        }
+        if (mirror.isArray()) {
+            // arrays with string keys (like the parsed DMN definitions) have a length of 0, so only real arrays are converted to lists
+            int length = ((Number) mirror.getMember("length")).intValue();
+            if ((length > 0) || mirror.isEmpty()) {
+                List<Object> list = new ArrayList<>(length);
+                for (int i = 0; i < length; ++i) {
+                    list.add(toJava(mirror.getSlot(i)));
+                }
+                return list;
+            }
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (String key: mirror.keySet()) {
+            if (!LOCATION_PROPERTY.equals(key)) {
+                map.put(key, toJava(mirror.get(key)));
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Converts the given decision result deeply into plain Java objects, like {@link #toJava(Object)}, but keeps
+     * undefined values as {@link FeelValues#UNDEFINED}, and keeps all properties. The value must consist of plain
+     * objects, arrays, and primitive values only.
+     * @param value the decision result as returned by the script engine
+     * @return the converted value
+     */
+    public static Object toJavaValue(Object value) {
+        if (isUndefined(value)) {
+            return FeelValues.UNDEFINED;
+        }
+        if (!isScriptObject(value)) {
+            return value;
+        }
+        ScriptObjectMirror mirror = (ScriptObjectMirror) value;
+        if (mirror.isArray()) {
+            int length = ((Number) mirror.getMember("length")).intValue();
+            List<Object> list = new ArrayList<>(length);
+            for (int i = 0; i < length; ++i) {
+                list.add(toJavaValue(mirror.getSlot(i)));
+            }
+            return list;
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (String key: mirror.keySet()) {
+            map.put(key, toJavaValue(mirror.get(key)));
+        }
+        return map;
+    }
+
+    /**
+     * Checks whether the given value is the undefined value of Nashorn.
+     * @param value the value as returned by the script engine
+     * @return <code>true</code> if the value is undefined
+     */
+    public static boolean isUndefined(Object value) {
+        return NASHORN_AVAILABLE && ScriptObjectMirror.isUndefined(value);
+    }
+
+    /**
+     * Checks whether the given value is a Javascript object of Nashorn.
+     * @param value the value as returned by the script engine
+     * @return <code>true</code> if the value is a Javascript object
+     */
+    public static boolean isScriptObject(Object value) {
+        return NASHORN_AVAILABLE && (value instanceof ScriptObjectMirror);
+    }
+
+    /**
+     * Checks whether the given value is a Javascript function of Nashorn.
+     * @param value the value as returned by the script engine
+     * @return <code>true</code> if the value is a function
+     */
+    public static boolean isFunction(Object value) {
+        return isScriptObject(value) && ((ScriptObjectMirror) value).isFunction();
+    }
+
+    /**
+     * Checks whether the given value is a Javascript array of Nashorn or a collection.
+     * @param value the value as returned by the script engine
+     * @return <code>true</code> if the value is an array
+     */
+    public static boolean isArray(Object value) {
+        return (value instanceof Collection) || (isScriptObject(value) && ((ScriptObjectMirror) value).isArray());
+    }
+
+    /**
+     * Returns the elements of the given Javascript array or list, without converting them. Arrays that Nashorn converted
+     * into maps with the indices as keys are supported as well.
+     * @param array the array as returned by the script engine
+     * @return the elements of the array
+     */
+    public static List<Object> toList(Object array) {
+        if (array instanceof List) {
+            @SuppressWarnings("unchecked")
+            List<Object> list = (List<Object>) array;
+            return list;
+        }
+        List<Object> list = new ArrayList<>();
+        if (isScriptObject(array) && ((ScriptObjectMirror) array).isArray()) {
+            ScriptObjectMirror mirror = (ScriptObjectMirror) array;
+            int length = ((Number) mirror.getMember("length")).intValue();
+            for (int i = 0; i < length; ++i) {
+                list.add(mirror.getSlot(i));
+            }
+        } else {
+            Map<?, ?> pseudoArray = (Map<?, ?>) array;
+            for (int i = 0; i < pseudoArray.size(); ++i) {
+                list.add(pseudoArray.get(String.valueOf(i)));
+            }
+        }
+        return list;
+    }
+
+    private static boolean isNashornAvailable() {
+        try {
+            Class.forName("jdk.nashorn.api.scripting.ScriptObjectMirror", false, ScriptObjects.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+/**
+ * A compiled input entry of a decision table, which tests the resolved value of an input expression.
+ * Like in dmn-eval-js, the outcome of a test may be undefined, e.g. if the tested value is undefined. If dmn-eval-js
+ * would fail to evaluate the test, or if the outcome cannot be determined without a script engine, the outcome is
+ * {@link #UNSUPPORTED}, and the decision must be evaluated by the script engine instead.
+ */
+@FunctionalInterface
+public interface UnaryTest {
+
+    int FALSE = 0;
+    int TRUE = 1;
+    int UNDEFINED = 2;
+    int UNSUPPORTED = 3;
+
+    /**
+     * The test of the input entry "-", which matches any value.
+     */
+    UnaryTest ANY = (value) -> TRUE;
+
+    /**
+     * Tests the given value.
+     * @param value the resolved value of the input expression, which may be {@link FeelValues#UNDEFINED}
+     * @return one of {@link #FALSE}, {@link #TRUE}, {@link #UNDEFINED}, or {@link #UNSUPPORTED}
+     */
+    int test(Object value);
+
+    /**
+     * Tests the given number, like {@link #test(Object)} tests it as a {@link Double}, but without boxing it.
+     * @param number the resolved value of the input expression
+     * @return one of {@link #FALSE}, {@link #TRUE}, {@link #UNDEFINED}, or {@link #UNSUPPORTED}
+     */
+    default int testNumber(double number) {
+        return test(number);
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+/**
+ * A list of tests, like the input entries "A", "B" or not("A", "B"). Like in dmn-eval-js, all tests are applied.
+ * Without negation, the outcome is true if any test is true; otherwise, it is undefined if any test is undefined.
+ * With negation, the outcome is false if any test is true; otherwise, it is undefined if any test is undefined.
+ */
+public final class UnaryTests implements UnaryTest {
+
+    private final UnaryTest[] tests;
+    private final boolean negated;
+
+    public UnaryTests(UnaryTest[] tests, boolean negated) {
+        this.tests = tests;
+        this.negated = negated;
+    }
+
+    UnaryTest[] getTests() {
+        return tests;
+    }
+
+    @Override
+    public int test(Object value) {
+        boolean anyTrue = false;
+        boolean anyUndefined = false;
+        for (UnaryTest test: tests) {
+            int result = test.test(value);
+            if (result == UNSUPPORTED) {
+                return UNSUPPORTED;
+            }
+            anyTrue |= (result == TRUE);
+            anyUndefined |= (result == UNDEFINED);
+        }
+        return combine(anyTrue, anyUndefined);
+    }
+
+    @Override
+    public int testNumber(double number) {
+        boolean anyTrue = false;
+        boolean anyUndefined = false;
+        for (UnaryTest test: tests) {
+            int result = test.testNumber(number);
+            if (result == UNSUPPORTED) {
+                return UNSUPPORTED;
+            }
+            anyTrue |= (result == TRUE);
+            anyUndefined |= (result == UNDEFINED);
+        }
+        return combine(anyTrue, anyUndefined);
+    }
+
+    private int combine(boolean anyTrue, boolean anyUndefined) {
+        if (anyTrue) {
+            return negated? FALSE : TRUE;
+        }
+        if (anyUndefined) {
+            return UNDEFINED;
+        }
+        return negated? TRUE : FALSE;
+    }
+
+}
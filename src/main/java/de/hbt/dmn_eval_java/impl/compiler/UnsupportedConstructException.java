@@ -0,0 +1,19 @@
+/*
+ *  ©2018 HBT Hamburger Berater Team GmbH
+ *  All Rights Reserved.
+ */
+package de.hbt.dmn_eval_java.impl.compiler;
+
+/**
+ * Thrown if a decision contains a construct that the {@link DecisionTableCompiler} does not support.
+ * Such decisions are evaluated by the script engine.
+ */
+public class UnsupportedConstructException extends RuntimeException {
+
+    static final long serialVersionUID = 0L;
+
+    public UnsupportedConstructException(String message) {
+        super(message);
+    }
+
+}
@@ -30,19 +30,302 @@ function unwrapInput(wrappedInput) {
     if (wrappedInput.type === 'map') {
         var unwrappedInput = {};
         wrappedInput.properties.forEach(function (property) {
-            unwrappedInput[property] = unwrapInput(wrappedInput.value[property]);
+            unwrappedInput[property] = unwrapInput(wrappedInput.value.get(property));
         });
         return unwrappedInput;
     }
     throw new Error('Unsupported wrapped input type: ' + wrappedInput.type);
 }
 
-function newDmnEvalJsWrapper(dmnEvalJs) {
-    return new Packages.de.hbt.dmn_eval_java.impl.DmnEvalJsWrapper() {
-        parseDmnXml: dmnEvalJs.decisionTable.parseDmnXml,
+var LazyInputObject = Java.type('de.hbt.dmn_eval_java.impl.LazyInputObject');
+var WrappedInputObject = Java.type('de.hbt.dmn_eval_java.impl.WrappedInputObject');
+var Throwable = Java.type('java.lang.Throwable');
+
+function unwrapLazyInput(value) {
+    if (value instanceof LazyInputObject) {
+        // resolve the properties of the view only when they are read
+        return new JSAdapter({
+            __get__: function (name) {
+                return value.hasProperty(name) ? unwrapLazyInput(value.getProperty(name)) : undefined;
+            },
+            __has__: function (name) {
+                return value.hasProperty(name);
+            },
+            __getIds__: function () {
+                return Java.from(value.getProperties());
+            },
+            __call__: function () {
+                // the input has no methods, like toJSON(), so JSON.stringify() does not resolve the whole view
+                return undefined;
+            }
+        });
+    }
+    if (value instanceof WrappedInputObject) {
+        return unwrapInput(value);
+    }
+    return value;
+}
+
+function unwrapLazyInputObject(lazyInput) {
+    // dmn-eval-js copies the top level properties of the input, so they are resolved right away
+    var input = {};
+    lazyInput.getProperties().forEach(function (property) {
+        input[property] = unwrapLazyInput(lazyInput.getProperty(property));
+    });
+    return input;
+}
+
+// FEEL expressions that produce every type of node of the FEEL syntax tree, to find the prototypes of the node types
+var prototypeSamples = {
+    inputEntries: ['-', '"A", "B"', 'not("C")', '< 10', '[1..10]', '(1..10)', '>= 1.5', '> a.b', '>= date("2018-01-01")',
+        '<= date and time("2018-01-01T00:00:00")', '> time("10:00:00")', '> duration("P1D")'],
+    outputEntries: ['a.b + 1', 'a * 2 - 1', 'f(1, 2)', 'a < 1', 'true', 'null', '"A"', '1.5', '-1', 'date("2018-01-01")']
+};
+
+function findNodePrototypes(value, nodePrototypes) {
+    if (value !== null && typeof value === 'object') {
+        if (typeof value.type === 'string' && Object.getPrototypeOf(value) !== Object.prototype) {
+            nodePrototypes[value.type] = Object.getPrototypeOf(value);
+        }
+        Object.keys(value).forEach(function (key) {
+            findNodePrototypes(value[key], nodePrototypes);
+        });
+    }
+}
+
+function collectNodePrototypes(dmnEvalJs) {
+    var nodePrototypes = {};
+    var sampleTexts = prototypeSamples.inputEntries.map(function (text) {
+        return { input: text, output: '1' };
+    }).concat(prototypeSamples.outputEntries.map(function (text) {
+        return { input: '-', output: text };
+    }));
+    sampleTexts.forEach(function (sample) {
+        var drgElement = {
+            id: 'sample',
+            decisionTable: {
+                hitPolicy: 'COLLECT',
+                rule: [{ inputEntry: [{ text: sample.input }], outputEntry: [{ text: sample.output }] }],
+                input: [{ inputExpression: { text: 'a.b' } }],
+                output: [{ name: 'output' }]
+            }
+        };
+        try {
+            findNodePrototypes(dmnEvalJs.decisionTable.parseDecisions([drgElement]), nodePrototypes);
+        } catch (e) {
+            // the sample is not supported by this version of dmn-eval-js
+        }
+    });
+    return nodePrototypes;
+}
+
+function serializeDefinitions(parsedDefinitions) {
+    // the parsed decisions are named properties of an array, which JSON.stringify() would skip
+    var decisions = {};
+    Object.keys(parsedDefinitions).forEach(function (decisionId) {
+        decisions[decisionId] = parsedDefinitions[decisionId];
+    });
+    return JSON.stringify(decisions);
+}
+
+function deserializeDefinitions(snapshot, nodePrototypes) {
+    return JSON.parse(snapshot, function (key, value) {
+        if (value !== null && typeof value === 'object' && !Array.isArray(value) && typeof value.type === 'string') {
+            var nodePrototype = nodePrototypes[value.type];
+            if (nodePrototype === undefined) {
+                throw new Error('Unsupported type of FEEL node in snapshot: ' + value.type);
+            }
+            var node = Object.create(nodePrototype);
+            Object.keys(value).forEach(function (property) {
+                node[property] = value[property];
+            });
+            return node;
+        }
+        return value;
+    });
+}
+
+// knows the types of FEEL nodes whose value does not depend on the context of the evaluation, i.e. on the decision input
+var DecisionTableCompiler = Java.type('de.hbt.dmn_eval_java.impl.compiler.DecisionTableCompiler');
+
+function isConstantNode(value) {
+    if (value === null || typeof value !== 'object') {
+        return true;
+    }
+    if (typeof value.type === 'string' && !DecisionTableCompiler.isConstantNodeType(value.type)) {
+        return false;
+    }
+    return Object.keys(value).every(function (key) {
+        return isConstantNode(value[key]);
+    });
+}
+
+function isPrimitive(value) {
+    return value === null || typeof value !== 'object';
+}
+
+function precompileEntry(entry, isInputEntry) {
+    if (entry === null || !isConstantNode(entry)) {
+        return;
+    }
+    var built;
+    try {
+        built = entry.build({});
+    } catch (e) {
+        // the entry fails again when the rule is evaluated, which reports the failure
+        return;
+    }
+    if (!isInputEntry && !built.every(isPrimitive)) {
+        // objects in the decision result must not be shared between evaluations
+        return;
+    }
+    // not enumerable, so that neither snapshots nor the compiler of dmn-eval-java see it
+    Object.defineProperty(entry, 'build', {
+        value: function () {
+            return built;
+        }
+    });
+}
+
+function precompileRules(parsedDefinitions) {
+    // dmn-eval-js builds the test of every input entry and the value of every output entry again for each evaluation
+    Object.keys(parsedDefinitions).forEach(function (decisionId) {
+        parsedDefinitions[decisionId].decisionTable.rules.forEach(function (rule) {
+            rule.input.forEach(function (inputEntry) {
+                precompileEntry(inputEntry, true);
+            });
+            rule.output.forEach(function (outputEntry) {
+                precompileEntry(outputEntry, false);
+            });
+        });
+    });
+    return parsedDefinitions;
+}
+
+var FeelValues = Java.type('de.hbt.dmn_eval_java.impl.compiler.FeelValues');
+var JavaList = Java.type('java.util.List');
+var JavaMap = Java.type('java.util.Map');
+
+// whether a decision result consists of plain objects, arrays and primitive values, so that it can be passed to another global scope
+function isPlainValue(value) {
+    if (value === null || typeof value !== 'object') {
+        return typeof value !== 'function';
+    }
+    if (Array.isArray(value)) {
+        return value.every(isPlainValue);
+    }
+    if (!(value instanceof Object) || Object.getPrototypeOf(value) !== Object.prototype) {
+        // Java objects, dates, durations etc.
+        return false;
+    }
+    return Object.keys(value).every(function (key) {
+        return isPlainValue(value[key]);
+    });
+}
+
+// converts a decision result that was converted to Java by another global scope back into Javascript
+function importValue(value) {
+    if (value === FeelValues.UNDEFINED) {
+        return undefined;
+    }
+    if (value instanceof JavaList) {
+        var array = [];
+        value.forEach(function (element) {
+            array.push(importValue(element));
+        });
+        return array;
+    }
+    if (value instanceof JavaMap) {
+        var object = {};
+        value.forEach(function (key, property) {
+            object[key] = importValue(property);
+        });
+        return object;
+    }
+    return value;
+}
+
+// like mergeContext() of dmn-eval-js, for plain decision results
+function mergeContext(context, additionalContent, aggregate) {
+    if (Array.isArray(additionalContent)) {
+        additionalContent.forEach(function (ruleResult) {
+            mergeContext(context, ruleResult, true);
+        });
+        return;
+    }
+    Object.keys(additionalContent).forEach(function (property) {
+        var value = additionalContent[property];
+        if (Array.isArray(context[property])) {
+            if (Array.isArray(value)) {
+                context[property] = context[property].concat(value);
+            } else if (value !== null && value !== undefined) {
+                context[property].push(value);
+            }
+        } else if (typeof value === 'object' && value !== null) {
+            if (context[property] === undefined || context[property] === null) {
+                context[property] = {};
+            }
+            mergeContext(context[property], value, aggregate);
+        } else if (aggregate) {
+            context[property] = [value];
+        } else {
+            context[property] = value;
+        }
+    });
+}
+
+// the functions of the DmnEvalJsWrapper, GraalJS calls them by name
+function createDmnEvalJsFunctions(dmnEvalJs) {
+    var nodePrototypes;
+    return {
+        parseDmnXml: function(dmnXml) {
+            return dmnEvalJs.decisionTable.parseDmnXml(dmnXml).then(precompileRules);
+        },
+        serializeDmnDefinition: serializeDefinitions,
+        deserializeDmnDefinition: function(snapshot) {
+            if (nodePrototypes === undefined) {
+                nodePrototypes = collectNodePrototypes(dmnEvalJs);
+            }
+            return precompileRules(deserializeDefinitions(snapshot, nodePrototypes));
+        },
         evaluateDecision: function(decisionId, parsedDecision, wrappedInput) {
             var input = unwrapInput(wrappedInput);
             return dmnEvalJs.decisionTable.evaluateDecision(decisionId, parsedDecision, input);
+        },
+        evaluateDecisionLazily: function(decisionId, parsedDecision, lazyInput) {
+            return dmnEvalJs.decisionTable.evaluateDecision(decisionId, parsedDecision, unwrapLazyInputObject(lazyInput));
+        },
+        evaluateDecisionWithResults: function(decisionId, parsedDecision, decisionInput, requiredResults) {
+            var context = (decisionInput instanceof LazyInputObject) ? unwrapLazyInputObject(decisionInput) : unwrapInput(decisionInput);
+            requiredResults.forEach(function (requiredResult) {
+                mergeContext(context, importValue(requiredResult));
+            });
+            if (parsedDecision[decisionId] === undefined) {
+                throw new Error('No such decision "' + decisionId + '"');
+            }
+            // the results of the required decisions are merged already, so they are not evaluated again
+            var decisions = {};
+            decisions[decisionId] = Object.create(parsedDecision[decisionId]);
+            decisions[decisionId].requiredDecisions = [];
+            var result = dmnEvalJs.decisionTable.evaluateDecision(decisionId, decisions, context);
+            return { result: result, plain: isPlainValue(result) };
+        },
+        evaluateDecisions: function(decisionId, parsedDecision, decisionInputs) {
+            var results = [];
+            decisionInputs.forEach(function (decisionInput) {
+                try {
+                    var input = (decisionInput instanceof LazyInputObject) ? unwrapLazyInputObject(decisionInput) : unwrapInput(decisionInput);
+                    results.push({ result: dmnEvalJs.decisionTable.evaluateDecision(decisionId, parsedDecision, input) });
+                } catch (e) {
+                    results.push({ error: (e instanceof Throwable) ? e : String(e) });
+                }
+            });
+            return results;
         }
     };
 }
+
+function newDmnEvalJsWrapper(dmnEvalJs) {
+    var DmnEvalJsWrapper = Java.type('de.hbt.dmn_eval_java.impl.DmnEvalJsWrapper');
+    return new DmnEvalJsWrapper(createDmnEvalJsFunctions(dmnEvalJs));
+}
@@ -1,19 +1,42 @@
 package de.hbt.dmn_eval_java;
 
+import de.hbt.dmn_eval_java.impl.DmnSnapshotStore;
+import de.hbt.dmn_eval_java.impl.compiler.InputExpression;
 import org.junit.Test;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class DecisionServiceTest {
 
@@ -39,6 +62,358 @@ public class DecisionServiceTest {
         assertEquals(30, output.getSingleResult().getMatchingScore().intValue());
     }
 
+    @Test
+    public void testBatchEvaluation() throws InterruptedException, ExecutionException, TimeoutException {
+        DecisionService decisionService = new DecisionService();
+        decisionService.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn").get(10, TimeUnit.SECONDS);
+
+        Map<String, Object> input = new HashMap<>();
+        ContractLot salesLot = new ContractLot();
+        ContractLot purchaseLot = new ContractLot();
+        salesLot.setPackaging("Bulk");
+        purchaseLot.setPackaging("Bulk");
+        input.put("purchaseLot", purchaseLot);
+        input.put("salesLot", salesLot);
+        Map<String, Object> repackagingInput = new HashMap<>(input);
+        ContractLot bagsLot = new ContractLot();
+        bagsLot.setPackaging("Bags");
+        repackagingInput.put("salesLot", bagsLot);
+        Map<String, Object> invalidInput = new HashMap<>(input);
+        invalidInput.put("purchaseLot", Collections.singletonMap("packaging", 5));
+        List<Object> inputs = Arrays.asList(repackagingInput, input, "no input", invalidInput, input);
+        List<BatchEvaluationResult<MatchingScoreResult>> results = decisionService.evaluateDecisions("decisionPackagingMatchingScore", inputs, MatchingScoreResult.class);
+        assertEquals(5, results.size());
+        assertEquals(0, results.get(0).getResult().getSingleResult().getMatchingScore().intValue());
+        assertEquals(30, results.get(1).getResult().getSingleResult().getMatchingScore().intValue());
+        // failures are reported per input
+        assertFalse(results.get(2).isSuccessful());
+        assertFalse(results.get(3).isSuccessful());
+        assertNotNull(results.get(3).getException());
+        assertEquals(30, results.get(4).getResult().getSingleResult().getMatchingScore().intValue());
+
+        List<Integer> matchingScores = decisionService.evaluateDecisions("decisionPackagingMatchingScore", inputs.iterator(), MatchingScoreResult.class)
+                .filter(BatchEvaluationResult::isSuccessful)
+                .map(result -> result.getResult().getSingleResult().getMatchingScore())
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList(0, 30, 30), matchingScores);
+    }
+
+    @Test
+    public void testEnginePool() throws InterruptedException, ExecutionException, TimeoutException {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setEnginePoolSize(2);
+        configuration.setMinIdleEngines(2);
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            assertEquals(2, decisionService.getStartupMetrics().getBootstrappedEngines());
+            Future<Decision> decisionFuture = decisionService.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn");
+            assertEquals("decisionPackagingMatchingScore", decisionFuture.get(10, TimeUnit.SECONDS).getDecisionId());
+
+            ExecutorService executorService = Executors.newFixedThreadPool(4);
+            List<Future<Integer>> matchingScores = new ArrayList<>();
+            for (int i = 0; i < 20; ++i) {
+                String salesPackaging = (i % 2 == 0)? "Bags": "Bulk";
+                matchingScores.add(executorService.submit(() -> {
+                    Map<String, Object> input = new HashMap<>();
+                    ContractLot salesLot = new ContractLot();
+                    ContractLot purchaseLot = new ContractLot();
+                    salesLot.setPackaging(salesPackaging);
+                    purchaseLot.setPackaging("Bulk");
+                    input.put("purchaseLot", purchaseLot);
+                    input.put("salesLot", salesLot);
+                    return decisionService.evaluateDecision("decisionPackagingMatchingScore", input, MatchingScoreResult.class)
+                            .getSingleResult().getMatchingScore();
+                }));
+            }
+            for (int i = 0; i < 20; ++i) {
+                assertEquals((i % 2 == 0)? 0: 30, matchingScores.get(i).get(1, TimeUnit.MINUTES).intValue());
+            }
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testAsyncEvaluation() throws InterruptedException, ExecutionException, TimeoutException {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setEnginePoolSize(2);
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            decisionService.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn").get(10, TimeUnit.SECONDS);
+
+            List<CompletableFuture<Integer>> asyncMatchingScores = new ArrayList<>();
+            for (int i = 0; i < 20; ++i) {
+                Map<String, Object> input = new HashMap<>();
+                ContractLot salesLot = new ContractLot();
+                ContractLot purchaseLot = new ContractLot();
+                salesLot.setPackaging((i % 2 == 0)? "Bags": "Bulk");
+                purchaseLot.setPackaging("Bulk");
+                input.put("purchaseLot", purchaseLot);
+                input.put("salesLot", salesLot);
+                asyncMatchingScores.add(decisionService.evaluateDecisionAsync("decisionPackagingMatchingScore", input, MatchingScoreResult.class)
+                        .thenApply(result -> result.getSingleResult().getMatchingScore()));
+            }
+            for (int i = 0; i < 20; ++i) {
+                assertEquals((i % 2 == 0)? 0: 30, asyncMatchingScores.get(i).get(1, TimeUnit.MINUTES).intValue());
+            }
+        }
+    }
+
+    @Test
+    public void testParallelRegistrations() throws InterruptedException, ExecutionException, TimeoutException {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setAsyncQueueCapacity(1);
+        configuration.setAsyncQueueFullPolicy(QueueFullPolicy.REJECT);
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            // registrations do not count towards the capacity of the queue of asynchronous evaluations
+            List<CompletableFuture<Decision>> registrations = new ArrayList<>();
+            for (int i = 0; i < 5; ++i) {
+                registrations.add(decisionService.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn"));
+            }
+            for (CompletableFuture<Decision> registration: registrations) {
+                assertEquals("decisionPackagingMatchingScore", registration.get(1, TimeUnit.MINUTES).getDecisionId());
+            }
+        }
+    }
+
+    @Test
+    public void testNativeCompilation() throws InterruptedException, ExecutionException, TimeoutException {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setNativeCompilationEnabled(true);
+        configuration.setEnginePoolSize(2);
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            // registration futures complete without calling get()
+            List<String> registeredDecisionIds = new ArrayList<>();
+            CompletableFuture.allOf(
+                    decisionService.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn").thenAccept(decision -> registeredDecisionIds.add(decision.getDecisionId())),
+                    decisionService.registerDecision("decision", "src/test/resources/test-collect.dmn"),
+                    decisionService.registerDecision("decisionPrimary", "src/test/resources/test-collect-drg.dmn")
+            ).join();
+            assertEquals(Collections.singletonList("decisionPackagingMatchingScore"), registeredDecisionIds);
+
+            Map<String, Object> input = new HashMap<>();
+            ContractLot salesLot = new ContractLot();
+            ContractLot purchaseLot = new ContractLot();
+            salesLot.setPackaging("Bags");
+            purchaseLot.setPackaging("Bulk");
+            input.put("purchaseLot", purchaseLot);
+            input.put("salesLot", salesLot);
+            assertEquals(0, decisionService.evaluateDecision("decisionPackagingMatchingScore", input, MatchingScoreResult.class)
+                    .getSingleResult().getMatchingScore().intValue());
+            salesLot.setPackaging("Bulk");
+            assertEquals(30, decisionService.evaluateDecision("decisionPackagingMatchingScore", input, MatchingScoreResult.class)
+                    .getSingleResult().getMatchingScore().intValue());
+
+            Map<String, Object> categoryInput = new HashMap<>();
+            Map<String, Object> category = new HashMap<>();
+            category.put("category", "A");
+            categoryInput.put("input", category);
+            DecisionEvaluationResult<MessageAndOutputValueResult> output = decisionService.evaluateDecision("decision", categoryInput, MessageAndOutputValueResult.class);
+            assertEquals(4, output.getResultList().size());
+            assertEquals("Message 1", output.getResultList().get(0).getMessage());
+            assertEquals("Message 5", output.getResultList().get(3).getMessage());
+            assertEquals("Value 1", output.getResultList().get(0).getOutput().getProperty());
+            assertNull(output.getResultList().get(1).getOutput().getProperty());
+
+            // decisions that require other decisions are evaluated by the script engine
+            assertEquals(Integer.valueOf(50), decisionService.evaluateDecision("decisionPrimary", categoryInput, OutputScoreResult.class)
+                    .getSingleResult().getScore());
+        }
+    }
+
+    @Test
+    public void testDecisionGraph() throws InterruptedException, ExecutionException, TimeoutException {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setEnginePoolSize(2);
+        configuration.setParallelDrgEvaluationEnabled(true);
+        List<String> evaluatedDecisions = Collections.synchronizedList(new ArrayList<>());
+        configuration.setListeners(Collections.singletonList(new DecisionServiceListener() {
+            @Override
+            public void decisionEvaluated(String decisionId, long nanos) {
+                evaluatedDecisions.add(decisionId);
+            }
+        }));
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            decisionService.registerDefinitions(Paths.get("src/test/resources/test-collect-drg.dmn")).get(1, TimeUnit.MINUTES);
+
+            Map<String, Object> categoryInput = new HashMap<>();
+            categoryInput.put("input", Collections.singletonMap("category", "A"));
+            // the required decision is evaluated once, and its result is merged like by dmn-eval-js
+            Map<String, DecisionEvaluationResult<Map>> results = decisionService.evaluateDecisionGraph(
+                    Arrays.asList("decisionPrimary", "decisionDependent"), categoryInput, Map.class);
+            assertEquals(Arrays.asList("decisionPrimary", "decisionDependent"), new ArrayList<>(results.keySet()));
+            assertEquals(50, ((Number) ((Map<?, ?>) results.get("decisionPrimary").getSingleResult().get("output")).get("score")).intValue());
+            assertEquals(3, results.get("decisionDependent").getResultList().size());
+            assertEquals("Value 1", results.get("decisionDependent").getResultList().get(0).get("output1"));
+            // each requested decision is reported once
+            assertEquals(2, evaluatedDecisions.size());
+            assertTrue(evaluatedDecisions.containsAll(Arrays.asList("decisionPrimary", "decisionDependent")));
+
+            assertEquals(Integer.valueOf(50), decisionService.evaluateDecision("decisionPrimary", categoryInput, OutputScoreResult.class)
+                    .getSingleResult().getScore());
+            categoryInput.put("input", Collections.singletonMap("category", "C"));
+            assertEquals(Integer.valueOf(75), decisionService.evaluateDecision("decisionPrimary", categoryInput, OutputScoreResult.class)
+                    .getSingleResult().getScore());
+        }
+    }
+
+    @Test
+    public void testGraalJs() throws InterruptedException, ExecutionException, TimeoutException {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setScriptEngineType(ScriptEngineType.GRAALJS);
+        configuration.setEnginePoolSize(2);
+        configuration.setParallelDrgEvaluationEnabled(true);
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            decisionService.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn").get(1, TimeUnit.MINUTES);
+            decisionService.registerDecision("decision", "src/test/resources/test-collect.dmn").get(1, TimeUnit.MINUTES);
+            decisionService.registerDefinitions(Paths.get("src/test/resources/test-collect-drg.dmn")).get(1, TimeUnit.MINUTES);
+
+            Map<String, Object> input = new HashMap<>();
+            ContractLot salesLot = new ContractLot();
+            ContractLot purchaseLot = new ContractLot();
+            salesLot.setPackaging("Bulk");
+            purchaseLot.setPackaging("Bulk");
+            input.put("purchaseLot", purchaseLot);
+            input.put("salesLot", salesLot);
+            assertEquals(30, decisionService.evaluateDecision("decisionPackagingMatchingScore", input, MatchingScoreResult.class)
+                    .getSingleResult().getMatchingScore().intValue());
+            List<BatchEvaluationResult<MatchingScoreResult>> results = decisionService.evaluateDecisions("decisionPackagingMatchingScore",
+                    Arrays.asList(input, "no input"), MatchingScoreResult.class);
+            assertEquals(30, results.get(0).getResult().getSingleResult().getMatchingScore().intValue());
+            assertFalse(results.get(1).isSuccessful());
+
+            Map<String, Object> categoryInput = new HashMap<>();
+            categoryInput.put("input", Collections.singletonMap("category", "A"));
+            DecisionEvaluationResult<MessageAndOutputValueResult> output = decisionService.evaluateDecision("decision", categoryInput, MessageAndOutputValueResult.class);
+            assertEquals(4, output.getResultList().size());
+            assertEquals("Message 1", output.getResultList().get(0).getMessage());
+            assertEquals("Value 1", output.getResultList().get(0).getOutput().getProperty());
+
+            Map<String, DecisionEvaluationResult<Map>> graphResults = decisionService.evaluateDecisionGraph(
+                    Arrays.asList("decisionPrimary", "decisionDependent"), categoryInput, Map.class);
+            assertEquals(50, ((Number) ((Map<?, ?>) graphResults.get("decisionPrimary").getSingleResult().get("output")).get("score")).intValue());
+            assertEquals(3, graphResults.get("decisionDependent").getResultList().size());
+        }
+
+        configuration.setEnginePoolSize(1);
+        configuration.setLazyInputEnabled(true);
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            // the scripts are compiled once per JVM
+            assertEquals(0L, decisionService.getStartupMetrics().getScriptCompilationNanos());
+            decisionService.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn").get(1, TimeUnit.MINUTES);
+            Map<String, Object> input = new HashMap<>();
+            ContractLot purchaseLot = new ContractLot();
+            purchaseLot.setPackaging("Bulk");
+            input.put("purchaseLot", purchaseLot);
+            input.put("salesLot", new HashMap<>());
+            assertEquals(30, decisionService.evaluateDecision("decisionPackagingMatchingScore", input, MatchingScoreResult.class)
+                    .getSingleResult().getMatchingScore().intValue());
+        }
+    }
+
+    @Test
+    public void testListeners() throws InterruptedException, ExecutionException, TimeoutException {
+        HistogramDecisionServiceListener histograms = new HistogramDecisionServiceListener();
+        List<List<Integer>> matchedRules = new ArrayList<>();
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setNativeCompilationEnabled(true);
+        configuration.setListeners(Arrays.asList(new DecisionServiceListener() {
+            @Override
+            public void rulesMatched(String decisionId, int ruleCount, List<Integer> rules, long nanos) {
+                assertEquals(2, ruleCount);
+                matchedRules.add(rules);
+            }
+
+            @Override
+            public void decisionEvaluated(String decisionId, long nanos) {
+                // failing listeners do not affect the evaluation
+                throw new IllegalStateException("Listener failed");
+            }
+        }, histograms));
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            CompletableFuture.allOf(
+                    decisionService.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn"),
+                    decisionService.registerDefinitions(Paths.get("src/test/resources/test-collect-drg.dmn"))
+            ).get(1, TimeUnit.MINUTES);
+
+            Map<String, Object> input = new HashMap<>();
+            ContractLot salesLot = new ContractLot();
+            ContractLot purchaseLot = new ContractLot();
+            salesLot.setPackaging("Bulk");
+            purchaseLot.setPackaging("Bulk");
+            input.put("purchaseLot", purchaseLot);
+            input.put("salesLot", salesLot);
+            assertEquals(30, decisionService.evaluateDecision("decisionPackagingMatchingScore", input, MatchingScoreResult.class)
+                    .getSingleResult().getMatchingScore().intValue());
+            assertEquals(Collections.singletonList(Collections.singletonList(2)), matchedRules);
+
+            Map<String, Object> categoryInput = new HashMap<>();
+            categoryInput.put("input", Collections.singletonMap("category", "A"));
+            decisionService.evaluateDecision("decisionPrimary", categoryInput, OutputScoreResult.class);
+            decisionService.evaluateDecisions("decisionPrimary", Arrays.asList(categoryInput, categoryInput), OutputScoreResult.class);
+        }
+
+        assertEquals(1, histograms.getHistogram("decisionPackagingMatchingScore", HistogramDecisionServiceListener.Phase.PARSING).getCount());
+        assertEquals(1, histograms.getHistogram("decisionPackagingMatchingScore", HistogramDecisionServiceListener.Phase.RULE_MATCHING).getCount());
+        assertEquals(1, histograms.getHistogram("decisionPackagingMatchingScore", HistogramDecisionServiceListener.Phase.RESULT_MAPPING).getCount());
+        assertEquals(0, histograms.getHistogram("decisionPackagingMatchingScore", HistogramDecisionServiceListener.Phase.ENGINE_CALL).getCount());
+        // decisions that require other decisions are evaluated by the script engine, batches by a single call
+        assertEquals(3, histograms.getHistogram("decisionPrimary", HistogramDecisionServiceListener.Phase.INPUT_WRAPPING).getCount());
+        assertEquals(2, histograms.getHistogram("decisionPrimary", HistogramDecisionServiceListener.Phase.ENGINE_CALL).getCount());
+        assertEquals(3, histograms.getHistogram("decisionPrimary", HistogramDecisionServiceListener.Phase.RESULT_MAPPING).getCount());
+        LatencyHistogram evaluations = histograms.getHistogram("decisionPrimary", HistogramDecisionServiceListener.Phase.EVALUATION);
+        assertEquals(1, evaluations.getCount());
+        assertTrue(evaluations.getValueAtPercentile(99.0) > 0L);
+        // all decisions of the DMN definition were parsed
+        assertEquals(1, histograms.getHistogram("decisionDependent", HistogramDecisionServiceListener.Phase.PARSING).getCount());
+        // the duration of a batch is recorded per input
+        histograms.engineCalled("batch", 4, 4000L);
+        assertEquals(1000L, histograms.getHistogram("batch", HistogramDecisionServiceListener.Phase.ENGINE_CALL).getMax());
+    }
+
+    @Test
+    public void testQuietLogging() throws InterruptedException, ExecutionException, TimeoutException {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setQuietLoggingEnabled(true);
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            decisionService.registerDecision("decision", "src/test/resources/test-collect.dmn").get(1, TimeUnit.MINUTES);
+
+            // dmn-eval-js logs through the guarded calls
+            Map<String, Object> categoryInput = new HashMap<>();
+            categoryInput.put("input", Collections.singletonMap("category", "A"));
+            assertEquals(4, decisionService.evaluateDecision("decision", categoryInput, MessageAndOutputValueResult.class).getResultList().size());
+            categoryInput.put("input", Collections.singletonMap("category", "X"));
+            assertEquals(2, decisionService.evaluateDecision("decision", categoryInput, MessageAndOutputValueResult.class).getResultList().size());
+        }
+    }
+
+    @Test
+    public void testLazyInput() throws InterruptedException, ExecutionException, TimeoutException {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setLazyInputEnabled(true);
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            decisionService.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn").get(10, TimeUnit.SECONDS);
+            decisionService.registerDecision("decision", "src/test/resources/test-collect.dmn").get(10, TimeUnit.SECONDS);
+
+            Map<String, Object> input = new HashMap<>();
+            ContractLot salesLot = new ContractLot();
+            ContractLot purchaseLot = new ContractLot();
+            salesLot.setPackaging("Bags");
+            purchaseLot.setPackaging("Bulk");
+            input.put("purchaseLot", purchaseLot);
+            input.put("salesLot", salesLot);
+            assertEquals(0, decisionService.evaluateDecision("decisionPackagingMatchingScore", input, MatchingScoreResult.class)
+                    .getSingleResult().getMatchingScore().intValue());
+            // the packaging is undefined, so only the second rule matches
+            input.put("salesLot", new HashMap<>());
+            assertEquals(30, decisionService.evaluateDecision("decisionPackagingMatchingScore", input, MatchingScoreResult.class)
+                    .getSingleResult().getMatchingScore().intValue());
+
+            Map<String, Object> categoryInput = new HashMap<>();
+            categoryInput.put("input", Collections.singletonMap("category", "A"));
+            DecisionEvaluationResult<MessageAndOutputValueResult> output = decisionService.evaluateDecision("decision", categoryInput, MessageAndOutputValueResult.class);
+            assertEquals(4, output.getResultList().size());
+            assertEquals("Message 1", output.getResultList().get(0).getMessage());
+        }
+    }
+
     @Test
     public void testMultipleResults() throws InterruptedException, ExecutionException, TimeoutException {
         DecisionService decisionService = new DecisionService();
@@ -60,6 +435,232 @@ public class DecisionServiceTest {
         assertNull(output.getResultList().get(1).getOutput().getProperty());
         assertEquals("Value 4", output.getResultList().get(2).getOutput().getProperty());
         assertEquals("Value 5", output.getResultList().get(3).getOutput().getProperty());
+
+        DecisionEvaluationResult<Map> mapOutput = decisionService.evaluateDecision("decision", input, Map.class);
+        assertEquals(4, mapOutput.getResultList().size());
+        assertEquals("Message 1", mapOutput.getResultList().get(0).get("message"));
+        assertEquals(Collections.singletonMap("property", "Value 1"), mapOutput.getResultList().get(0).get("output"));
+    }
+
+    @Test
+    public void testResultCache() throws InterruptedException, ExecutionException, TimeoutException {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setResultCacheSize(10);
+        configuration.setResultCacheExcludedDecisions(Collections.singleton("decision"));
+        DecisionService decisionService = new DecisionService(configuration);
+        CompletableFuture.allOf(
+                decisionService.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn"),
+                decisionService.registerDecision("decision", "src/test/resources/test-collect.dmn"),
+                decisionService.registerDecision("decision2", "src/test/resources/test-functions-decision-2.dmn")
+        ).get(1, TimeUnit.MINUTES);
+
+        ContractLot bagsLot = new ContractLot();
+        bagsLot.setPackaging("Bags");
+        ContractLot bulkLot = new ContractLot();
+        bulkLot.setPackaging("Bulk");
+        Map<String, Object> input = new HashMap<>();
+        input.put("salesLot", bagsLot);
+        input.put("purchaseLot", bulkLot);
+        Map<String, Object> otherInput = new HashMap<>();
+        otherInput.put("salesLot", bulkLot);
+        otherInput.put("purchaseLot", bulkLot);
+        assertEquals(0, decisionService.evaluateDecision("decisionPackagingMatchingScore", input, MatchingScoreResult.class).getSingleResult().getMatchingScore().intValue());
+        assertEquals(30, decisionService.evaluateDecision("decisionPackagingMatchingScore", otherInput, MatchingScoreResult.class).getSingleResult().getMatchingScore().intValue());
+        // the key consists of the values of the input expressions, not of the input objects
+        ContractLot otherBagsLot = new ContractLot();
+        otherBagsLot.setPackaging("Bags");
+        Map<String, Object> equalInput = new HashMap<>(input);
+        equalInput.put("salesLot", otherBagsLot);
+        assertEquals(0, decisionService.evaluateDecision("decisionPackagingMatchingScore", equalInput, MatchingScoreResult.class).getSingleResult().getMatchingScore().intValue());
+        assertEquals(0, decisionService.evaluateDecision("decisionPackagingMatchingScore", equalInput, Map.class).getSingleResult().get("matchingScore"));
+        List<BatchEvaluationResult<MatchingScoreResult>> results = decisionService.evaluateDecisions("decisionPackagingMatchingScore",
+                Arrays.asList(input, otherInput), MatchingScoreResult.class);
+        assertEquals(0, results.get(0).getResult().getSingleResult().getMatchingScore().intValue());
+        assertEquals(30, results.get(1).getResult().getSingleResult().getMatchingScore().intValue());
+
+        ResultCacheStatistics statistics = decisionService.getResultCacheStatistics("decisionPackagingMatchingScore");
+        assertEquals(4, statistics.getHits());
+        assertEquals(2, statistics.getMisses());
+        assertEquals(2, statistics.getSize());
+
+        // registering the decision again empties the cache
+        decisionService.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn").get(10, TimeUnit.SECONDS);
+        assertEquals(0, decisionService.getResultCacheStatistics("decisionPackagingMatchingScore").getSize());
+        assertEquals(0, decisionService.evaluateDecision("decisionPackagingMatchingScore", input, MatchingScoreResult.class).getSingleResult().getMatchingScore().intValue());
+        assertEquals(1, decisionService.getResultCacheStatistics("decisionPackagingMatchingScore").getMisses());
+
+        // excluded decisions, and input entries that invoke functions of the input
+        assertNull(decisionService.getResultCacheStatistics("decision"));
+        assertNull(decisionService.getResultCacheStatistics("decision2"));
+    }
+
+    @Test
+    public void testDecisionInput() throws InterruptedException, ExecutionException, TimeoutException {
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setNativeCompilationEnabled(true);
+        configuration.setResultCacheSize(10);
+        try (DecisionService decisionService = new DecisionService(configuration);
+             DecisionService scriptDecisionService = new DecisionService()) {
+            for (DecisionService service: Arrays.asList(decisionService, scriptDecisionService)) {
+                CompletableFuture.allOf(
+                        service.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn"),
+                        service.registerDecision("decisionPrimary", "src/test/resources/test-collect-drg.dmn")
+                ).get(1, TimeUnit.MINUTES);
+
+                DecisionInput input = service.createDecisionInput("decisionPackagingMatchingScore");
+                assertEquals(Arrays.asList("purchaseLot.packaging", "salesLot.packaging"), input.getInputExpressions());
+                int purchasePackaging = input.getSlot("purchaseLot.packaging");
+                int salesPackaging = input.getSlot("salesLot.packaging");
+                input.set(purchasePackaging, "Bulk").set(salesPackaging, "Bags");
+                assertEquals(0, service.evaluateDecision("decisionPackagingMatchingScore", input, MatchingScoreResult.class)
+                        .getSingleResult().getMatchingScore().intValue());
+                input.set(salesPackaging, "Bulk");
+                assertEquals(30, service.evaluateDecision("decisionPackagingMatchingScore", input, MatchingScoreResult.class)
+                        .getSingleResult().getMatchingScore().intValue());
+                assertEquals(30, ((Number) service.evaluateDecision("decisionPackagingMatchingScore", input, Map.class)
+                        .getSingleResult().get("matchingScore")).intValue());
+                // the packaging is undefined, so only the second rule matches
+                input.clear().set(purchasePackaging, "Bulk");
+                assertEquals(30, service.evaluateDecision("decisionPackagingMatchingScore", input, MatchingScoreResult.class)
+                        .getSingleResult().getMatchingScore().intValue());
+
+                // the input stays usable if the decision is registered again
+                service.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn").get(10, TimeUnit.SECONDS);
+                input.set(salesPackaging, "Bags");
+                List<BatchEvaluationResult<MatchingScoreResult>> results = service.evaluateDecisions("decisionPackagingMatchingScore",
+                        Collections.singletonList(input), MatchingScoreResult.class);
+                assertEquals(0, results.get(0).getResult().getSingleResult().getMatchingScore().intValue());
+
+                try {
+                    input.getSlot("salesLot");
+                    fail();
+                } catch (IllegalArgumentException e) {
+                    assertTrue(e.getMessage().contains("salesLot"));
+                }
+                // the result of the decision depends on its required decisions
+                try {
+                    service.createDecisionInput("decisionPrimary");
+                    fail();
+                } catch (DecisionEvaluationException e) {
+                    assertTrue(e.getMessage().contains("decisionPrimary"));
+                }
+                try {
+                    service.evaluateDecision("decisionPrimary", input, Map.class);
+                    fail();
+                } catch (DecisionEvaluationException e) {
+                    assertTrue(e.getMessage().contains("does not fit"));
+                }
+            }
+            ResultCacheStatistics statistics = decisionService.getResultCacheStatistics("decisionPackagingMatchingScore");
+            assertEquals(1, statistics.getMisses());
+        }
+
+        // numbers are boxed when they are read, and the slots are nested maps for the script engine
+        DecisionInput input = new DecisionInput("decision", new InputExpression[] {
+                new InputExpression(new String[] { "lot", "quantity" }), new InputExpression(new String[] { "lot", "price" }) });
+        input.setLong(input.getSlot("lot.quantity"), 5L).setDouble(input.getSlot("lot.price"), 2.5);
+        assertEquals(Arrays.asList(5, 2.5), Arrays.asList(input.getInputValues()));
+        Map<String, Object> lot = new HashMap<>();
+        lot.put("quantity", 5);
+        lot.put("price", 2.5);
+        assertEquals(Collections.singletonMap("lot", lot), input.toMap());
+        input.setLong(input.getSlot("lot.quantity"), 1L << 40);
+        assertEquals((double) (1L << 40), input.getInputValues()[0]);
+    }
+
+    @Test
+    public void testColumnarEvaluation() throws InterruptedException, ExecutionException, TimeoutException {
+        int rowCount = 5000;
+        String[] purchasePackagings = new String[rowCount];
+        Object[] salesPackagings = new Object[rowCount];
+        for (int row = 0; row < rowCount; ++row) {
+            purchasePackagings[row] = Arrays.asList("Bulk", "Big Bags", "Bags").get(row % 3);
+            salesPackagings[row] = (row % 2 == 0)? "Bags" : "Bulk";
+        }
+        // comparing a number with a string fails in dmn-eval-js
+        salesPackagings[3000] = 5;
+        ColumnarInput input = new ColumnarInput(rowCount)
+                .setColumn("purchaseLot.packaging", purchasePackagings)
+                .setColumn("salesLot.packaging", salesPackagings);
+
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setNativeCompilationEnabled(true);
+        try (DecisionService decisionService = new DecisionService(configuration);
+             DecisionService scriptDecisionService = new DecisionService()) {
+            for (DecisionService service: Arrays.asList(decisionService, scriptDecisionService)) {
+                CompletableFuture.allOf(
+                        service.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn"),
+                        service.registerDecision("decisionPrimary", "src/test/resources/test-collect-drg.dmn")
+                ).get(1, TimeUnit.MINUTES);
+
+                List<BatchEvaluationResult<MatchingScoreResult>> results = service.evaluateColumns("decisionPackagingMatchingScore", input,
+                        MatchingScoreResult.class);
+                assertEquals(rowCount, results.size());
+                for (int row = 0; row < rowCount; ++row) {
+                    assertEquals(row, results.get(row).getIndex());
+                    assertEquals(input, results.get(row).getDecisionInput());
+                    if (row == 3000) {
+                        assertFalse(results.get(row).isSuccessful());
+                    } else {
+                        boolean repackaging = !purchasePackagings[row].equals("Bags") && salesPackagings[row].equals("Bags");
+                        assertEquals(repackaging? 0 : 30, results.get(row).getResult().getSingleResult().getMatchingScore().intValue());
+                    }
+                }
+
+                try {
+                    service.evaluateColumns("decisionPackagingMatchingScore", new ColumnarInput(1).setColumn("salesLot", new long[1]), Map.class);
+                    fail();
+                } catch (DecisionEvaluationException e) {
+                    assertTrue(e.getMessage().contains("salesLot"));
+                }
+                // the result of the decision depends on its required decisions
+                try {
+                    service.evaluateColumns("decisionPrimary", new ColumnarInput(0), Map.class);
+                    fail();
+                } catch (DecisionEvaluationException e) {
+                    assertTrue(e.getMessage().contains("decisionPrimary"));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testColumnarMappingFailure() throws InterruptedException, ExecutionException, TimeoutException {
+        int rowCount = 5000;
+        String[] packagings = new String[rowCount];
+        Arrays.fill(packagings, "Bulk");
+        ColumnarInput input = new ColumnarInput(rowCount)
+                .setColumn("purchaseLot.packaging", packagings)
+                .setColumn("salesLot.packaging", packagings);
+        List<String> evaluatedDecisions = Collections.synchronizedList(new ArrayList<>());
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setNativeCompilationEnabled(true);
+        configuration.setListeners(Collections.singletonList(new DecisionServiceListener() {
+            @Override
+            public void decisionEvaluated(String decisionId, long nanos) {
+                evaluatedDecisions.add(decisionId);
+            }
+        }));
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            decisionService.registerDecision("decisionPackagingMatchingScore", "src/test/resources/packaging_matching_score.dmn").get(1, TimeUnit.MINUTES);
+
+            // a row whose result cannot be mapped fails on its own
+            FailingMatchingScoreResult.INSTANCES.set(0);
+            List<BatchEvaluationResult<FailingMatchingScoreResult>> results = decisionService.evaluateColumns("decisionPackagingMatchingScore",
+                    input, FailingMatchingScoreResult.class);
+            assertEquals(rowCount, results.size());
+            int failedRows = 0;
+            for (BatchEvaluationResult<FailingMatchingScoreResult> result: results) {
+                if (result.isSuccessful()) {
+                    assertEquals(30, result.getResult().getSingleResult().getMatchingScore().intValue());
+                } else {
+                    assertTrue(result.getException().getMessage().contains(FailingMatchingScoreResult.class.getName()));
+                    ++failedRows;
+                }
+            }
+            assertEquals(1, failedRows);
+            assertEquals(Collections.singletonList("decisionPackagingMatchingScore"), evaluatedDecisions);
+        }
     }
 
     @Test
@@ -79,6 +680,127 @@ public class DecisionServiceTest {
 
     }
 
+    @Test
+    public void testRegisterDefinitions() throws InterruptedException, ExecutionException, TimeoutException {
+        DecisionService decisionService = new DecisionService();
+        Map<String, Object> input = new HashMap<>();
+        input.put("input", Collections.singletonMap("category", "A"));
+
+        // all decisions of the DMN file are registered at once
+        List<Decision> decisions = decisionService.registerDefinitions(Paths.get("src/test/resources/test-collect-drg.dmn")).get(10, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("decisionPrimary", "decisionDependent"), decisions.stream().map(Decision::getDecisionId).collect(Collectors.toList()));
+        assertEquals(Collections.singletonList("decisionDependent"), decisions.get(0).getRequiredDecisions());
+        DecisionEvaluationResult<OutputScoreResult> output = decisionService.evaluateDecision("decisionPrimary", input, OutputScoreResult.class);
+        assertEquals(Integer.valueOf(50), output.getSingleResult().getScore());
+    }
+
+    @Test
+    public void testRegisterDefinitionsFromStreamAndClasspath() throws InterruptedException, ExecutionException, TimeoutException, IOException {
+        DecisionService decisionService = new DecisionService();
+        Map<String, Object> input = new HashMap<>();
+        input.put("input", Collections.singletonMap("category", "A"));
+
+        List<Decision> decisions;
+        try (InputStream dmnStream = new FileInputStream("src/test/resources/test-collect.dmn")) {
+            decisions = decisionService.registerDefinitions(dmnStream).get(10, TimeUnit.SECONDS);
+        }
+        assertEquals("decision", decisions.get(0).getDecisionId());
+        assertEquals(1, decisions.size());
+
+        decisions = decisionService.registerDefinitionsFromClasspath("test-collect-drg.dmn").get(10, TimeUnit.SECONDS);
+        assertEquals(2, decisions.size());
+        DecisionEvaluationResult<OutputScoreResult> output = decisionService.evaluateDecision("decisionPrimary", input, OutputScoreResult.class);
+        assertEquals(Integer.valueOf(50), output.getSingleResult().getScore());
+    }
+
+    @Test
+    public void registerMissingClasspathResource() {
+        DecisionService decisionService = new DecisionService();
+        try {
+            decisionService.registerDefinitionsFromClasspath("missing.dmn");
+            fail();
+        } catch (DecisionEvaluationException e) {
+            assertEquals("DMN resource 'missing.dmn' does not exist in the classpath.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testWatchDefinitions() throws InterruptedException, ExecutionException, TimeoutException, IOException {
+        Path directory = Files.createTempDirectory("dmn-eval-java");
+        Path dmnFile = directory.resolve("test-collect.dmn");
+        String dmnXml = new String(Files.readAllBytes(Paths.get("src/test/resources/test-collect.dmn")), StandardCharsets.UTF_8);
+        Files.write(dmnFile, dmnXml.getBytes(StandardCharsets.UTF_8));
+        Map<String, Object> input = new HashMap<>();
+        input.put("input", Collections.singletonMap("category", "A"));
+
+        try (DecisionService decisionService = new DecisionService()) {
+            decisionService.watchDefinitions(dmnFile).get(10, TimeUnit.SECONDS);
+            DecisionEvaluationResult<MessageAndOutputValueResult> output = decisionService.evaluateDecision("decision", input, MessageAndOutputValueResult.class);
+            assertEquals("Message 1", output.getFirstResult().getMessage());
+            long version = output.getVersion();
+
+            // the changed file is reloaded in the background
+            Files.write(dmnFile, dmnXml.replace("Message 1", "Message 1 changed").getBytes(StandardCharsets.UTF_8));
+            long timeout = System.currentTimeMillis() + 10000L;
+            while ((output.getVersion() == version) && (System.currentTimeMillis() < timeout)) {
+                Thread.sleep(50L);
+                output = decisionService.evaluateDecision("decision", input, MessageAndOutputValueResult.class);
+            }
+            assertTrue(output.getVersion() > version);
+            assertEquals("Message 1 changed", output.getFirstResult().getMessage());
+
+            // an invalid file does not replace the registered version
+            version = output.getVersion();
+            Files.copy(Paths.get("src/test/resources/test-collect-invalid.dmn"), dmnFile, StandardCopyOption.REPLACE_EXISTING);
+            Thread.sleep(2000L);
+            output = decisionService.evaluateDecision("decision", input, MessageAndOutputValueResult.class);
+            assertEquals(version, output.getVersion());
+            assertEquals("Message 1 changed", output.getFirstResult().getMessage());
+        } finally {
+            Files.delete(dmnFile);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testSnapshots() throws InterruptedException, ExecutionException, TimeoutException, IOException {
+        Path snapshotDirectory = Files.createTempDirectory("dmn-eval-java-snapshots");
+        Path dmnFile = Paths.get("src/test/resources/test-collect.dmn");
+        String dmnXml = new String(Files.readAllBytes(dmnFile), StandardCharsets.UTF_8);
+        DmnSnapshotStore snapshotStore = new DmnSnapshotStore(snapshotDirectory.toString());
+        Map<String, Object> input = new HashMap<>();
+        input.put("input", Collections.singletonMap("category", "A"));
+
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setSnapshotDirectory(snapshotDirectory.toString());
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            // the snapshot is written when the DMN definition is parsed
+            decisionService.registerDefinitions(dmnFile).get(10, TimeUnit.SECONDS);
+            String snapshot = snapshotStore.read(dmnXml);
+            assertNotNull(snapshot);
+
+            // the DMN definition is restored from the snapshot when it is registered again
+            snapshotStore.write(dmnXml, snapshot.replace("Message 1", "Message 1 from snapshot"));
+            decisionService.registerDefinitions(dmnFile).get(10, TimeUnit.SECONDS);
+            DecisionEvaluationResult<MessageAndOutputValueResult> output = decisionService.evaluateDecision("decision", input, MessageAndOutputValueResult.class);
+            assertEquals("Message 1 from snapshot", output.getFirstResult().getMessage());
+            assertEquals("Message 5", output.getResultList().get(3).getMessage());
+
+            // an unusable snapshot is ignored
+            snapshotStore.write(dmnXml, "{\"decision\": {\"type\": \"UnknownNode\"}}");
+            decisionService.registerDefinitions(dmnFile).get(10, TimeUnit.SECONDS);
+            output = decisionService.evaluateDecision("decision", input, MessageAndOutputValueResult.class);
+            assertEquals("Message 1", output.getFirstResult().getMessage());
+        } finally {
+            try (Stream<Path> files = Files.list(snapshotDirectory)) {
+                for (Path file: files.collect(Collectors.toList())) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(snapshotDirectory);
+        }
+    }
+
     @Test
     public void registerInvalidDmn() throws TimeoutException, InterruptedException {
         DecisionService decisionService = new DecisionService();
@@ -91,6 +813,58 @@ public class DecisionServiceTest {
         }
     }
 
+    @Test
+    public void registerDecisionWithoutDecisionTable() throws TimeoutException, InterruptedException {
+        String dmnXml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<definitions xmlns=\"http://www.omg.org/spec/DMN/20151101/dmn.xsd\" id=\"definitions\" name=\"definitions\" namespace=\"http://camunda.org/schema/1.0/dmn\">\n"
+                + "  <decision id=\"literalDecision\" name=\"Literal Decision\">\n"
+                + "    <literalExpression id=\"literalExpression\"><text>1</text></literalExpression>\n"
+                + "  </decision>\n"
+                + "</definitions>\n";
+        try (DecisionService decisionService = new DecisionService()) {
+            decisionService.registerDefinitions(new StringReader(dmnXml)).get(1, TimeUnit.MINUTES);
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals(DecisionRegistrationException.class, e.getCause().getClass());
+        }
+    }
+
+    @Test
+    public void testUniqueOverlapPolicy() throws InterruptedException, ExecutionException, TimeoutException, IOException {
+        // the first rule is not exclusive of the wildcard rule
+        String dmnXml = new String(Files.readAllBytes(Paths.get("src/test/resources/packaging_matching_score.dmn")), StandardCharsets.UTF_8)
+                .replace("hitPolicy=\"FIRST\"", "hitPolicy=\"UNIQUE\"");
+        DecisionServiceConfiguration configuration = new DecisionServiceConfiguration();
+        configuration.setUniqueOverlapPolicy(UniqueOverlapPolicy.FAIL);
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            decisionService.registerDefinitions(new StringReader(dmnXml)).get(10, TimeUnit.SECONDS);
+            fail("The overlapping rules were not reported.");
+        } catch (ExecutionException e) {
+            assertEquals(DecisionRegistrationException.class, e.getCause().getClass());
+            assertEquals("Rules of decision 'decisionPackagingMatchingScore' with hit policy UNIQUE overlap: "
+                    + "rules 1 and 2 (e.g. purchaseLot.packaging = \"Big Bags\", salesLot.packaging = \"Bags\")", e.getCause().getMessage());
+        }
+
+        // the decision is registered with a warning, and fails for the inputs that both rules match only
+        configuration.setUniqueOverlapPolicy(UniqueOverlapPolicy.WARN);
+        configuration.setNativeCompilationEnabled(true);
+        try (DecisionService decisionService = new DecisionService(configuration)) {
+            decisionService.registerDefinitions(new StringReader(dmnXml)).get(10, TimeUnit.SECONDS);
+            Map<String, Object> input = new HashMap<>();
+            input.put("purchaseLot", Collections.singletonMap("packaging", "Bags"));
+            input.put("salesLot", Collections.singletonMap("packaging", "Bags"));
+            assertEquals(30, ((Number) decisionService.evaluateDecision("decisionPackagingMatchingScore", input, Map.class)
+                    .getFirstResult().get("matchingScore")).intValue());
+            input.put("purchaseLot", Collections.singletonMap("packaging", "Bulk"));
+            try {
+                decisionService.evaluateDecision("decisionPackagingMatchingScore", input, Map.class);
+                fail("The violation of the hit policy was not detected.");
+            } catch (RuntimeException e) {
+                // dmn-eval-js reports the violation of the hit policy
+            }
+        }
+    }
+
     @Test
     public void testFunctions() throws InterruptedException, ExecutionException, TimeoutException {
         DecisionService decisionService = new DecisionService();
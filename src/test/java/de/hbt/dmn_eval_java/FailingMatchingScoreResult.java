@@ -0,0 +1,16 @@
+package de.hbt.dmn_eval_java;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FailingMatchingScoreResult extends MatchingScoreResult {
+
+    // the first instance cannot be created
+    static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    public FailingMatchingScoreResult() {
+        if (INSTANCES.incrementAndGet() == 1) {
+            throw new IllegalStateException("First instance");
+        }
+    }
+
+}
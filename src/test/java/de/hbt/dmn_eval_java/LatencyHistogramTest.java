@@ -0,0 +1,48 @@
+package de.hbt.dmn_eval_java;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getValueAtPercentile(99.0));
+        for (long value = 1; value <= 100; ++value) {
+            histogram.record(value * 1000L);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(100000L, histogram.getMax());
+        assertEquals(50500.0, histogram.getMean(), 0.001);
+        assertWithinPrecision(50000L, histogram.getValueAtPercentile(50.0));
+        assertWithinPrecision(99000L, histogram.getValueAtPercentile(99.0));
+        assertEquals(100000L, histogram.getValueAtPercentile(100.0));
+        assertWithinPrecision(1000L, histogram.getValueAtPercentile(0.0));
+    }
+
+    @Test
+    public void testBuckets() {
+        // short durations are counted exactly
+        for (int value = 0; value < 64; ++value) {
+            assertEquals(value, LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value)));
+        }
+        Random random = new Random(42L);
+        for (int i = 0; i < 10000; ++i) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            long upperBound = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+            assertTrue(value + " <= " + upperBound, value <= upperBound);
+            assertWithinPrecision(value, upperBound);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(Long.MAX_VALUE)));
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(expected + " ~ " + actual, (actual >= expected) && (actual - expected <= expected / 32));
+    }
+
+}
@@ -0,0 +1,85 @@
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.DecisionEvaluationException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DecisionGraphTest {
+
+    @Test
+    public void testMergeOrder() {
+        // a requires b and c, which both require d
+        DecisionGraph decisionGraph = new DecisionGraph(requirements("a", "b,c", "b", "d", "c", "d", "d", ""));
+        assertTrue(decisionGraph.contains("a"));
+        assertFalse(decisionGraph.contains("e"));
+        assertEquals(Arrays.asList("b", "c"), decisionGraph.getRequiredDecisions("a"));
+        assertEquals(Arrays.asList("d", "b", "c"), decisionGraph.getMergeOrder("a"));
+        assertEquals(Collections.singletonList("d"), decisionGraph.getMergeOrder("b"));
+        assertEquals(Collections.emptyList(), decisionGraph.getMergeOrder("d"));
+    }
+
+    @Test
+    public void testEvaluationOrder() {
+        DecisionGraph decisionGraph = new DecisionGraph(requirements("a", "b,c", "b", "d", "c", "d", "d", "", "e", "c"));
+        assertEquals(Arrays.asList("d", "c", "e", "b", "a"), decisionGraph.getEvaluationOrder(Arrays.asList("e", "a")));
+        assertEquals(Arrays.asList("d", "b"), decisionGraph.getEvaluationOrder(Arrays.asList("d", "b")));
+    }
+
+    @Test
+    public void testCycle() {
+        try {
+            new DecisionGraph(requirements("a", "b", "b", "c", "c", "a"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The decisions [a, b, c] require each other.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testMissingDecision() {
+        DecisionGraph decisionGraph = new DecisionGraph(requirements("a", "b"));
+        try {
+            decisionGraph.getEvaluationOrder(Collections.singletonList("a"));
+            fail();
+        } catch (DecisionEvaluationException e) {
+            assertEquals("No such decision 'b', which is required by decision 'a'.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testExecutor() {
+        DecisionGraph decisionGraph = new DecisionGraph(requirements("a", "b,c", "b", "d", "c", "d", "d", ""));
+        for (int threads: new int[] { 1, 3 }) {
+            DecisionGraphExecutor executor = new DecisionGraphExecutor(threads);
+            try {
+                // each decision concatenates its id to the results of its required decisions
+                Map<String, String> results = executor.evaluate(decisionGraph, Arrays.asList("a", "b"),
+                        (String decisionId, List<String> requiredResults) -> String.join("", requiredResults) + decisionId);
+                assertEquals(Arrays.asList("a", "b"), Arrays.asList(results.keySet().toArray()));
+                assertEquals("ddbdca", results.get("a"));
+                assertEquals("db", results.get("b"));
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private static Map<String, List<String>> requirements(String... decisions) {
+        Map<String, List<String>> requirements = new LinkedHashMap<>();
+        for (int i = 0; i < decisions.length; i += 2) {
+            requirements.put(decisions[i], decisions[i + 1].isEmpty()? Collections.emptyList() : Arrays.asList(decisions[i + 1].split(",")));
+        }
+        return requirements;
+    }
+
+}
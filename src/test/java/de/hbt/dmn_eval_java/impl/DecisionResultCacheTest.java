@@ -0,0 +1,69 @@
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.ContractLot;
+import de.hbt.dmn_eval_java.impl.compiler.FeelValues;
+import de.hbt.dmn_eval_java.impl.compiler.InputExpression;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class DecisionResultCacheTest {
+
+    private static final InputExpression[] INPUT_EXPRESSIONS = {
+            new InputExpression(new String[] { "lot", "packaging" }), new InputExpression(new String[] { "amount" }) };
+
+    @Test
+    public void testCreateKey() {
+        DecisionResultCache cache = new DecisionResultCache(INPUT_EXPRESSIONS, 10, -1L);
+        ContractLot lot = new ContractLot();
+        lot.setPackaging("Bags");
+        Map<String, Object> input = new HashMap<>();
+        input.put("lot", lot);
+        input.put("amount", 5);
+        assertEquals(Arrays.asList("Bags", 5), cache.createKey(input));
+        input.remove("amount");
+        assertEquals(Arrays.asList("Bags", FeelValues.UNDEFINED), cache.createKey(input));
+        // functions and other objects are no values
+        input.put("amount", (Function<Integer, Integer>) (value) -> value);
+        assertNull(cache.createKey(input));
+        input.put("amount", new ContractLot());
+        assertNull(cache.createKey(input));
+        assertNull(cache.createKey("no input"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResultIsEvicted() {
+        DecisionResultCache cache = new DecisionResultCache(INPUT_EXPRESSIONS, 2, -1L);
+        List<Map<String, Object>> result = Collections.singletonList(Collections.singletonMap("score", 30));
+        cache.put(Arrays.asList("Bags", 1), result);
+        cache.put(Arrays.asList("Bags", 2), result);
+        assertNotNull(cache.get(Arrays.asList("Bags", 1)));
+        cache.put(Arrays.asList("Bags", 3), result);
+        assertEquals(2, cache.size());
+        assertNull(cache.get(Arrays.asList("Bags", 2)));
+        assertEquals(result, cache.get(Arrays.asList("Bags", 1)));
+        assertEquals(result, cache.get(Arrays.asList("Bags", 3)));
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testResultsExpire() throws InterruptedException {
+        DecisionResultCache cache = new DecisionResultCache(INPUT_EXPRESSIONS, 10, 50L);
+        cache.put(Arrays.asList("Bags", 1), Collections.emptyList());
+        assertNotNull(cache.get(Arrays.asList("Bags", 1)));
+        Thread.sleep(100L);
+        assertNull(cache.get(Arrays.asList("Bags", 1)));
+        assertEquals(0, cache.size());
+    }
+
+}
@@ -0,0 +1,36 @@
+package de.hbt.dmn_eval_java.impl;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DmnEvalJsScriptsTest {
+
+    @Test
+    public void testGuardLoggingCalls() {
+        assertEquals("if (a) {\n  dmnEvalJsLogger.isInfoEnabled() && dmnEvalJsLogger.info('Result: ' + JSON.stringify(a));\n}",
+                DmnEvalJsScripts.guardLoggingCalls("if (a) {\n  logger.info('Result: ' + JSON.stringify(a));\n}"));
+        assertEquals("dmnEvalJsLogger.isDebugEnabled() && dmnEvalJsLogger.debug(x);break;",
+                DmnEvalJsScripts.guardLoggingCalls("logger.debug(x);break;"));
+        // other loggers are not touched
+        assertEquals("self.logger.info(x); mylogger.warn(x); logger.trace(x);",
+                DmnEvalJsScripts.guardLoggingCalls("self.logger.info(x); mylogger.warn(x); logger.trace(x);"));
+    }
+
+    @Test
+    public void testAllLoggingCallsOfDmnEvalJsAreGuarded() throws IOException {
+        String script = new String(Files.readAllBytes(Paths.get("src/main/resources/dmn-eval-js.js")), StandardCharsets.UTF_8);
+        Pattern loggingCall = Pattern.compile("(?<![\\w.$])logger\\.(debug|info|warn|error)\\(");
+        assertTrue(loggingCall.matcher(script).find());
+        assertFalse(loggingCall.matcher(DmnEvalJsScripts.guardLoggingCalls(script)).find());
+    }
+
+}
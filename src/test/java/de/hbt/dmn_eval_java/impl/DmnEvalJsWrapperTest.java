@@ -0,0 +1,104 @@
+package de.hbt.dmn_eval_java.impl;
+
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.script.ScriptContext;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DmnEvalJsWrapperTest {
+
+    private static final String HELPERS = "function parseRule(inputText, outputText) {\n"
+            + "    var parsedDecisions = dmnEvalJs.decisionTable.parseDecisions([{\n"
+            + "        id: 'decision',\n"
+            + "        decisionTable: {\n"
+            + "            hitPolicy: 'COLLECT',\n"
+            + "            rule: [{ inputEntry: [{ text: inputText }], outputEntry: [{ text: outputText }] }],\n"
+            + "            input: [{ inputExpression: { text: 'input.value' } }],\n"
+            + "            output: [{ name: 'output' }]\n"
+            + "        }\n"
+            + "    }]);\n"
+            + "    return precompileRules(parsedDecisions);\n"
+            + "}\n"
+            + "function entryOf(parsedDecisions, isInputEntry) {\n"
+            + "    var rule = parsedDecisions.decision.decisionTable.rules[0];\n"
+            + "    return isInputEntry ? rule.input[0] : rule.output[0];\n"
+            + "}\n"
+            + "function isBuiltOnce(inputText, outputText, isInputEntry) {\n"
+            + "    var entry = entryOf(parseRule(inputText, outputText), isInputEntry);\n"
+            + "    var context = { input: { value: 1, limit: 5 } };\n"
+            + "    return entry.build(context) === entry.build(context);\n"
+            + "}\n"
+            + "function isPrecompiled(inputText, outputText, isInputEntry) {\n"
+            + "    return entryOf(parseRule(inputText, outputText), isInputEntry).hasOwnProperty('build');\n"
+            + "}\n"
+            + "function isOutputShared(value) {\n"
+            + "    var entry = { type: 'SimpleExpressions', build: function () { return [JSON.parse(value)]; } };\n"
+            + "    precompileEntry(entry, false);\n"
+            + "    return entry.build({})[0] === entry.build({})[0];\n"
+            + "}\n";
+
+    private static ScriptObjectMirror global;
+
+    @BeforeClass
+    public static void evaluateScripts() {
+        DmnEvalJsScripts dmnEvalJsScripts = DmnEvalJsScripts.getInstance(null);
+        ScriptContext scriptContext = dmnEvalJsScripts.createScriptContext();
+        scriptContext.setAttribute(DmnEvalJsScripts.LOGGER_VARIABLE, new DmnEvalJsLogger(), ScriptContext.ENGINE_SCOPE);
+        List<Object> scriptResults = dmnEvalJsScripts.evaluate(scriptContext);
+        global = (ScriptObjectMirror) scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
+        global.put("dmnEvalJs", scriptResults.get(2));
+        global.eval(HELPERS);
+    }
+
+    private boolean isBuiltOnce(String inputText, String outputText, boolean isInputEntry) {
+        return (Boolean) global.callMember("isBuiltOnce", inputText, outputText, isInputEntry);
+    }
+
+    private boolean isPrecompiled(String inputText, String outputText, boolean isInputEntry) {
+        return (Boolean) global.callMember("isPrecompiled", inputText, outputText, isInputEntry);
+    }
+
+    @Test
+    public void testConstantEntriesAreBuiltOnce() {
+        assertTrue(isBuiltOnce("\"A\", \"B\"", "1", true));
+        assertTrue(isBuiltOnce("< 10", "1", true));
+        assertTrue(isBuiltOnce("[1..10]", "1", true));
+        assertTrue(isBuiltOnce("not(\"C\")", "1", true));
+        assertTrue(isBuiltOnce("-", "\"Message\"", false));
+        assertTrue(isBuiltOnce("-", "-1.5", false));
+        assertTrue(isBuiltOnce("-", "true", false));
+    }
+
+    @Test
+    public void testContextDependentEntriesAreBuiltPerCall() {
+        // names
+        assertFalse(isBuiltOnce("< input.limit", "1", true));
+        assertFalse(isBuiltOnce("-", "input.value + 1", false));
+        assertFalse(isPrecompiled("< input.limit", "1", true));
+        // function calls
+        assertFalse(isPrecompiled("-", "f(1, 2)", false));
+        // dates, which Nashorn cannot build
+        assertFalse(isPrecompiled(">= date(\"2018-01-01\")", "1", true));
+        assertFalse(isPrecompiled("-", "date(\"2018-01-01\")", false));
+    }
+
+    @Test
+    public void testObjectOutputsAreNotShared() {
+        assertTrue((Boolean) global.callMember("isOutputShared", "\"Message\""));
+        assertFalse((Boolean) global.callMember("isOutputShared", "{\"message\": \"Message\"}"));
+        assertFalse((Boolean) global.callMember("isOutputShared", "[1, 2]"));
+    }
+
+    @Test
+    public void testWrapperUsesConstantNodeTypesOfCompiler() {
+        assertEquals(Boolean.TRUE, global.callMember("isConstantNode", global.eval("({ type: 'Literal', value: 1 })")));
+        assertEquals(Boolean.FALSE, global.callMember("isConstantNode", global.eval("({ type: 'Name', nameChars: 'a' })")));
+    }
+
+}
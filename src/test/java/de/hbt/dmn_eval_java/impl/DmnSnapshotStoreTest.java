@@ -0,0 +1,61 @@
+package de.hbt.dmn_eval_java.impl;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DmnSnapshotStoreTest {
+
+    @Test
+    public void testReadAndWrite() throws IOException {
+        Path directory = Files.createTempDirectory("dmn-eval-java-snapshots");
+        try {
+            DmnSnapshotStore snapshotStore = new DmnSnapshotStore(directory.toString());
+            assertNull(snapshotStore.read("<definitions/>"));
+
+            snapshotStore.write("<definitions/>", "{\"decision\": \"ä\"}");
+            assertEquals("{\"decision\": \"ä\"}", snapshotStore.read("<definitions/>"));
+            // the snapshot of other content is never used
+            assertNull(snapshotStore.read("<definitions />"));
+
+            snapshotStore.write("<definitions/>", "{}");
+            assertEquals("{}", snapshotStore.read("<definitions/>"));
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(1L, files.count());
+            }
+
+            // snapshots of other versions of the scripts are ignored, and replaced by the next snapshot of the content
+            DmnSnapshotStore otherScriptsStore = new DmnSnapshotStore(directory.toString(), "other scripts");
+            assertNull(otherScriptsStore.read("<definitions/>"));
+            otherScriptsStore.write("<definitions/>", "{\"other\": true}");
+            assertEquals("{\"other\": true}", otherScriptsStore.read("<definitions/>"));
+            assertNull(snapshotStore.read("<definitions/>"));
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(1L, files.count());
+            }
+
+            // the content is hashed like its UTF-8 encoding, also beyond the size of the buffer
+            StringBuilder largeContent = new StringBuilder("<definitions>");
+            for (int i = 0; i < 5000; ++i) {
+                largeContent.append("<decision id=\"ä").append(i).append("\"/>");
+            }
+            snapshotStore.write(largeContent + "</definitions>", "{\"large\": true}");
+            assertEquals("{\"large\": true}", snapshotStore.read(largeContent + "</definitions>"));
+            assertNull(snapshotStore.read(largeContent + "</definitions >"));
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file: (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.DecisionEvaluationException;
+import de.hbt.dmn_eval_java.QueueFullPolicy;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EngineExecutorTest {
+
+    @Test
+    public void testRejectIfQueueIsFull() throws Exception {
+        EngineExecutor engineExecutor = new EngineExecutor(1, 1, QueueFullPolicy.REJECT);
+        CountDownLatch latch = new CountDownLatch(1);
+        CompletableFuture<String> running = engineExecutor.submit(() -> await(latch));
+        CompletableFuture<String> queued = engineExecutor.submit(() -> "queued");
+        CompletableFuture<String> rejected = engineExecutor.submit(() -> "rejected");
+        assertFailedWith(DecisionEvaluationException.class, rejected);
+
+        latch.countDown();
+        assertEquals("running", running.get(10, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(10, TimeUnit.SECONDS));
+        engineExecutor.shutdown();
+    }
+
+    @Test
+    public void testCallerRunsIfQueueIsFull() throws Exception {
+        EngineExecutor engineExecutor = new EngineExecutor(1, 1, QueueFullPolicy.CALLER_RUNS);
+        CountDownLatch latch = new CountDownLatch(1);
+        CompletableFuture<String> running = engineExecutor.submit(() -> await(latch));
+        CompletableFuture<String> queued = engineExecutor.submit(() -> "queued");
+        Thread caller = Thread.currentThread();
+        CompletableFuture<Thread> callerRuns = engineExecutor.submit(Thread::currentThread);
+        assertEquals(caller, callerRuns.get(10, TimeUnit.SECONDS));
+
+        latch.countDown();
+        assertEquals("running", running.get(10, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(10, TimeUnit.SECONDS));
+        assertNotEquals(caller, engineExecutor.submit(Thread::currentThread).get(10, TimeUnit.SECONDS));
+        engineExecutor.shutdown();
+    }
+
+    @Test
+    public void testUnboundedWorkIsNotRejected() throws Exception {
+        EngineExecutor engineExecutor = new EngineExecutor(1, 1, QueueFullPolicy.REJECT);
+        CountDownLatch latch = new CountDownLatch(1);
+        CompletableFuture<String> running = engineExecutor.submit(() -> await(latch));
+        CompletableFuture<String> queued = engineExecutor.submit(() -> "queued");
+        List<CompletableFuture<String>> unbounded = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            unbounded.add(engineExecutor.submitUnbounded(() -> "unbounded"));
+        }
+        // unbounded work takes up no space in the queue of evaluations
+        assertFailedWith(DecisionEvaluationException.class, engineExecutor.submit(() -> "rejected"));
+
+        latch.countDown();
+        assertEquals("running", running.get(10, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(10, TimeUnit.SECONDS));
+        for (CompletableFuture<String> future: unbounded) {
+            assertEquals("unbounded", future.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals("queued again", engineExecutor.submit(() -> "queued again").get(10, TimeUnit.SECONDS));
+        engineExecutor.shutdown();
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        EngineExecutor engineExecutor = new EngineExecutor(1, 10, QueueFullPolicy.BLOCK);
+        CountDownLatch latch = new CountDownLatch(1);
+        engineExecutor.submit(() -> await(latch));
+        CompletableFuture<String> queued = engineExecutor.submit(() -> "queued");
+        engineExecutor.shutdown();
+        latch.countDown();
+        assertFailedWith(DecisionEvaluationException.class, queued);
+        assertFailedWith(DecisionEvaluationException.class, engineExecutor.submit(() -> "rejected"));
+    }
+
+    private static String await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "running";
+    }
+
+    private static void assertFailedWith(Class<?> exceptionClass, CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals(exceptionClass, e.getCause().getClass());
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.ContractLot;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class InputObjectWrapperTest {
+
+    @Test
+    public void testWrapObject() {
+        OrganicContractLot lot = new OrganicContractLot();
+        lot.setPackaging("Bags");
+        WrappedInputObject wrappedLot = InputObjectWrapper.INSTANCE.wrapInput(lot);
+        assertEquals("map", wrappedLot.getType());
+        // inherited getters and "is" getters of boolean properties, but not getClass()
+        assertEquals(new HashSet<>(Arrays.asList("packaging", "organic", "certificate")), new HashSet<>(wrappedLot.getProperties()));
+
+        Map<?, ?> properties = (Map<?, ?>) wrappedLot.getValue();
+        assertEquals("Bags", ((WrappedInputObject) properties.get("packaging")).getValue());
+        assertEquals(true, ((WrappedInputObject) properties.get("organic")).getValue());
+        assertNull(((WrappedInputObject) properties.get("certificate")).getValue());
+    }
+
+    @Test
+    public void testPropertyGettersAreCached() {
+        assertSame(InputObjectWrapper.getPropertyGetters(OrganicContractLot.class), InputObjectWrapper.getPropertyGetters(OrganicContractLot.class));
+        assertEquals("Bags", InputObjectWrapper.getPropertyGetters(ContractLot.class).get("packaging").get(createLot("Bags")));
+    }
+
+    @Test
+    public void testNonPublicGetters() {
+        WrappedInputObject wrappedLot = InputObjectWrapper.INSTANCE.wrapInput(new CertifiedContractLot());
+        assertEquals(new HashSet<>(Arrays.asList("packaging", "certificate", "auditor")), new HashSet<>(wrappedLot.getProperties()));
+        Map<?, ?> properties = (Map<?, ?>) wrappedLot.getValue();
+        assertEquals("EU-001", ((WrappedInputObject) properties.get("certificate")).getValue());
+        assertEquals("Audit GmbH", ((WrappedInputObject) properties.get("auditor")).getValue());
+    }
+
+    private static ContractLot createLot(String packaging) {
+        ContractLot lot = new ContractLot();
+        lot.setPackaging(packaging);
+        return lot;
+    }
+
+    public static class OrganicContractLot extends ContractLot {
+
+        public boolean isOrganic() {
+            return true;
+        }
+
+        public String getCertificate() {
+            return null;
+        }
+
+    }
+
+    public static class CertifiedContractLot extends ContractLot {
+
+        String getCertificate() {
+            return "EU-001";
+        }
+
+        protected String getAuditor() {
+            return "Audit GmbH";
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+package de.hbt.dmn_eval_java.impl;
+
+import de.hbt.dmn_eval_java.HitPolicy;
+import de.hbt.dmn_eval_java.MatchingScoreResult;
+import de.hbt.dmn_eval_java.MessageAndOutputValueResult;
+import de.hbt.dmn_eval_java.OutputScoreResult;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ResultMapperTest {
+
+    @Test
+    public void testNestedOutputNames() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("message", "Message 1");
+        result.put("output", Collections.singletonMap("property", "Value 1"));
+        result.put("unknown", "ignored");
+        MessageAndOutputValueResult mappedResult = ResultMapper.INSTANCE.mapResult(result, MessageAndOutputValueResult.class);
+        assertEquals("Message 1", mappedResult.getMessage());
+        assertEquals("Value 1", mappedResult.getOutput().getProperty());
+
+        result.put("output", Collections.singletonMap("property", null));
+        assertNull(ResultMapper.INSTANCE.mapResult(result, MessageAndOutputValueResult.class).getOutput().getProperty());
+    }
+
+    @Test
+    public void testNumberConversion() {
+        assertEquals(Integer.valueOf(30), ResultMapper.INSTANCE.mapResult(Collections.singletonMap("matchingScore", 30.0),
+                MatchingScoreResult.class).getMatchingScore());
+        assertEquals(Integer.valueOf(50), ResultMapper.INSTANCE.mapResult(Collections.singletonMap("output", Collections.singletonMap("score", 50.0)),
+                OutputScoreResult.class).getScore());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("count", 3);
+        result.put("amount", 2.5);
+        result.put("text", 42);
+        result.put("values", Arrays.asList(1, 2.0));
+        result.put("hitPolicy", "COLLECT");
+        // beyond the range of int
+        result.put("total", 1e12);
+        result.put("volume", 1e20);
+        TypedResult mappedResult = ResultMapper.INSTANCE.mapResult(result, TypedResult.class);
+        assertEquals(3L, mappedResult.count);
+        assertEquals(new BigDecimal("2.5"), mappedResult.amount);
+        assertEquals("42", mappedResult.text);
+        assertEquals(Arrays.asList(1L, 2L), mappedResult.values);
+        assertEquals(1000000000000L, mappedResult.total);
+        assertEquals(BigInteger.TEN.pow(20), mappedResult.volume);
+        // types that are not mapped directly are mapped by Gson
+        assertEquals(HitPolicy.COLLECT, mappedResult.hitPolicy);
+    }
+
+    @Test
+    public void testMapResult() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("message", "Message 1");
+        result.put("output", Collections.singletonMap("score", 50));
+        result.put("empty", null);
+        Map<?, ?> mappedResult = ResultMapper.INSTANCE.mapResult(result, Map.class);
+        assertEquals("Message 1", mappedResult.get("message"));
+        assertEquals(Collections.singletonMap("score", 50), mappedResult.get("output"));
+        assertEquals(2, mappedResult.size());
+    }
+
+    private static class TypedResult {
+        private long count;
+        private BigDecimal amount;
+        private String text;
+        private List<Long> values;
+        private HitPolicy hitPolicy;
+        private long total;
+        private BigInteger volume;
+    }
+
+}
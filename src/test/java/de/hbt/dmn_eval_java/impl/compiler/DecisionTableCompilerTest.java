@@ -0,0 +1,371 @@
+package de.hbt.dmn_eval_java.impl.compiler;
+
+import de.hbt.dmn_eval_java.ContractLot;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DecisionTableCompilerTest {
+
+    @Test
+    public void testFirstHitPolicy() {
+        CompiledDecision decision = DecisionTableCompiler.compile("decision", decision("FIRST",
+                Collections.singletonList("lot.packaging"), Collections.singletonList("score"),
+                rule(cell(false, test(null, literal("Bulk")), test(null, literal("Big Bags"))), literal(0)),
+                rule(cell(false), literal(30))));
+        assertNotNull(decision);
+
+        ContractLot lot = new ContractLot();
+        lot.setPackaging("Big Bags");
+        assertEquals(0, decision.evaluate(Collections.singletonMap("lot", lot)).get(0).get("score"));
+        lot.setPackaging("Bags");
+        assertEquals(30, decision.evaluate(Collections.singletonMap("lot", lot)).get(0).get("score"));
+        // the packaging is undefined, so only the wildcard matches
+        assertEquals(30, decision.evaluate(Collections.singletonMap("lot", new HashMap<>())).get(0).get("score"));
+    }
+
+    @Test
+    public void testComparisonsAndIntervals() {
+        CompiledDecision decision = DecisionTableCompiler.compile("decision", decision("COLLECT",
+                Collections.singletonList("value"), Collections.singletonList("rule"),
+                rule(cell(false, test("<", literal(2))), literal("< 2")),
+                rule(cell(false, test(">=", negated(literal(3)))), literal(">= -3")),
+                rule(cell(false, interval("<=", literal(1), literal(10), ">=")), literal("[1..10]")),
+                rule(cell(false, interval("<", literal(1), literal(10), ">")), literal("]1..10[")),
+                rule(cell(true, test(null, literal(1)), test(null, literal(2.5))), literal("not(1, 2.5)"))));
+        assertNotNull(decision);
+
+        assertEquals(Arrays.asList("< 2", ">= -3", "[1..10]"), evaluateRules(decision, 1));
+        assertEquals(Arrays.asList(">= -3", "[1..10]", "]1..10["), evaluateRules(decision, 2.5));
+        assertEquals(Arrays.asList(">= -3", "[1..10]", "not(1, 2.5)"), evaluateRules(decision, 10.0f));
+        assertEquals(Arrays.asList("< 2", ">= -3", "not(1, 2.5)"), evaluateRules(decision, (short) -3));
+        assertEquals(Arrays.asList("< 2", "not(1, 2.5)"), evaluateRules(decision, -3.5));
+    }
+
+    @Test
+    public void testUndefinedInput() {
+        CompiledDecision decision = DecisionTableCompiler.compile("decision", decision("COLLECT",
+                Collections.singletonList("value"), Collections.singletonList("rule"),
+                rule(cell(false, test(null, literal("A")), test(null, literal("B"))), literal("A, B")),
+                rule(cell(true, test(null, literal("A"))), literal("not(A)")),
+                rule(cell(false), literal("-"))));
+        assertNotNull(decision);
+
+        // tests of undefined values are neither true nor false, neither negated nor not
+        List<Map<String, Object>> results = decision.evaluate(new HashMap<>());
+        assertEquals(1, results.size());
+        assertEquals("-", results.get(0).get("rule"));
+    }
+
+    @Test
+    public void testNestedOutputNames() {
+        CompiledDecision decision = DecisionTableCompiler.compile("decision", decision("UNIQUE",
+                Collections.singletonList("category"), Arrays.asList("message", "output.property"),
+                rule(cell(false, test(null, literal("A"))), literal("Message A"), literal("Value A")),
+                rule(cell(false, test(null, literal("B"))), literal("Message B"), null)));
+        assertNotNull(decision);
+
+        Map<String, Object> result = decision.evaluate(Collections.singletonMap("category", "A")).get(0);
+        assertEquals("Message A", result.get("message"));
+        assertEquals(Collections.singletonMap("property", "Value A"), result.get("output"));
+        result = decision.evaluate(Collections.singletonMap("category", "B")).get(0);
+        assertEquals(Collections.singletonMap("property", null), result.get("output"));
+        // like dmn-eval-js, return undefined outputs if no rule matched
+        result = decision.evaluate(Collections.singletonMap("category", "C")).get(0);
+        assertTrue(result.containsKey("message"));
+        assertNull(result.get("message"));
+    }
+
+    @Test
+    public void testFallbackToScriptEngine() {
+        CompiledDecision decision = DecisionTableCompiler.compile("decision", decision("UNIQUE",
+                Collections.singletonList("value"), Collections.singletonList("rule"),
+                rule(cell(false, test("<", literal(10))), literal(1)),
+                rule(cell(false, test("<", literal(5))), literal(2))));
+        assertNotNull(decision);
+
+        assertEquals(1, decision.evaluate(Collections.singletonMap("value", 7)).get(0).get("rule"));
+        // violation of the hit policy
+        assertNull(decision.evaluate(Collections.singletonMap("value", 3)));
+        // comparison of different types
+        assertNull(decision.evaluate(Collections.singletonMap("value", "3")));
+        // Java types that are no Javascript numbers
+        assertNull(decision.evaluate(Collections.singletonMap("value", 3L)));
+        // null values
+        assertNull(decision.evaluate(Collections.singletonMap("value", null)));
+        // no map or Java bean
+        assertNull(decision.evaluate("value"));
+    }
+
+    @Test
+    public void testUniqueRuleOverlaps() {
+        CompiledDecision decision = DecisionTableCompiler.compile("decision", decision("UNIQUE",
+                Arrays.asList("a", "b"), Collections.singletonList("rule"),
+                rule(Arrays.asList(cell(false, test(null, literal("A"))), cell(false, test("<", literal(5)))), literal(1)),
+                rule(Arrays.asList(cell(false, test(null, literal("A"))), cell(false, test(">=", literal(5)))), literal(2)),
+                rule(Arrays.asList(cell(false, test(null, literal("B"))), cell(false)), literal(3))));
+        assertNotNull(decision);
+        assertTrue(decision.isStoppingAtFirstMatch());
+        assertTrue(decision.getOverlappingRules().isEmpty());
+
+        Map<String, Object> input = new HashMap<>();
+        input.put("a", "A");
+        input.put("b", 3);
+        assertEquals(1, decision.evaluate(input).get(0).get("rule"));
+        input.put("b", 7);
+        assertEquals(2, decision.evaluate(input).get(0).get("rule"));
+        input.put("a", "B");
+        assertEquals(3, decision.evaluate(input).get(0).get("rule"));
+        // comparison of different types
+        input.put("a", "A");
+        input.put("b", "3");
+        assertNull(decision.evaluate(input));
+        List<List<Map<String, Object>>> columnResults = decision.evaluateColumns(
+                new Object[] { new Object[] { "A", "A", "B", "C" }, new double[] { 3, 7, 3, 3 } }, 4);
+        assertEquals(1, columnResults.get(0).get(0).get("rule"));
+        assertEquals(2, columnResults.get(1).get(0).get("rule"));
+        assertEquals(3, columnResults.get(2).get(0).get("rule"));
+        assertNull(columnResults.get(3).get(0).get("rule"));
+
+        // the second rule would be unsupported for a string b, which the first rule matches
+        decision = DecisionTableCompiler.compile("decision", decision("UNIQUE",
+                Arrays.asList("a", "b"), Collections.singletonList("rule"),
+                rule(Arrays.asList(cell(false, test(null, literal("A"))), cell(false)), literal(1)),
+                rule(Arrays.asList(cell(false), cell(false, test("<", literal(5)))), literal(2))));
+        assertNotNull(decision);
+        assertFalse(decision.isStoppingAtFirstMatch());
+        assertEquals(1, decision.getOverlappingRules().size());
+        RuleOverlap overlap = decision.getOverlappingRules().get(0);
+        assertEquals(1, overlap.getFirstRule());
+        assertEquals(2, overlap.getSecondRule());
+        assertEquals("rules 1 and 2 (e.g. a = \"A\", b = 0)", overlap.toString());
+        input.put("b", "x");
+        assertNull(decision.evaluate(input));
+        input.put("b", 7);
+        assertEquals(1, decision.evaluate(input).get(0).get("rule"));
+
+        // decisions that are not compiled are analysed as well
+        assertEquals(decision.getOverlappingRules().toString(), DecisionTableCompiler.findOverlappingRules("decision", decision("UNIQUE",
+                Arrays.asList("a", "b"), Collections.singletonList("rule"),
+                rule(Arrays.asList(cell(false, test(null, literal("A"))), cell(false)), literal(1)),
+                rule(Arrays.asList(cell(false), cell(false, test("<", literal(5)))), literal(2)))).toString());
+        assertTrue(DecisionTableCompiler.findOverlappingRules("decision", decision("FIRST",
+                Collections.singletonList("a"), Collections.singletonList("rule"),
+                rule(cell(false), literal(1)), rule(cell(false), literal(2)))).isEmpty());
+    }
+
+    @Test
+    public void testLargeDecisionTable() {
+        Object[] rules = new Object[50];
+        for (int i = 0; i < rules.length - 1; ++i) {
+            rules[i] = rule(cell(false, interval("<=", literal(i * 10), literal(i * 10 + 9), ">=")), literal(i));
+        }
+        rules[rules.length - 1] = rule(cell(false), literal(-1));
+        CompiledDecision decision = DecisionTableCompiler.compile("decision", decision("COLLECT",
+                Collections.singletonList("value"), Collections.singletonList("rule"), rules));
+        assertNotNull(decision);
+
+        assertEquals(Arrays.asList(0, -1), evaluateRules(decision, 0));
+        assertEquals(Arrays.asList(42, -1), evaluateRules(decision, 425));
+        assertEquals(Arrays.asList(48, -1), evaluateRules(decision, 485.5));
+        assertEquals(Collections.singletonList(-1), evaluateRules(decision, 9.5));
+        assertEquals(Collections.singletonList(-1), evaluateRules(decision, 1000));
+        assertEquals(Collections.singletonList(-1), evaluateRules(decision, FeelValues.UNDEFINED));
+        // comparison of different types
+        assertNull(decision.evaluate(Collections.singletonMap("value", "425")));
+    }
+
+    @Test
+    public void testUnsupportedConstructs() {
+        // required decisions
+        Map<String, Object> decision = decision("FIRST", Collections.singletonList("value"), Collections.singletonList("rule"),
+                rule(cell(false), literal(1)));
+        decision.put("requiredDecisions", Collections.singletonList("otherDecision"));
+        assertNull(DecisionTableCompiler.compile("decision", decision));
+        // names of built-in functions
+        assertNull(DecisionTableCompiler.compile("decision", decision("FIRST", Collections.singletonList("date"),
+                Collections.singletonList("rule"), rule(cell(false), literal(1)))));
+        // output entries that are no literals
+        assertNull(DecisionTableCompiler.compile("decision", decision("FIRST", Collections.singletonList("value"),
+                Collections.singletonList("rule"), rule(cell(false), negated(literal(1))))));
+        // output entries with more than one expression, of which dmn-eval-js returns all values
+        Map<String, Object> rule = rule(cell(false), literal(1));
+        rule.put("output", Collections.singletonList(node("SimpleExpressions", "simpleExpressions", Arrays.asList(literal(1), literal(2)))));
+        assertNull(DecisionTableCompiler.compile("decision", decision("FIRST", Collections.singletonList("value"),
+                Collections.singletonList("rule"), rule)));
+        // input entries that reference the input
+        assertNull(DecisionTableCompiler.compile("decision", decision("FIRST", Collections.singletonList("value"),
+                Collections.singletonList("rule"), rule(cell(false, test(null, qualifiedName("other"))), literal(1)))));
+    }
+
+    @Test
+    public void testCompileInputExpressions() {
+        // results depend on the values of the input expressions only
+        assertEquals(1, DecisionTableCompiler.compileInputExpressions(decision("FIRST", Collections.singletonList("value"),
+                Collections.singletonList("rule"), rule(cell(true, test("<", negated(literal(1)))), negated(literal(1))))).length);
+        // input entries that reference the input
+        assertNull(DecisionTableCompiler.compileInputExpressions(decision("FIRST", Collections.singletonList("value"),
+                Collections.singletonList("rule"), rule(cell(false, test(null, qualifiedName("other"))), literal(1)))));
+        // output entries that reference the input
+        assertNull(DecisionTableCompiler.compileInputExpressions(decision("FIRST", Collections.singletonList("value"),
+                Collections.singletonList("rule"), rule(cell(false), qualifiedName("other")))));
+    }
+
+    @Test
+    public void testColumnarEvaluation() {
+        int rowCount = 10000;
+        double[] doubleQuantities = new double[rowCount];
+        long[] longQuantities = new long[rowCount];
+        Object[] quantities = new Object[rowCount];
+        Object[] categories = new Object[rowCount];
+        Random random = new Random(42);
+        for (int row = 0; row < rowCount; ++row) {
+            longQuantities[row] = random.nextInt(200) - 50;
+            doubleQuantities[row] = longQuantities[row] + ((row % 3 == 0)? 0.5 : 0.0);
+            // some values are not supported, like comparisons of strings with numbers, Java types that are no Javascript numbers, and null
+            Object[] unsupportedQuantities = { "7", 7L, null };
+            quantities[row] = (row % 97 == 0)? unsupportedQuantities[row % 3] : (Object) (int) longQuantities[row];
+            categories[row] = (row % 101 == 0)? null : String.valueOf((char) ('A' + random.nextInt(4)));
+        }
+        for (String hitPolicy: Arrays.asList("FIRST", "UNIQUE", "COLLECT", "RULE ORDER")) {
+            CompiledDecision decision = DecisionTableCompiler.compile("decision", decision(hitPolicy,
+                    Arrays.asList("lot.quantity", "lot.category"), Collections.singletonList("rule"),
+                    rule(Arrays.asList(cell(false, test("<", literal(10))), cell(false, test(null, literal("A")), test(null, literal("B")))), literal(1)),
+                    rule(Arrays.asList(cell(false, interval("<=", literal(10), literal(100), ">=")), cell(false)), literal(2)),
+                    rule(Arrays.asList(cell(false), cell(true, test(null, literal("C")))), literal(3)),
+                    rule(Arrays.asList(cell(false, test(null, literal(42))), cell(false, test(null, literal("D")))), literal(4))));
+            assertNotNull(decision);
+
+            for (Object quantityColumn: Arrays.asList(doubleQuantities, longQuantities, quantities, null)) {
+                Object[] columns = { quantityColumn, categories };
+                List<List<Map<String, Object>>> results = decision.evaluateColumns(columns, rowCount);
+                assertEquals(rowCount, results.size());
+                if (hitPolicy.equals("FIRST") && (quantityColumn == doubleQuantities)) {
+                    // only the rows with null values are evaluated by the script engine
+                    assertEquals(100, Collections.frequency(results, null));
+                }
+                for (int row = 0; row < rowCount; ++row) {
+                    Object[] values = new Object[columns.length];
+                    for (int i = 0; i < columns.length; ++i) {
+                        values[i] = getColumnValue(columns[i], row);
+                    }
+                    assertEquals(hitPolicy + ", row " + row, decision.evaluateValues(values, null), results.get(row));
+                }
+            }
+        }
+    }
+
+    private static Object getColumnValue(Object column, int row) {
+        if (column == null) {
+            return FeelValues.UNDEFINED;
+        }
+        if (column instanceof double[]) {
+            return ((double[]) column)[row];
+        }
+        if (column instanceof long[]) {
+            return FeelValues.toNumber(((long[]) column)[row]);
+        }
+        Object value = ((Object[]) column)[row];
+        return (value == null)? FeelValues.UNSUPPORTED : value;
+    }
+
+    private static List<Object> evaluateRules(CompiledDecision decision, Object value) {
+        List<Object> rules = new ArrayList<>();
+        for (Map<String, Object> result: decision.evaluate(Collections.singletonMap("value", value))) {
+            rules.add(result.get("rule"));
+        }
+        return rules;
+    }
+
+    private static Map<String, Object> decision(String hitPolicy, List<String> inputExpressions, List<String> outputNames, Object... rules) {
+        List<Object> parsedInputExpressions = new ArrayList<>();
+        for (String inputExpression: inputExpressions) {
+            parsedInputExpressions.add(node("SimpleExpressions", "simpleExpressions", Collections.singletonList(qualifiedName(inputExpression))));
+        }
+        Map<String, Object> decisionTable = new HashMap<>();
+        decisionTable.put("hitPolicy", hitPolicy);
+        decisionTable.put("rules", Arrays.asList(rules));
+        decisionTable.put("inputExpressions", inputExpressions);
+        decisionTable.put("parsedInputExpressions", parsedInputExpressions);
+        decisionTable.put("outputNames", outputNames);
+        Map<String, Object> decision = new HashMap<>();
+        decision.put("decisionTable", decisionTable);
+        decision.put("requiredDecisions", Collections.emptyList());
+        return decision;
+    }
+
+    private static Map<String, Object> rule(Object inputEntry, Object... outputs) {
+        return rule(Collections.singletonList(inputEntry), outputs);
+    }
+
+    private static Map<String, Object> rule(List<Object> inputEntries, Object... outputs) {
+        List<Object> outputEntries = new ArrayList<>();
+        for (Object output: outputs) {
+            outputEntries.add((output == null)? null : node("SimpleExpressions", "simpleExpressions", Collections.singletonList(output)));
+        }
+        Map<String, Object> rule = new HashMap<>();
+        rule.put("input", inputEntries);
+        rule.put("output", outputEntries);
+        return rule;
+    }
+
+    private static Map<String, Object> cell(boolean not, Object... tests) {
+        Map<String, Object> cell = node("SimpleUnaryTestsNode", "expr", (tests.length == 0)? null : Arrays.asList(tests));
+        cell.put("not", not? "not" : null);
+        return cell;
+    }
+
+    private static Map<String, Object> test(String operator, Object operand) {
+        Map<String, Object> test = node("SimplePositiveUnaryTest", "operator", operator);
+        test.put("operand", operand);
+        return test;
+    }
+
+    private static Map<String, Object> interval(String startType, Object startpoint, Object endpoint, String endType) {
+        Map<String, Object> interval = node("Interval", "intervalstart", node("IntervalStartLiteral", "intervalType", startType));
+        interval.put("startpoint", startpoint);
+        interval.put("endpoint", endpoint);
+        interval.put("intervalend", node("IntervalEndLiteral", "intervalType", endType));
+        return interval;
+    }
+
+    private static Map<String, Object> negated(Object operand) {
+        Map<String, Object> expression = node("ArithmeticExpression", "operator", "-");
+        expression.put("operand_1", null);
+        expression.put("operand_2", operand);
+        return expression;
+    }
+
+    private static Map<String, Object> literal(Object value) {
+        return node("Literal", "value", value);
+    }
+
+    private static Map<String, Object> qualifiedName(String expression) {
+        List<Object> names = new ArrayList<>();
+        for (String name: expression.split("\\.")) {
+            names.add(node("Name", "nameChars", name));
+        }
+        return node("QualifiedName", "names", names);
+    }
+
+    private static Map<String, Object> node(String type, String property, Object value) {
+        Map<String, Object> node = new LinkedHashMap<>();
+        node.put("type", type);
+        node.put(property, value);
+        return node;
+    }
+
+}
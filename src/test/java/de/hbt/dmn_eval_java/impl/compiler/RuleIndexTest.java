@@ -0,0 +1,96 @@
+package de.hbt.dmn_eval_java.impl.compiler;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class RuleIndexTest {
+
+    private static final List<Object> NUMBERS = Arrays.asList(0.0, 1.0, 2.5, 3.0, 7.0, -0.0, 10.0);
+    private static final List<Object> STRINGS = Arrays.asList("A", "B", "Bags", "C", "E");
+    private static final List<Object> VALUES = Arrays.asList(FeelValues.UNDEFINED, null, -1, 0, -0.0, 1, 2, 2.5, 3.0f,
+            (short) 7, 9.99, 10, 11.5, Double.NaN, 3L, "", "A", "Ba", "Bags", "Big Bags", "C", "D", "\u0000", true, false);
+
+    @Test
+    public void testCandidatesOfRandomDecisionTables() {
+        Random random = new Random(4711);
+        for (int table = 0; table < 200; ++table) {
+            CompiledRule[] rules = new CompiledRule[RuleIndex.MIN_RULES + random.nextInt(40)];
+            for (int i = 0; i < rules.length; ++i) {
+                rules[i] = new CompiledRule(new UnaryTest[] { randomTest(random, NUMBERS), randomTest(random, STRINGS) },
+                        Collections.emptyMap());
+            }
+            RuleIndex ruleIndex = RuleIndex.build(rules, 2);
+            assertNotNull(ruleIndex);
+            for (Object first: VALUES) {
+                for (Object second: VALUES) {
+                    assertCandidates(rules, ruleIndex.findCandidates(new Object[] { first, second }), first, second);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNoIndexForFewRules() {
+        CompiledRule rule = new CompiledRule(new UnaryTest[] { new ComparisonTest("==", "A") }, Collections.emptyMap());
+        CompiledRule[] rules = new CompiledRule[RuleIndex.MIN_RULES - 1];
+        Arrays.fill(rules, rule);
+        assertNull(RuleIndex.build(rules, 1));
+    }
+
+    private static void assertCandidates(CompiledRule[] rules, BitSet candidates, Object... values) {
+        boolean supported = true;
+        for (CompiledRule rule: rules) {
+            for (int i = 0; i < values.length; ++i) {
+                supported &= (rule.getTests()[i].test(values[i]) != UnaryTest.UNSUPPORTED);
+            }
+        }
+        for (int i = 0; i < rules.length; ++i) {
+            int result = rules[i].matches(values);
+            if (!candidates.get(i)) {
+                // rules that are no candidates must not match, and must not abort the evaluation
+                assertEquals(Arrays.toString(values), UnaryTest.FALSE, result);
+            } else if (supported) {
+                // if all tests are supported, the candidates are exactly the matching rules
+                assertEquals(Arrays.toString(values), UnaryTest.TRUE, result);
+            }
+        }
+    }
+
+    private static UnaryTest randomTest(Random random, List<Object> operands) {
+        switch (random.nextInt(7)) {
+            case 0:
+                return UnaryTest.ANY;
+            case 1:
+                return new ComparisonTest(randomOperator(random), randomOperand(random, operands));
+            case 2:
+                return new ComparisonTest("==", (random.nextInt(4) == 0)? null : randomOperand(random, operands));
+            case 3:
+                return new IntervalTest(new ComparisonTest(random.nextBoolean()? ">" : ">=", randomOperand(random, operands)),
+                        new ComparisonTest(random.nextBoolean()? "<" : "<=", randomOperand(random, operands)));
+            default:
+                UnaryTest[] tests = new UnaryTest[1 + random.nextInt(3)];
+                for (int i = 0; i < tests.length; ++i) {
+                    tests[i] = new ComparisonTest(random.nextBoolean()? "==" : randomOperator(random), randomOperand(random, operands));
+                }
+                return new UnaryTests(tests, random.nextBoolean());
+        }
+    }
+
+    private static String randomOperator(Random random) {
+        return Arrays.asList("==", "<", "<=", ">", ">=").get(random.nextInt(5));
+    }
+
+    private static Object randomOperand(Random random, List<Object> operands) {
+        return operands.get(random.nextInt(operands.size()));
+    }
+
+}